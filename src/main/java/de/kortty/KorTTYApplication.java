@@ -8,11 +8,15 @@ import de.kortty.core.SSHKeyManager;
 import de.kortty.core.GlobalSettingsManager;
 import de.kortty.core.BackupManager;
 import de.kortty.jmx.SSHClientMonitor;
+import de.kortty.persistence.HistoryStorage;
+import de.kortty.persistence.JAXBContextRegistry;
 import de.kortty.security.MasterPasswordManager;
 import de.kortty.ui.MainWindow;
 import de.kortty.ui.MasterPasswordDialog;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 import org.slf4j.Logger;
@@ -23,6 +27,14 @@ import javax.management.ObjectName;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Main entry point for the KorTTY SSH Client application.
@@ -43,6 +55,29 @@ public class KorTTYApplication extends Application {
     private SSHKeyManager sshKeyManager;
     private GlobalSettingsManager globalSettingsManager;
     private BackupManager backupManager;
+    private HistoryStorage historyStorage;
+    
+    // Startup loading: each configuration file is read on its own thread
+    private final ExecutorService startupLoader = Executors.newFixedThreadPool(4, new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Startup-Loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final Map<String, Long> startupMillis = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final ReadOnlyBooleanWrapper configurationLoaded = new ReadOnlyBooleanWrapper(false);
+    private CompletableFuture<Void> globalSettingsLoad;
+    private CompletableFuture<Void> startupLoads;
+    private volatile long timeToFirstWindowMillis = -1;
+    
+    @FunctionalInterface
+    private interface Loader {
+        void load() throws Exception;
+    }
     
     public static void main(String[] args) {
         logger.info("Starting {} v{}", APP_NAME, APP_VERSION);
@@ -67,6 +102,9 @@ public class KorTTYApplication extends Application {
             logger.info("Created configuration directory: {}", configDir);
         }
         
+        // Build the XML bindings while the master password is typed
+        JAXBContextRegistry.warmUp();
+        
         // Initialize managers
         configManager = new ConfigurationManager(configDir);
         sessionManager = new SessionManager();
@@ -75,6 +113,15 @@ public class KorTTYApplication extends Application {
         credentialManager = new CredentialManager(configDir);
         sshKeyManager = new SSHKeyManager(configDir);
         globalSettingsManager = new GlobalSettingsManager(configDir);
+        historyStorage = new HistoryStorage(configDir);
+        historyStorage.cleanupJournals();
+        
+        // Everything that does not need the master password is loaded while it is typed
+        globalSettingsLoad = loadAsync("Global settings", globalSettingsManager::load);
+        startupLoads = CompletableFuture.allOf(globalSettingsLoad,
+                loadAsync("GPG keys", gpgKeyManager::load),
+                loadAsync("Credentials", credentialManager::load),
+                loadAsync("SSH keys", sshKeyManager::load));
         
         // Register JMX MBean
         registerJMXBean();
@@ -107,32 +154,37 @@ public class KorTTYApplication extends Application {
     public void start(Stage primaryStage) {
         try {
             // Check if master password needs to be set up or verified
+            long dialogStart = System.nanoTime();
             if (!handleMasterPassword(primaryStage)) {
                 Platform.exit();
                 return;
             }
+            long dialogMillis = (System.nanoTime() - dialogStart) / 1_000_000;
+            startupMillis.put("Master password dialog", dialogMillis);
             
-            // Load configuration
-            configManager.load(masterPasswordManager.getDerivedKey());
+            // Load connections
+            startupLoads = CompletableFuture.allOf(startupLoads,
+                    loadAsync("Connections", () -> configManager.load(masterPasswordManager.getDerivedKey())));
             
-            // Load GPG keys, credentials, and SSH keys
-            try {
-                gpgKeyManager.load();
-                credentialManager.load();
-                sshKeyManager.load();
-                globalSettingsManager.load();
-                
-                // Initialize BackupManager after settings are loaded
-                backupManager = new BackupManager(getConfigDirectory(), globalSettingsManager.getSettings());
-            } catch (Exception e) {
-                logger.warn("Failed to load GPG keys or credentials", e);
-            }
+            // The window only needs the global settings, for its geometry
+            globalSettingsLoad.join();
+            backupManager = new BackupManager(getConfigDirectory(), globalSettingsManager.getSettings());
             
-            // Create and show main window
+            // Create and show main window; menus that need the other files wait for them
             MainWindow mainWindow = new MainWindow(primaryStage);
             mainWindow.show();
             
-            logger.info("{} started successfully", APP_NAME);
+            // Time the user spent in the password dialog does not count
+            timeToFirstWindowMillis = ManagementFactory.getRuntimeMXBean().getUptime() - dialogMillis;
+            logger.info("{} started successfully, main window shown after {} ms", APP_NAME, timeToFirstWindowMillis);
+            
+            long loadStart = System.nanoTime();
+            startupLoads.whenComplete((result, error) -> Platform.runLater(() -> {
+                startupMillis.put("Configuration after window", (System.nanoTime() - loadStart) / 1_000_000);
+                configurationLoaded.set(true);
+                startupLoader.shutdown();
+                logger.info("Configuration loaded: {}", startupMillis);
+            }));
             
         } catch (Exception e) {
             logger.error("Failed to start application", e);
@@ -144,6 +196,11 @@ public class KorTTYApplication extends Application {
     public void stop() throws Exception {
         logger.info("Shutting down {}...", APP_NAME);
         
+        // Never save over files that have not been read completely
+        if (startupLoads != null) {
+            startupLoads.join();
+        }
+        
         // Close all SSH sessions
         if (sessionManager != null) {
             sessionManager.closeAllSessions();
@@ -175,6 +232,22 @@ public class KorTTYApplication extends Application {
         logger.info("{} shutdown complete", APP_NAME);
     }
     
+    /**
+     * Runs a load on the startup threads and records how long it took.
+     * A failed load is logged and leaves the defaults in place.
+     */
+    private CompletableFuture<Void> loadAsync(String name, Loader loader) {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                loader.load();
+            } catch (Exception e) {
+                logger.warn("Failed to load {}", name, e);
+            }
+            startupMillis.put(name, (System.nanoTime() - start) / 1_000_000);
+        }, startupLoader);
+    }
+    
     private boolean handleMasterPassword(Stage ownerStage) {
         MasterPasswordDialog dialog = new MasterPasswordDialog(ownerStage, masterPasswordManager);
         return dialog.showAndWait();
@@ -242,6 +315,38 @@ public class KorTTYApplication extends Application {
         return globalSettingsManager;
     }
     
+    public HistoryStorage getHistoryStorage() {
+        return historyStorage;
+    }
+    
+    /**
+     * True once connections, keys and credentials are loaded. Changes on the FX thread.
+     */
+    public ReadOnlyBooleanProperty configurationLoadedProperty() {
+        return configurationLoaded.getReadOnlyProperty();
+    }
+    
+    public boolean isConfigurationLoaded() {
+        return configurationLoaded.get();
+    }
+    
+    /**
+     * Gets the milliseconds from JVM start to the main window, without the master password dialog,
+     * or -1 before the window is shown.
+     */
+    public long getTimeToFirstWindowMillis() {
+        return timeToFirstWindowMillis;
+    }
+    
+    /**
+     * Gets the duration of each startup step in milliseconds.
+     */
+    public Map<String, Long> getStartupMillis() {
+        synchronized (startupMillis) {
+            return new LinkedHashMap<>(startupMillis);
+        }
+    }
+    
     public BackupManager getBackupManager() {
         return backupManager;
     }
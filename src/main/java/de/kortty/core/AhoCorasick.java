@@ -0,0 +1,160 @@
+package de.kortty.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Case-insensitive Aho-Corasick automaton that finds any number of literals in one pass.
+ *
+ * ASCII transitions are precomputed into a full table, so scanning ASCII text is one array
+ * lookup per character regardless of the number of patterns. Other characters fall back to
+ * a map per state and the failure links.
+ */
+public class AhoCorasick {
+    
+    private static final int ASCII = 128;
+    
+    private final int[][] asciiNext;
+    private final List<Map<Character, Integer>> otherNext;
+    private final int[] fail;
+    private final int[][] outputs;
+    private final int patternCount;
+    
+    /**
+     * Builds the automaton. Patterns are matched case-insensitively; empty patterns never match.
+     */
+    public AhoCorasick(List<String> patterns) {
+        this.patternCount = patterns.size();
+        
+        // 1. Trie
+        List<int[]> ascii = new ArrayList<>();
+        List<Map<Character, Integer>> other = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        ascii.add(newRow());
+        other.add(new HashMap<>());
+        out.add(new ArrayList<>());
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = fold(pattern.charAt(i));
+                int next = c < ASCII ? ascii.get(state)[c] : other.get(state).getOrDefault(c, -1);
+                if (next < 0) {
+                    next = ascii.size();
+                    ascii.add(newRow());
+                    other.add(new HashMap<>());
+                    out.add(new ArrayList<>());
+                    if (c < ASCII) {
+                        ascii.get(state)[c] = next;
+                    } else {
+                        other.get(state).put(c, next);
+                    }
+                }
+                state = next;
+            }
+            out.get(state).add(id);
+        }
+        
+        // 2. Failure links (BFS); ASCII transitions become a complete table on the way
+        int states = ascii.size();
+        int[] failLinks = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        int[] root = ascii.get(0);
+        for (int c = 0; c < ASCII; c++) {
+            if (root[c] < 0) {
+                root[c] = 0;
+            } else {
+                queue.add(root[c]);
+            }
+        }
+        for (int child : other.get(0).values()) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = ascii.get(state);
+            out.get(state).addAll(out.get(failLinks[state]));
+            for (int c = 0; c < ASCII; c++) {
+                int child = row[c];
+                if (child < 0) {
+                    row[c] = ascii.get(failLinks[state])[c];
+                } else {
+                    failLinks[child] = ascii.get(failLinks[state])[c];
+                    queue.add(child);
+                }
+            }
+            for (Map.Entry<Character, Integer> entry : other.get(state).entrySet()) {
+                int child = entry.getValue();
+                failLinks[child] = step(other, failLinks, failLinks[state], entry.getKey());
+                queue.add(child);
+            }
+        }
+        
+        this.asciiNext = ascii.toArray(new int[0][]);
+        this.otherNext = other;
+        this.fail = failLinks;
+        this.outputs = new int[states][];
+        for (int i = 0; i < states; i++) {
+            outputs[i] = out.get(i).stream().mapToInt(Integer::intValue).distinct().toArray();
+        }
+    }
+    
+    private static int[] newRow() {
+        int[] row = new int[ASCII];
+        Arrays.fill(row, -1);
+        return row;
+    }
+    
+    private static int step(List<Map<Character, Integer>> other, int[] failLinks, int state, char c) {
+        while (true) {
+            Integer next = other.get(state).get(c);
+            if (next != null) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failLinks[state];
+        }
+    }
+    
+    private static char fold(char c) {
+        if (c < ASCII) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+    
+    /**
+     * Marks the ids of all patterns that occur in the text.
+     *
+     * @return true if at least one pattern was found
+     */
+    public boolean findAll(CharSequence text, BitSet found) {
+        boolean any = false;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = fold(text.charAt(i));
+            state = c < ASCII ? asciiNext[state][c] : step(otherNext, fail, state, c);
+            int[] matches = outputs[state];
+            for (int id : matches) {
+                found.set(id);
+                any = true;
+            }
+        }
+        return any;
+    }
+    
+    public int getPatternCount() {
+        return patternCount;
+    }
+}
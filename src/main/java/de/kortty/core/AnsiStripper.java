@@ -0,0 +1,205 @@
+package de.kortty.core;
+
+/**
+ * Streaming filter that removes VT/ANSI control sequences from terminal output
+ * and assembles the remaining text into lines.
+ *
+ * The parser state survives between calls to {@link #feed(CharSequence)}, so escape
+ * sequences that are split across chunk boundaries are handled correctly. Completed
+ * lines are handed to the {@link LineSink} as a reused buffer; the sink must copy the
+ * text if it wants to keep it.
+ */
+public class AnsiStripper {
+    
+    private static final char ESC = 0x1B;
+    private static final char BEL = 0x07;
+    private static final char CAN = 0x18;
+    private static final char SUB = 0x1A;
+    
+    private enum State {
+        GROUND,
+        ESCAPE,         // after ESC
+        CSI,            // ESC [ ... final byte
+        STRING,         // OSC, DCS, SOS, PM, APC - terminated by BEL or ST
+        STRING_ESCAPE,  // ESC inside a string, expecting '\' (ST)
+        CHARSET         // ESC ( X and other sequences with one intermediate byte
+    }
+    
+    private final LineSink sink;
+    private final int maxLineLength;
+    private final StringBuilder line;
+    private State state = State.GROUND;
+    private boolean splitting = false;
+    
+    public AnsiStripper(LineSink sink, int maxLineLength) {
+        this.sink = sink;
+        this.maxLineLength = maxLineLength;
+        this.line = new StringBuilder(Math.min(maxLineLength, 256));
+    }
+    
+    /**
+     * Processes a chunk of terminal output.
+     */
+    public void feed(CharSequence data) {
+        for (int i = 0, n = data.length(); i < n; i++) {
+            process(data.charAt(i));
+        }
+    }
+    
+    /**
+     * Processes a chunk of terminal output from a char array.
+     */
+    public void feed(char[] buf, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            process(buf[i]);
+        }
+    }
+    
+    /**
+     * Emits the pending partial line, if any.
+     */
+    public void flush() {
+        endLine();
+    }
+    
+    /**
+     * Gets the text of the line that has not been terminated yet, e.g. a prompt.
+     * The buffer is reused; copy it to keep it.
+     */
+    public CharSequence getPartialLine() {
+        return line;
+    }
+    
+    /**
+     * Tells the sink whether the current line was cut at the maximum length rather than
+     * ended by the output; the rest follows as the next line. Only valid inside
+     * {@link LineSink#onLine}.
+     */
+    public boolean isSplitLine() {
+        return splitting;
+    }
+    
+    /**
+     * Resets the parser, discarding any partial line or escape sequence.
+     */
+    public void reset() {
+        state = State.GROUND;
+        line.setLength(0);
+    }
+    
+    private void process(char c) {
+        switch (state) {
+            case GROUND:
+                ground(c);
+                break;
+            
+            case ESCAPE:
+                if (c == '[') {
+                    state = State.CSI;
+                } else if (c == ']' || c == 'P' || c == 'X' || c == '^' || c == '_') {
+                    state = State.STRING;
+                } else if (c >= 0x20 && c <= 0x2F) {
+                    // Intermediate byte, e.g. ESC ( B - one more byte follows
+                    state = State.CHARSET;
+                } else if (c == ESC) {
+                    state = State.ESCAPE;
+                } else {
+                    // Two-character sequence like ESC 7, ESC =, ESC M
+                    state = State.GROUND;
+                }
+                break;
+            
+            case CSI:
+                if (c >= 0x40 && c <= 0x7E) {
+                    state = State.GROUND;
+                } else if (c == ESC) {
+                    state = State.ESCAPE;
+                } else if (c == CAN || c == SUB) {
+                    state = State.GROUND;
+                }
+                break;
+            
+            case STRING:
+                if (c == BEL || c == '\u009C') {
+                    state = State.GROUND;
+                } else if (c == ESC) {
+                    state = State.STRING_ESCAPE;
+                } else if (c == CAN || c == SUB) {
+                    state = State.GROUND;
+                }
+                break;
+            
+            case STRING_ESCAPE:
+                if (c == '\\') {
+                    state = State.GROUND;
+                } else {
+                    // ESC inside a string starts a new sequence
+                    state = State.ESCAPE;
+                    process(c);
+                }
+                break;
+            
+            case CHARSET:
+                state = State.GROUND;
+                break;
+        }
+    }
+    
+    private void ground(char c) {
+        if (c >= 0x20 && c != 0x7F && (c < 0x80 || c > 0x9F)) {
+            line.append(c);
+            // Never split a surrogate pair
+            if (line.length() >= maxLineLength && !Character.isHighSurrogate(c)) {
+                splitting = true;
+                endLine();
+                splitting = false;
+            }
+            return;
+        }
+        
+        switch (c) {
+            case ESC:
+                state = State.ESCAPE;
+                break;
+            case '\n':
+            case '\r':
+                endLine();
+                break;
+            case '\t':
+                line.append(c);
+                break;
+            case '\b':
+                if (line.length() > 0) {
+                    line.setLength(line.length() - 1);
+                }
+                break;
+            case '\u009B': // C1 CSI
+                state = State.CSI;
+                break;
+            case '\u0090': // C1 DCS
+            case '\u009D': // C1 OSC
+            case '\u0098': // C1 SOS
+            case '\u009E': // C1 PM
+            case '\u009F': // C1 APC
+                state = State.STRING;
+                break;
+            default:
+                // Other C0/C1 control characters are dropped
+                break;
+        }
+    }
+    
+    private void endLine() {
+        if (line.length() > 0) {
+            sink.onLine(line);
+            line.setLength(0);
+        }
+    }
+    
+    /**
+     * Receives completed lines of plain text.
+     */
+    public interface LineSink {
+        void onLine(CharSequence line);
+    }
+}
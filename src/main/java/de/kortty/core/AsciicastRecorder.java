@@ -0,0 +1,189 @@
+package de.kortty.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records terminal output as asciicast v2 (one JSON event per line) with a keyframe index.
+ *
+ * The data path only timestamps a chunk and puts it on a queue; escaping and writing happen on
+ * the recorder's own thread. Every {@link #KEYFRAME_INTERVAL_NANOS} a snapshot of the screen is
+ * queued together with the next event. The writer stores it in the sidecar index
+ * ({@code <file>.idx}) with the byte offset of that event, so a player can start from the
+ * nearest snapshot instead of replaying the whole recording.
+ */
+public class AsciicastRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsciicastRecorder.class);
+    private static final long KEYFRAME_INTERVAL_NANOS = 5_000_000_000L;
+    private static final int QUEUE_CAPACITY = 100_000;
+    private static final long FLUSH_INTERVAL_NANOS = 1_000_000_000L;
+    
+    private final Path castFile;
+    private final Path indexFile;
+    private final Supplier<AsciicastRecording.Screen> screenSupplier;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong droppedChunks = new AtomicLong();
+    private final long startNanos;
+    private long lastKeyframeNanos;
+    private volatile boolean running = true;
+    private final Thread writerThread;
+    
+    /**
+     * Starts a recording.
+     *
+     * @param castFile       target file
+     * @param title          title stored in the header
+     * @param screenSupplier returns the current screen; called on the data path thread
+     */
+    public AsciicastRecorder(Path castFile, String title, Supplier<AsciicastRecording.Screen> screenSupplier)
+            throws IOException {
+        this.castFile = castFile;
+        this.indexFile = AsciicastRecording.indexFileFor(castFile);
+        this.screenSupplier = screenSupplier;
+        this.startNanos = System.nanoTime();
+        this.lastKeyframeNanos = startNanos - KEYFRAME_INTERVAL_NANOS; // first event gets a keyframe
+        
+        Files.createDirectories(castFile.toAbsolutePath().getParent());
+        AsciicastRecording.Screen screen = screenSupplier.get();
+        OutputStream castOut = new BufferedOutputStream(Files.newOutputStream(castFile), 64 * 1024);
+        OutputStream indexOut = new BufferedOutputStream(Files.newOutputStream(indexFile), 16 * 1024);
+        
+        StringBuilder header = new StringBuilder("{\"version\": 2, \"width\": ").append(screen.columns())
+                .append(", \"height\": ").append(screen.rows())
+                .append(", \"timestamp\": ").append(System.currentTimeMillis() / 1000)
+                .append(", \"title\": ");
+        AsciicastRecording.appendJsonString(header, title);
+        header.append(", \"env\": {\"TERM\": \"xterm-256color\"}}\n");
+        byte[] headerBytes = header.toString().getBytes(StandardCharsets.UTF_8);
+        castOut.write(headerBytes);
+        
+        writerThread = new Thread(() -> writeLoop(castOut, indexOut, headerBytes.length),
+                "AsciicastRecorder-" + title);
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.NORM_PRIORITY - 1);
+        writerThread.start();
+        
+        logger.info("Recording started: {}", castFile);
+    }
+    
+    /**
+     * Records a chunk of output. Called from the connector's data path; never blocks.
+     */
+    public void onOutput(String data) {
+        if (!running || data == null || data.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        AsciicastRecording.Screen keyframe = null;
+        if (now - lastKeyframeNanos >= KEYFRAME_INTERVAL_NANOS) {
+            // The emulator has processed everything before this chunk, so the screen matches
+            keyframe = screenSupplier.get();
+            lastKeyframeNanos = now;
+        }
+        if (!queue.offer(new Entry(now - startNanos, data, keyframe))) {
+            droppedChunks.incrementAndGet();
+            lastKeyframeNanos = 0; // force a fresh keyframe so playback resynchronizes
+        }
+    }
+    
+    /**
+     * Stops the recording and waits until everything is written.
+     */
+    public void stop() {
+        running = false;
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (droppedChunks.get() > 0) {
+            logger.warn("Recording {} dropped {} chunks (writer too slow)", castFile, droppedChunks.get());
+        }
+        logger.info("Recording stopped: {}", castFile);
+    }
+    
+    private void writeLoop(OutputStream castOut, OutputStream indexOut, long headerLength) {
+        long offset = headerLength;
+        long lastFlush = System.nanoTime();
+        long lastNanos = 0;
+        StringBuilder line = new StringBuilder(1024);
+        
+        try (castOut; indexOut) {
+            while (running || !queue.isEmpty()) {
+                Entry entry = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    lastNanos = entry.nanos();
+                    if (entry.keyframe() != null) {
+                        castOut.flush();
+                        writeKeyframe(indexOut, lastNanos, offset, entry.keyframe(), line);
+                    }
+                    
+                    line.setLength(0);
+                    line.append('[');
+                    AsciicastRecording.appendSeconds(line, entry.nanos());
+                    line.append(", \"o\", ");
+                    AsciicastRecording.appendJsonString(line, entry.data());
+                    line.append("]\n");
+                    byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                    castOut.write(bytes);
+                    offset += bytes.length;
+                }
+                
+                if (System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                    castOut.flush();
+                    indexOut.flush();
+                    lastFlush = System.nanoTime();
+                }
+            }
+            
+            // Closing entry with the total duration, so the player does not need to scan the file
+            line.setLength(0);
+            line.append("{\"end\": ");
+            AsciicastRecording.appendSeconds(line, lastNanos);
+            line.append(", \"offset\": ").append(offset).append("}\n");
+            indexOut.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.error("Recording failed: {}", castFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void writeKeyframe(OutputStream indexOut, long nanos, long offset,
+                               AsciicastRecording.Screen screen, StringBuilder line) throws IOException {
+        line.setLength(0);
+        line.append("{\"time\": ");
+        AsciicastRecording.appendSeconds(line, nanos);
+        line.append(", \"offset\": ").append(offset)
+                .append(", \"width\": ").append(screen.columns())
+                .append(", \"height\": ").append(screen.rows())
+                .append(", \"screen\": ");
+        AsciicastRecording.appendJsonString(line, screen.toAnsi());
+        line.append("}\n");
+        indexOut.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public Path getCastFile() {
+        return castFile;
+    }
+    
+    public long getDroppedChunks() {
+        return droppedChunks.get();
+    }
+    
+    private record Entry(long nanos, String data, AsciicastRecording.Screen keyframe) {
+    }
+}
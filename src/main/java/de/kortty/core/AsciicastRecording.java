@@ -0,0 +1,431 @@
+package de.kortty.core;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read access to an asciicast v2 recording and its keyframe index.
+ *
+ * Only the header and the index are loaded up front; events are streamed from a byte offset,
+ * so seeking in a recording of several hours only reads the events after the nearest keyframe.
+ * Recordings without an index (e.g. from asciinema) still play, starting from the beginning.
+ * Also holds the small JSON helpers shared with {@link AsciicastRecorder}.
+ */
+public class AsciicastRecording {
+    
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int TAIL_SCAN_BYTES = 64 * 1024;
+    
+    private final Path castFile;
+    private final int width;
+    private final int height;
+    private final String title;
+    private final List<Keyframe> keyframes;
+    private final double duration;
+    
+    private AsciicastRecording(Path castFile, int width, int height, String title,
+                               List<Keyframe> keyframes, double duration) {
+        this.castFile = castFile;
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.keyframes = keyframes;
+        this.duration = duration;
+    }
+    
+    /**
+     * Opens a recording; reads the header and the keyframe index.
+     */
+    public static AsciicastRecording open(Path castFile) throws IOException {
+        String headerLine;
+        try (BufferedReader reader = Files.newBufferedReader(castFile, StandardCharsets.UTF_8)) {
+            headerLine = reader.readLine();
+        }
+        if (headerLine == null) {
+            throw new IOException("Leere Aufnahme: " + castFile);
+        }
+        Map<String, Object> header = parseObject(headerLine);
+        if (!Double.valueOf(2).equals(header.get("version"))) {
+            throw new IOException("Kein asciicast v2 Format: " + castFile);
+        }
+        int width = ((Double) header.getOrDefault("width", 80.0)).intValue();
+        int height = ((Double) header.getOrDefault("height", 24.0)).intValue();
+        String title = (String) header.getOrDefault("title", castFile.getFileName().toString());
+        long firstEventOffset = headerLine.getBytes(StandardCharsets.UTF_8).length + 1;
+        
+        List<Keyframe> keyframes = new ArrayList<>();
+        keyframes.add(new Keyframe(0, firstEventOffset, width, height, ""));
+        double duration = -1;
+        Path indexFile = indexFileFor(castFile);
+        if (Files.exists(indexFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    Map<String, Object> entry = parseObject(line);
+                    if (entry.containsKey("end")) {
+                        duration = (Double) entry.get("end");
+                    } else {
+                        keyframes.add(new Keyframe((Double) entry.get("time"),
+                                ((Double) entry.get("offset")).longValue(),
+                                ((Double) entry.get("width")).intValue(),
+                                ((Double) entry.get("height")).intValue(),
+                                (String) entry.get("screen")));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // A truncated index (crash while recording) is still usable up to the broken line
+            }
+        }
+        if (duration < 0) {
+            duration = scanDuration(castFile);
+        }
+        return new AsciicastRecording(castFile, width, height, title, keyframes, duration);
+    }
+    
+    /**
+     * Reads the time of the last complete event from the end of the file.
+     */
+    private static double scanDuration(Path castFile) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(castFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int length = (int) Math.min(size, TAIL_SCAN_BYTES);
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            channel.position(size - length);
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // read the tail completely
+            }
+            String[] lines = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).split("\n");
+            for (int i = lines.length - 1; i >= 0; i--) {
+                Event event = parseEvent(lines[i]);
+                if (event != null) {
+                    return event.time();
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Gets the last keyframe at or before the given time.
+     */
+    public Keyframe keyframeAt(double time) {
+        int low = 0;
+        int high = keyframes.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (keyframes.get(mid).time() <= time) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return keyframes.get(low);
+    }
+    
+    /**
+     * Opens a stream of events starting at a byte offset (from a keyframe).
+     */
+    public EventReader openEvents(long offset) throws IOException {
+        SeekableByteChannel channel = Files.newByteChannel(castFile, StandardOpenOption.READ);
+        channel.position(offset);
+        return new EventReader(new BufferedReader(
+                new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), 64 * 1024));
+    }
+    
+    public static Path indexFileFor(Path castFile) {
+        return castFile.resolveSibling(castFile.getFileName() + INDEX_SUFFIX);
+    }
+    
+    public Path getCastFile() {
+        return castFile;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public double getDuration() {
+        return duration;
+    }
+    
+    public int getKeyframeCount() {
+        return keyframes.size() - 1;
+    }
+    
+    /**
+     * Sequential reader for output events; other event types are skipped.
+     */
+    public static class EventReader implements Closeable {
+        
+        private final BufferedReader reader;
+        
+        private EventReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+        
+        /**
+         * Gets the next output event, or null at the end of the recording.
+         */
+        public Event next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Event event = parseEvent(line);
+                if (event != null && "o".equals(event.type())) {
+                    return event;
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+    
+    /**
+     * One event line: {@code [time, "o", "data"]}.
+     */
+    public record Event(double time, String type, String data) {
+    }
+    
+    /**
+     * A screen snapshot in the index and the offset of the first event after it.
+     */
+    public record Keyframe(double time, long offset, int width, int height, String screen) {
+    }
+    
+    /**
+     * The visible screen of a terminal, as captured for a keyframe.
+     *
+     * @param cursorRow    0-based
+     * @param cursorColumn 0-based
+     */
+    public record Screen(int columns, int rows, List<String> lines, int cursorRow, int cursorColumn) {
+        
+        /**
+         * Converts the screen into output that redraws it on a reset terminal.
+         */
+        public String toAnsi() {
+            StringBuilder ansi = new StringBuilder(columns * rows + 32);
+            ansi.append("\u001b[0m\u001b[2J\u001b[H");
+            for (int i = 0; i < lines.size() && i < rows; i++) {
+                if (i > 0) {
+                    ansi.append("\r\n");
+                }
+                ansi.append(stripTrailing(lines.get(i)));
+            }
+            ansi.append("\u001b[").append(cursorRow + 1).append(';').append(cursorColumn + 1).append('H');
+            return ansi.toString();
+        }
+        
+        private static String stripTrailing(String line) {
+            int end = line.length();
+            while (end > 0 && (line.charAt(end - 1) == ' ' || line.charAt(end - 1) == '\u0000')) {
+                end--;
+            }
+            return line.substring(0, end).replace('\u0000', ' ');
+        }
+    }
+    
+    // --- Minimal JSON support (asciicast only needs numbers, strings and flat objects) ---
+    
+    /**
+     * Appends a JSON string literal.
+     */
+    static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x7F) {
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+    
+    /**
+     * Appends a time in seconds with microsecond precision without going through String.format.
+     */
+    static void appendSeconds(StringBuilder out, long nanos) {
+        long micros = nanos / 1000;
+        out.append(micros / 1_000_000).append('.');
+        String fraction = Long.toString(micros % 1_000_000);
+        for (int i = fraction.length(); i < 6; i++) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+    
+    /**
+     * Parses an event line, or returns null if the line is not a complete event.
+     */
+    static Event parseEvent(String line) {
+        try {
+            JsonCursor cursor = new JsonCursor(line);
+            cursor.expect('[');
+            double time = cursor.readNumber();
+            cursor.expect(',');
+            String type = cursor.readString();
+            cursor.expect(',');
+            String data = cursor.readString();
+            cursor.expect(']');
+            return new Event(time, type, data);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Parses a JSON object with number, string and nested object values.
+     */
+    static Map<String, Object> parseObject(String line) {
+        return new JsonCursor(line).readObject();
+    }
+    
+    private static final class JsonCursor {
+        
+        private final String text;
+        private int pos;
+        
+        JsonCursor(String text) {
+            this.text = text;
+        }
+        
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+        
+        void expect(char c) {
+            skipWhitespace();
+            if (pos >= text.length() || text.charAt(pos) != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + pos);
+            }
+            pos++;
+        }
+        
+        Map<String, Object> readObject() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (text.charAt(pos) == '}') {
+                pos++;
+                return result;
+            }
+            while (true) {
+                String key = readString();
+                expect(':');
+                skipWhitespace();
+                char c = text.charAt(pos);
+                if (c == '"') {
+                    result.put(key, readString());
+                } else if (c == '{') {
+                    result.put(key, readObject());
+                } else {
+                    result.put(key, readNumber());
+                }
+                skipWhitespace();
+                if (text.charAt(pos) == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return result;
+                }
+            }
+        }
+        
+        double readNumber() {
+            skipWhitespace();
+            int start = pos;
+            while (pos < text.length() && "+-.0123456789eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            return Double.parseDouble(text.substring(start, pos));
+        }
+        
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(escaped); // \" \\ \/
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package de.kortty.core;
 
 import de.kortty.model.StoredCredential;
+import de.kortty.persistence.JAXBContextRegistry;
 import de.kortty.security.EncryptionService;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.Marshaller;
@@ -45,11 +46,7 @@ public class CredentialManager {
         }
         
         try {
-            JAXBContext context = JAXBContext.newInstance(
-                CredentialsWrapper.class, 
-                StoredCredential.class,
-                StoredCredential.Environment.class
-            );
+            JAXBContext context = JAXBContextRegistry.get(CredentialsWrapper.class, StoredCredential.class, StoredCredential.Environment.class);
             Unmarshaller unmarshaller = context.createUnmarshaller();
             CredentialsWrapper wrapper = (CredentialsWrapper) unmarshaller.unmarshal(file.toFile());
             
@@ -75,11 +72,7 @@ public class CredentialManager {
             CredentialsWrapper wrapper = new CredentialsWrapper();
             wrapper.setCredentials(new ArrayList<>(credentials));
             
-            JAXBContext context = JAXBContext.newInstance(
-                CredentialsWrapper.class, 
-                StoredCredential.class,
-                StoredCredential.Environment.class
-            );
+            JAXBContext context = JAXBContextRegistry.get(CredentialsWrapper.class, StoredCredential.class, StoredCredential.Environment.class);
             Marshaller marshaller = context.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
             
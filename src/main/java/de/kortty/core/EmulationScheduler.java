@@ -0,0 +1,226 @@
+package de.kortty.core;
+
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares the CPU for terminal emulation between tabs.
+ *
+ * Every tab parses its output on its own emulator thread, which pulls data through
+ * {@link SshTtyConnector#read}. The scheduler hands out that data in time slices: the focused
+ * tab reads without limit, the selected tabs of other windows get a large budget per slice,
+ * and background tabs a small one while a tab with higher priority is busy. A tab that has used
+ * its budget waits for the next slice, so its emulator thread does not compete for the CPU and
+ * its SSH window throttles the server. The CPU time of each emulator thread is measured for
+ * the dashboard.
+ */
+public final class EmulationScheduler {
+    
+    public static final long SLICE_NANOS = 50_000_000L;
+    
+    /** Chars a tab may read per slice */
+    private static final long VISIBLE_BUDGET = 512 * 1024;
+    private static final long BACKGROUND_BUDGET = 16 * 1024;
+    private static final long IDLE_BACKGROUND_BUDGET = 128 * 1024;
+    
+    /** A prioritized tab counts as busy this long after its last output */
+    private static final long BUSY_NANOS = 500_000_000L;
+    
+    private static final Set<Slot> ACTIVE = ConcurrentHashMap.newKeySet();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
+    private static volatile long lastPriorityOutputNanos = 0;
+    
+    public enum Priority {
+        FOCUSED("Fokus"),
+        VISIBLE("Sichtbar"),
+        BACKGROUND("Hintergrund");
+        
+        private final String displayName;
+        
+        Priority(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+    
+    private EmulationScheduler() {
+    }
+    
+    /**
+     * Registers a tab. Close the slot when the tab is closed.
+     */
+    public static Slot register(String name) {
+        Slot slot = new Slot(name);
+        ACTIVE.add(slot);
+        return slot;
+    }
+    
+    /**
+     * Gets the slots of all open tabs.
+     */
+    public static Collection<Slot> getActiveSlots() {
+        return Collections.unmodifiableSet(ACTIVE);
+    }
+    
+    /**
+     * Scheduling state and CPU accounting of one tab.
+     */
+    public static final class Slot {
+        
+        private final String name;
+        private volatile Priority priority = Priority.VISIBLE;
+        private volatile Thread emulatorThread;
+        private volatile boolean closed = false;
+        
+        // Only touched by the emulator thread
+        private long sliceStart = 0;
+        private long sliceChars = 0;
+        
+        private final Object lock = new Object();
+        private long throttledSlices = 0;   // guarded by lock
+        private long throttledNanos = 0;    // guarded by lock
+        private long cpuSampleNanos = 0;    // guarded by lock
+        private long cpuSampleWall = 0;     // guarded by lock
+        private double cpuPercent = 0;      // guarded by lock
+        
+        private Slot(String name) {
+            this.name = name;
+        }
+        
+        /**
+         * Called by the emulator thread before reading. Waits for the next slice if this tab
+         * has used up its budget.
+         */
+        public void awaitTurn() throws InterruptedIOException {
+            emulatorThread = Thread.currentThread();
+            long now = System.nanoTime();
+            if (now - sliceStart >= SLICE_NANOS) {
+                sliceStart = now;
+                sliceChars = 0;
+                return;
+            }
+            if (sliceChars < budget(now)) {
+                return;
+            }
+            
+            long wait = SLICE_NANOS - (now - sliceStart);
+            try {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for an emulation slice");
+            }
+            synchronized (lock) {
+                throttledSlices++;
+                throttledNanos += wait;
+            }
+            sliceStart = System.nanoTime();
+            sliceChars = 0;
+        }
+        
+        /**
+         * Called by the emulator thread after reading.
+         */
+        public void onRead(int chars) {
+            sliceChars += chars;
+            if (priority != Priority.BACKGROUND) {
+                lastPriorityOutputNanos = System.nanoTime();
+            }
+        }
+        
+        private long budget(long now) {
+            return switch (priority) {
+                case FOCUSED -> Long.MAX_VALUE;
+                case VISIBLE -> VISIBLE_BUDGET;
+                case BACKGROUND -> now - lastPriorityOutputNanos < BUSY_NANOS
+                        ? BACKGROUND_BUDGET
+                        : IDLE_BACKGROUND_BUDGET;
+            };
+        }
+        
+        public void setPriority(Priority priority) {
+            this.priority = priority;
+        }
+        
+        public Priority getPriority() {
+            return priority;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Gets the CPU usage of the emulator thread in percent of one core, averaged since
+         * the previous call but over at least one second.
+         */
+        public double getCpuPercent() {
+            Thread thread = emulatorThread;
+            if (thread == null || closed || !THREADS.isThreadCpuTimeSupported()) {
+                return 0;
+            }
+            synchronized (lock) {
+                long now = System.nanoTime();
+                if (now - cpuSampleWall < 1_000_000_000L) {
+                    return cpuPercent;
+                }
+                long cpu = THREADS.getThreadCpuTime(thread.threadId());
+                if (cpu < 0) {
+                    return 0; // thread ended
+                }
+                if (cpuSampleWall > 0 && cpu >= cpuSampleNanos) {
+                    cpuPercent = 100.0 * (cpu - cpuSampleNanos) / (now - cpuSampleWall);
+                }
+                cpuSampleNanos = cpu;
+                cpuSampleWall = now;
+                return cpuPercent;
+            }
+        }
+        
+        /**
+         * Gets the total CPU time of the emulator thread in milliseconds.
+         */
+        public long getCpuMillis() {
+            Thread thread = emulatorThread;
+            if (thread == null || closed || !THREADS.isThreadCpuTimeSupported()) {
+                return 0;
+            }
+            return Math.max(0, THREADS.getThreadCpuTime(thread.threadId()) / 1_000_000);
+        }
+        
+        public long getThrottledSlices() {
+            synchronized (lock) {
+                return throttledSlices;
+            }
+        }
+        
+        /**
+         * Formats priority, CPU and throttling for JMX.
+         */
+        public String getSummary() {
+            long throttledMillis;
+            synchronized (lock) {
+                throttledMillis = throttledNanos / 1_000_000;
+            }
+            return String.format("%s, CPU %.1f %% (%d ms total), %d slices throttled (%d ms)",
+                    priority, getCpuPercent(), getCpuMillis(), getThrottledSlices(), throttledMillis);
+        }
+        
+        /**
+         * Removes the tab from the scheduler.
+         */
+        public void close() {
+            closed = true;
+            ACTIVE.remove(this);
+        }
+    }
+}
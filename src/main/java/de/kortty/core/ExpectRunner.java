@@ -0,0 +1,211 @@
+package de.kortty.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * Runs an {@link ExpectScript} against the output of a session.
+ *
+ * The runner is a data listener: every chunk of output advances the script as far as it
+ * can, so each command is sent as soon as its pattern appears instead of after a fixed
+ * delay. Only expect steps are timed; a scheduled task aborts the script if the pattern
+ * does not show up in time. Only the state machine runs under the runner's lock; commands are
+ * written by a sender thread of the runner, because a write can block while the channel is
+ * full, and the reader thread delivering output must not wait for it.
+ */
+public class ExpectRunner implements SshTtyConnector.DataListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExpectRunner.class);
+    private static final int MAX_WINDOW_CHARS = 8192;
+    
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Expect-Timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final String name;
+    private final ExpectScript script;
+    private final Sender sender;
+    private final Listener listener;
+    private final AnsiStripper stripper;
+    private final ExecutorService sends;
+    private final StringBuilder window = new StringBuilder();
+    private int partialOffset = 0; // chars of the unterminated line already consumed by a match
+    private int stepIndex = 0;
+    private ScheduledFuture<?> timeout;
+    private boolean finished = false;
+    private long startNanos;
+    
+    public ExpectRunner(String name, ExpectScript script, Sender sender, Listener listener) {
+        this.name = name;
+        this.script = script;
+        this.sender = sender;
+        this.listener = listener;
+        this.stripper = new AnsiStripper(this::onLine, MAX_WINDOW_CHARS);
+        this.sends = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Expect-Sender " + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Starts the script. Register the runner as data listener before output arrives.
+     */
+    public synchronized void start() {
+        startNanos = System.nanoTime();
+        logger.info("Running auto command for {} ({} steps)", name, script.getSteps().size());
+        advance();
+    }
+    
+    @Override
+    public synchronized void onData(String data) {
+        if (finished) {
+            return;
+        }
+        stripper.feed(data);
+        advance();
+    }
+    
+    /**
+     * Stops the script without notifying the listener, e.g. when the tab is closed.
+     */
+    public synchronized void cancel() {
+        finished = true;
+        cancelTimeout();
+        sends.shutdownNow();
+    }
+    
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+    
+    private void onLine(CharSequence line) {
+        int from = Math.min(partialOffset, line.length());
+        window.append(line, from, line.length()).append('\n');
+        partialOffset = 0;
+        if (window.length() > MAX_WINDOW_CHARS) {
+            window.delete(0, window.length() - MAX_WINDOW_CHARS);
+        }
+    }
+    
+    /**
+     * Executes steps until one has to wait for output that has not arrived yet.
+     */
+    private void advance() {
+        while (!finished && stepIndex < script.getSteps().size()) {
+            ExpectScript.Step step = script.getSteps().get(stepIndex);
+            if (!step.isExpect()) {
+                byte[] bytes = (step.text() + "\r").getBytes(StandardCharsets.UTF_8);
+                sends.execute(() -> send(bytes));
+                stepIndex++;
+                continue;
+            }
+            
+            if (!consumeMatch(step)) {
+                if (timeout == null) {
+                    int armedIndex = stepIndex;
+                    timeout = TIMEOUTS.schedule(() -> onTimeout(armedIndex), step.timeoutMillis(),
+                            TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            cancelTimeout();
+            stepIndex++;
+        }
+        if (!finished) {
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            finish(true, "Auto-Befehl ausgeführt (" + script.getSteps().size() + " Schritte, " + millis + " ms)");
+        }
+    }
+    
+    /**
+     * Matches the step against the output seen since the last match and consumes it.
+     */
+    private boolean consumeMatch(ExpectScript.Step step) {
+        CharSequence partial = stripper.getPartialLine();
+        int from = Math.min(partialOffset, partial.length());
+        String text = window.toString() + partial.subSequence(from, partial.length());
+        Matcher matcher = step.pattern().matcher(text);
+        if (!matcher.find()) {
+            return false;
+        }
+        // Everything up to the end of the match is consumed; the next step only sees newer output
+        int consumed = matcher.end();
+        if (consumed <= window.length()) {
+            window.delete(0, consumed);
+        } else {
+            partialOffset = from + (consumed - window.length());
+            window.setLength(0);
+        }
+        return true;
+    }
+    
+    /**
+     * Writes one command; runs on the sender thread, outside the lock.
+     */
+    private void send(byte[] bytes) {
+        try {
+            sender.send(bytes);
+        } catch (IOException e) {
+            synchronized (this) {
+                if (!finished) {
+                    finish(false, "Senden fehlgeschlagen: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private synchronized void onTimeout(int armedIndex) {
+        if (finished || stepIndex != armedIndex) {
+            return;
+        }
+        ExpectScript.Step step = script.getSteps().get(armedIndex);
+        finish(false, "Zeitüberschreitung nach " + step.timeoutMillis() / 1000 + " s bei Schritt "
+                + (armedIndex + 1) + " (" + step.describe() + ")");
+    }
+    
+    private void cancelTimeout() {
+        if (timeout != null) {
+            timeout.cancel(false);
+            timeout = null;
+        }
+    }
+    
+    private void finish(boolean success, String message) {
+        finished = true;
+        cancelTimeout();
+        // Commands already queued are still sent; the thread ends after the last one
+        sends.shutdown();
+        if (success) {
+            logger.info("Auto command for {} finished: {}", name, message);
+        } else {
+            logger.warn("Auto command for {} aborted: {}", name, message);
+        }
+        listener.onFinished(success, message);
+    }
+    
+    /**
+     * Writes automated input to the session.
+     */
+    public interface Sender {
+        void send(byte[] bytes) throws IOException;
+    }
+    
+    /**
+     * Notified once when the script has completed or was aborted.
+     */
+    public interface Listener {
+        void onFinished(boolean success, String message);
+    }
+}
@@ -0,0 +1,110 @@
+package de.kortty.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An expect-style login script, parsed from the auto command of a connection.
+ *
+ * Every line is one step:
+ * <pre>
+ * ssh admin@db01          plain line: wait for a shell prompt, then send the line
+ * expect: [Pp]assword:    wait until the output matches the regular expression
+ * send: geheim            send the text followed by Enter
+ * timeout: 30             seconds to wait in the following expect steps (default 15)
+ * # comment
+ * </pre>
+ * A single plain line, as used before, thus behaves like "wait for the prompt, then run it".
+ */
+public class ExpectScript {
+    
+    /** Matches a typical shell prompt at the very end of the output. */
+    public static final Pattern DEFAULT_PROMPT = Pattern.compile("[$#>%]\\s*$");
+    
+    private static final long DEFAULT_TIMEOUT_MILLIS = 15_000;
+    
+    private final List<Step> steps;
+    
+    private ExpectScript(List<Step> steps) {
+        this.steps = Collections.unmodifiableList(steps);
+    }
+    
+    /**
+     * Parses a script.
+     *
+     * @throws IllegalArgumentException if a regular expression or timeout is invalid
+     */
+    public static ExpectScript parse(String script) {
+        List<Step> steps = new ArrayList<>();
+        long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        int lineNumber = 0;
+        for (String rawLine : script.split("\\R")) {
+            lineNumber++;
+            String line = rawLine.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            
+            String lower = line.toLowerCase(java.util.Locale.ROOT);
+            if (lower.startsWith("expect:")) {
+                String regex = line.substring("expect:".length()).strip();
+                try {
+                    steps.add(Step.expect(Pattern.compile(regex), timeoutMillis));
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException("Zeile " + lineNumber + ": ungültiger regulärer Ausdruck: "
+                            + e.getDescription());
+                }
+            } else if (lower.startsWith("send:")) {
+                // Keep leading blanks of the text except the one after the colon
+                String text = line.substring("send:".length());
+                steps.add(Step.send(text.startsWith(" ") ? text.substring(1) : text));
+            } else if (lower.startsWith("timeout:")) {
+                try {
+                    timeoutMillis = Long.parseLong(line.substring("timeout:".length()).strip()) * 1000;
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Zeile " + lineNumber + ": Timeout in Sekunden erwartet");
+                }
+            } else {
+                steps.add(Step.expect(DEFAULT_PROMPT, timeoutMillis));
+                steps.add(Step.send(line));
+            }
+        }
+        return new ExpectScript(steps);
+    }
+    
+    public List<Step> getSteps() {
+        return steps;
+    }
+    
+    public boolean isEmpty() {
+        return steps.isEmpty();
+    }
+    
+    /**
+     * One step: either wait for a pattern (with timeout) or send a line.
+     */
+    public record Step(Pattern pattern, long timeoutMillis, String text) {
+        
+        static Step expect(Pattern pattern, long timeoutMillis) {
+            return new Step(pattern, timeoutMillis, null);
+        }
+        
+        static Step send(String text) {
+            return new Step(null, 0, text);
+        }
+        
+        public boolean isExpect() {
+            return pattern != null;
+        }
+        
+        /**
+         * Describes the step for messages; sent text is not shown, it may be a password.
+         */
+        public String describe() {
+            return isExpect() ? "warten auf /" + pattern.pattern() + "/" : "senden";
+        }
+    }
+}
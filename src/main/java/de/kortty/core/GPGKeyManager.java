@@ -1,6 +1,7 @@
 package de.kortty.core;
 
 import de.kortty.model.GPGKey;
+import de.kortty.persistence.JAXBContextRegistry;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
@@ -43,7 +44,7 @@ public class GPGKeyManager {
         }
         
         try {
-            JAXBContext context = JAXBContext.newInstance(GPGKeysWrapper.class, GPGKey.class);
+            JAXBContext context = JAXBContextRegistry.get(GPGKeysWrapper.class, GPGKey.class);
             Unmarshaller unmarshaller = context.createUnmarshaller();
             GPGKeysWrapper wrapper = (GPGKeysWrapper) unmarshaller.unmarshal(file.toFile());
             
@@ -69,7 +70,7 @@ public class GPGKeyManager {
             GPGKeysWrapper wrapper = new GPGKeysWrapper();
             wrapper.setKeys(new ArrayList<>(keys));
             
-            JAXBContext context = JAXBContext.newInstance(GPGKeysWrapper.class, GPGKey.class);
+            JAXBContext context = JAXBContextRegistry.get(GPGKeysWrapper.class, GPGKey.class);
             Marshaller marshaller = context.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
             
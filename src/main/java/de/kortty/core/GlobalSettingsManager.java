@@ -1,6 +1,7 @@
 package de.kortty.core;
 
 import de.kortty.model.GlobalSettings;
+import de.kortty.persistence.JAXBContextRegistry;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
@@ -39,7 +40,7 @@ public class GlobalSettingsManager {
         }
         
         try {
-            JAXBContext context = JAXBContext.newInstance(GlobalSettings.class);
+            JAXBContext context = JAXBContextRegistry.get(GlobalSettings.class);
             Unmarshaller unmarshaller = context.createUnmarshaller();
             this.settings = (GlobalSettings) unmarshaller.unmarshal(settingsFile.toFile());
             logger.info("Loaded global settings from {}", settingsFile);
@@ -55,7 +56,7 @@ public class GlobalSettingsManager {
     public void save() throws Exception {
         Path settingsFile = configDir.resolve(SETTINGS_FILE);
         
-        JAXBContext context = JAXBContext.newInstance(GlobalSettings.class);
+        JAXBContext context = JAXBContextRegistry.get(GlobalSettings.class);
         Marshaller marshaller = context.createMarshaller();
         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
         marshaller.marshal(settings, settingsFile.toFile());
@@ -0,0 +1,156 @@
+package de.kortty.core;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Measures the round-trip latency of single printable keystrokes for one terminal tab.
+ *
+ * A keystroke is timestamped when it is written to the channel and matched against the next
+ * output chunks; the first occurrence of the same character counts as its echo. Two histograms
+ * are kept: the echo latency (network plus server) and the render delay, i.e. how long the UI
+ * thread needs to pick up work once the echo has arrived. Keystrokes that are never echoed,
+ * e.g. at password prompts, expire after {@link #ECHO_TIMEOUT_NANOS}.
+ */
+public class KeystrokeLatencyTracker {
+    
+    private static final long ECHO_TIMEOUT_NANOS = 2_000_000_000L;
+    private static final int MAX_PENDING = 32;
+    private static final int MAX_ECHO_CHUNK = 256; // larger chunks are program output, not echo
+    
+    private static final Set<KeystrokeLatencyTracker> ACTIVE = ConcurrentHashMap.newKeySet();
+    
+    private final String name;
+    private final Executor uiExecutor;
+    private final Deque<PendingKey> pending = new ArrayDeque<>();
+    private final LatencyHistogram echoLatency = new LatencyHistogram();
+    private final LatencyHistogram renderDelay = new LatencyHistogram();
+    private final LatencyHistogram hiddenLatency = new LatencyHistogram();
+    
+    /**
+     * @param uiExecutor posts to the thread that renders the output, e.g. {@code Platform::runLater}
+     */
+    public KeystrokeLatencyTracker(String name, Executor uiExecutor) {
+        this.name = name;
+        this.uiExecutor = uiExecutor;
+        ACTIVE.add(this);
+    }
+    
+    /**
+     * Called for every write to the channel. Only single printable characters are tracked.
+     */
+    public void onInput(byte[] bytes) {
+        if (bytes.length != 1 || bytes[0] < 0x20 || bytes[0] > 0x7E) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (pending) {
+            expire(now);
+            if (pending.size() < MAX_PENDING) {
+                pending.addLast(new PendingKey((char) bytes[0], now));
+            }
+        }
+    }
+    
+    /**
+     * Called for every chunk read from the channel, before it is handed to the emulator.
+     */
+    public void onOutput(char[] buf, int offset, int count) {
+        if (count > MAX_ECHO_CHUNK) {
+            return;
+        }
+        long now = System.nanoTime();
+        int matched = 0;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            expire(now);
+            for (int i = offset, end = offset + count; i < end && !pending.isEmpty(); i++) {
+                PendingKey key = pending.peekFirst();
+                if (buf[i] == key.character()) {
+                    pending.removeFirst();
+                    echoLatency.record((now - key.sentNanos()) / 1000);
+                    matched++;
+                }
+            }
+        }
+        
+        if (matched > 0) {
+            // Time until the UI thread gets to run after the echo arrived
+            uiExecutor.execute(() -> renderDelay.record((System.nanoTime() - now) / 1000));
+        }
+    }
+    
+    private void expire(long now) {
+        while (!pending.isEmpty() && now - pending.peekFirst().sentNanos() > ECHO_TIMEOUT_NANOS) {
+            pending.removeFirst();
+        }
+    }
+    
+    /**
+     * Stops tracking and removes the tracker from the global list.
+     */
+    public void close() {
+        ACTIVE.remove(this);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public LatencyHistogram getEchoLatency() {
+        return echoLatency;
+    }
+    
+    public LatencyHistogram getRenderDelay() {
+        return renderDelay;
+    }
+    
+    /**
+     * Gets the latency hidden by predictive local echo, per confirmed prediction.
+     */
+    public LatencyHistogram getHiddenLatency() {
+        return hiddenLatency;
+    }
+    
+    /**
+     * Formats the percentiles in milliseconds for JMX.
+     */
+    public String getSummary() {
+        if (echoLatency.getCount() == 0) {
+            return "no samples";
+        }
+        String summary = String.format("Echo p50 %s / p95 %s / p99 %s ms, Render p95 %s ms (%d keys)",
+                millis(echoLatency.getPercentile(50)),
+                millis(echoLatency.getPercentile(95)),
+                millis(echoLatency.getPercentile(99)),
+                millis(renderDelay.getPercentile(95)),
+                echoLatency.getCount());
+        if (hiddenLatency.getCount() > 0) {
+            summary += String.format(", Predicted echo hid p50 %s ms (%d keys)",
+                    millis(hiddenLatency.getPercentile(50)),
+                    hiddenLatency.getCount());
+        }
+        return summary;
+    }
+    
+    public static String millis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+    
+    /**
+     * Gets all trackers of currently open tabs.
+     */
+    public static Collection<KeystrokeLatencyTracker> getActiveTrackers() {
+        return Collections.unmodifiableSet(ACTIVE);
+    }
+    
+    private record PendingKey(char character, long sentNanos) {
+    }
+}
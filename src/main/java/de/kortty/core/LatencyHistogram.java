@@ -0,0 +1,89 @@
+package de.kortty.core;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size latency histogram with log-linear buckets.
+ *
+ * Every power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so the relative
+ * error of a percentile stays below about 12% from one microsecond up to over an hour, using a
+ * few kilobytes regardless of the number of samples. Recording only holds the instance
+ * monitor for a counter increment.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAGNITUDES = 33; // up to 2^32 microseconds
+    
+    private final long[] counts = new long[MAGNITUDES * SUB_BUCKETS];
+    private long totalCount;
+    private long maxMicros;
+    
+    /**
+     * Records one sample.
+     */
+    public synchronized void record(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        counts[bucketOf(micros)]++;
+        totalCount++;
+        if (micros > maxMicros) {
+            maxMicros = micros;
+        }
+    }
+    
+    /**
+     * Gets the value at the given percentile (0-100) in microseconds, or 0 without samples.
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+    
+    public synchronized long getCount() {
+        return totalCount;
+    }
+    
+    public synchronized long getMaxMicros() {
+        return maxMicros;
+    }
+    
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxMicros = 0;
+    }
+    
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BUCKET_BITS
+        int sub = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        int index = (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        return Math.min(index, MAGNITUDES * SUB_BUCKETS - 1);
+    }
+    
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long base = 1L << magnitude;
+        long step = 1L << (magnitude - SUB_BUCKET_BITS);
+        return base + (sub + 1) * step - 1;
+    }
+}
@@ -0,0 +1,153 @@
+package de.kortty.core;
+
+import de.kortty.model.TerminalLogConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses rotated terminal logs and enforces their retention limits.
+ *
+ * A rotated log is renamed to {@code <log>.<yyyyMMdd-HHmmss>} by the log writer, which takes
+ * no time. Compressing it and deleting old generations happens on a single low-priority
+ * thread, so the writer is never blocked. Each run also picks up rotated files left
+ * uncompressed by an earlier run of the application.
+ */
+public final class LogArchiver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogArchiver.class);
+    private static final DateTimeFormatter ROTATION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final Pattern ROTATED_SUFFIX = Pattern.compile("\\d{8}-\\d{6}(-\\d+)?(\\.gz)?");
+    private static final String GZIP_EXTENSION = ".gz";
+    
+    private static final ExecutorService ARCHIVER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "TerminalLog-Archiver");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    
+    private LogArchiver() {
+    }
+    
+    /**
+     * Gets a free name for the next rotated generation of a log file.
+     */
+    static Path nextRotatedPath(Path logFile) {
+        String base = logFile.getFileName() + "." + LocalDateTime.now().format(ROTATION_FORMAT);
+        Path candidate = logFile.resolveSibling(base);
+        for (int i = 2; Files.exists(candidate) || Files.exists(gzipPath(candidate)); i++) {
+            candidate = logFile.resolveSibling(base + "-" + i);
+        }
+        return candidate;
+    }
+    
+    /**
+     * Compresses the rotated generations of the log in the background, then deletes the
+     * oldest ones beyond the configured count and total size.
+     */
+    static void archive(Path logFile, TerminalLogConfig config) {
+        boolean compress = config.isCompressRotatedLogs();
+        int maxFiles = config.getMaxRotatedFiles();
+        long maxTotalBytes = config.getMaxRotatedTotalBytes();
+        ARCHIVER.execute(() -> {
+            try {
+                if (compress) {
+                    for (Path rotated : listRotated(logFile)) {
+                        if (!rotated.getFileName().toString().endsWith(GZIP_EXTENSION)) {
+                            compress(rotated);
+                        }
+                    }
+                }
+                applyRetention(logFile, maxFiles, maxTotalBytes);
+            } catch (IOException e) {
+                logger.error("Error archiving rotated logs of {}: {}", logFile, e.getMessage(), e);
+            }
+        });
+    }
+    
+    private static Path gzipPath(Path file) {
+        return file.resolveSibling(file.getFileName() + GZIP_EXTENSION);
+    }
+    
+    private static void compress(Path file) throws IOException {
+        Path target = gzipPath(file);
+        Path temp = file.resolveSibling(target.getFileName() + ".tmp");
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        long originalSize = Files.size(file);
+        Files.delete(file);
+        logger.debug("Compressed {} from {} to {} bytes in {} ms", file, originalSize, Files.size(target),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Deletes the oldest generations until at most {@code maxFiles} remain and they take
+     * at most {@code maxTotalBytes} together.
+     */
+    static void applyRetention(Path logFile, int maxFiles, long maxTotalBytes) throws IOException {
+        List<Path> rotated = listRotated(logFile);
+        long totalBytes = 0;
+        int kept = 0;
+        // Newest first
+        for (int i = rotated.size() - 1; i >= 0; i--) {
+            Path file = rotated.get(i);
+            long size = Files.size(file);
+            if (kept < maxFiles && totalBytes + size <= maxTotalBytes) {
+                kept++;
+                totalBytes += size;
+            } else {
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(LogTimeIndex.indexPath(file));
+                logger.info("Deleted old terminal log {}", file);
+            }
+        }
+    }
+    
+    /**
+     * Lists the rotated generations of the log, oldest first.
+     */
+    static List<Path> listRotated(Path logFile) throws IOException {
+        Path directory = logFile.toAbsolutePath().getParent();
+        String prefix = logFile.getFileName() + ".";
+        List<Path> rotated = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(prefix) && ROTATED_SUFFIX.matcher(name.substring(prefix.length())).matches()) {
+                    rotated.add(file);
+                }
+            });
+        }
+        rotated.sort(Comparator.comparing(LogArchiver::generationKey));
+        return rotated;
+    }
+    
+    private static String generationKey(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(GZIP_EXTENSION) ? name.substring(0, name.length() - GZIP_EXTENSION.length()) : name;
+    }
+}
@@ -0,0 +1,282 @@
+package de.kortty.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Shared writer threads for all terminal logs.
+ *
+ * Instead of one thread per logged tab, a small pool of writer workers owns the open log
+ * files. Each logger is bound to one worker for its whole lifetime and its lines travel through
+ * that worker's lock-free ring buffer, so the lines of a session are written in order. Idle
+ * workers park until a line arrives or the next interval flush of one of their loggers is due.
+ * Lines that do not fit into a full ring are spilled by their logger and merged back here.
+ */
+public final class LogPipeline {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogPipeline.class);
+    
+    private static final int RING_CAPACITY = 16384;
+    private static final int MAX_BATCH = 512;
+    private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    
+    private static final AtomicLong SPILLED_LINES = new AtomicLong();
+    private static final AtomicLong DROPPED_LINES = new AtomicLong();
+    
+    private static final List<Worker> WORKERS = createWorkers(
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2)));
+    
+    private LogPipeline() {
+    }
+    
+    private static List<Worker> createWorkers(int count) {
+        List<Worker> workers = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            workers.add(new Worker("TerminalLog-Writer-" + i));
+        }
+        return Collections.unmodifiableList(workers);
+    }
+    
+    /**
+     * Binds a logger to the worker with the fewest loggers. The worker writes all its lines.
+     */
+    static Worker register(TerminalLogger terminalLogger) {
+        Worker least = WORKERS.get(0);
+        for (Worker worker : WORKERS) {
+            if (worker.loggers.size() < least.loggers.size()) {
+                least = worker;
+            }
+        }
+        least.attach(terminalLogger);
+        return least;
+    }
+    
+    /**
+     * Gets the writer workers.
+     */
+    public static List<Worker> getWorkers() {
+        return WORKERS;
+    }
+    
+    /**
+     * Gets the number of lines waiting in all workers.
+     */
+    public static int getQueueDepth() {
+        int depth = 0;
+        for (Worker worker : WORKERS) {
+            depth += worker.ring.size();
+        }
+        return depth;
+    }
+    
+    /**
+     * Gets the loggers of all sessions that are currently logged.
+     */
+    public static List<TerminalLogger> getActiveLoggers() {
+        List<TerminalLogger> loggers = new ArrayList<>();
+        for (Worker worker : WORKERS) {
+            loggers.addAll(worker.loggers);
+        }
+        return loggers;
+    }
+    
+    static void countSpilled() {
+        SPILLED_LINES.incrementAndGet();
+    }
+    
+    static void countDropped() {
+        DROPPED_LINES.incrementAndGet();
+    }
+    
+    /**
+     * Gets the number of lines of all sessions that went to a spill file because a writer was behind.
+     */
+    public static long getSpilledLines() {
+        return SPILLED_LINES.get();
+    }
+    
+    /**
+     * Gets the number of lines of all sessions that were lost.
+     */
+    public static long getDroppedLines() {
+        return DROPPED_LINES.get();
+    }
+    
+    /**
+     * A line to write, or the request to close a logger once its earlier lines are written.
+     */
+    private record Entry(TerminalLogger target, String line, CountDownLatch closed) {
+    }
+    
+    /**
+     * One writer thread with its ring buffer and the loggers bound to it.
+     */
+    public static final class Worker {
+        
+        private final String name;
+        private final MpscRingBuffer<Entry> ring = new MpscRingBuffer<>(RING_CAPACITY);
+        private final Set<TerminalLogger> loggers = ConcurrentHashMap.newKeySet();
+        private final Thread thread;
+        private volatile boolean parked = false;
+        
+        private final AtomicLong rejectedLines = new AtomicLong();
+        private volatile long writtenLines = 0;  // written by the worker thread only
+        private volatile long batches = 0;       // written by the worker thread only
+        
+        // Throughput sampling for JMX
+        private final Object sampleLock = new Object();
+        private long sampleLines = 0;
+        private long sampleNanos = System.nanoTime();
+        private double linesPerSecond = 0;
+        
+        private Worker(String name) {
+            this.name = name;
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+        
+        private void attach(TerminalLogger terminalLogger) {
+            loggers.add(terminalLogger);
+            LockSupport.unpark(thread); // recompute the park time
+        }
+        
+        /**
+         * Queues a line. Never blocks; the caller decides what to do when the ring is full.
+         *
+         * @return false if the ring is full
+         */
+        boolean submit(TerminalLogger target, String line) {
+            if (!ring.offer(new Entry(target, line, null))) {
+                rejectedLines.incrementAndGet();
+                return false;
+            }
+            wake();
+            return true;
+        }
+        
+        /**
+         * Writes the logger's queued lines, closes its file and detaches it from the worker.
+         * Waits until that is done, at most a few seconds.
+         */
+        void close(TerminalLogger target) {
+            CountDownLatch closed = new CountDownLatch(1);
+            Entry entry = new Entry(target, null, closed);
+            long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+            try {
+                while (!ring.offer(entry)) {
+                    if (System.currentTimeMillis() > deadline) {
+                        logger.warn("Log pipeline {} is full, closing {} without its queued lines", name,
+                                target.getConnectionName());
+                        loggers.remove(target);
+                        return;
+                    }
+                    wake();
+                    Thread.sleep(1);
+                }
+                wake();
+                if (!closed.await(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    logger.warn("Timed out waiting for log pipeline {} to close {}", name, target.getConnectionName());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        private void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+        
+        private void run() {
+            while (true) {
+                int count = 0;
+                Entry entry;
+                while (count < MAX_BATCH && (entry = ring.poll()) != null) {
+                    handle(entry);
+                    count++;
+                }
+                if (count > 0) {
+                    batches++;
+                }
+                
+                // Merge spilled lines back, then group commit: flush once per batch,
+                // as far as each logger's policy allows
+                boolean more = count == MAX_BATCH;
+                long parkNanos = MAX_PARK_NANOS;
+                for (TerminalLogger terminalLogger : loggers) {
+                    try {
+                        more |= terminalLogger.drainSpill();
+                    } catch (Exception e) {
+                        logger.error("Error writing spilled lines for {}: {}", terminalLogger.getConnectionName(),
+                                e.getMessage(), e);
+                    }
+                    parkNanos = Math.min(parkNanos, terminalLogger.flushIfDue());
+                }
+                
+                if (more) {
+                    continue;
+                }
+                parked = true;
+                if (ring.isEmpty()) {
+                    LockSupport.parkNanos(this, Math.max(1, parkNanos));
+                }
+                parked = false;
+                Thread.interrupted(); // the thread is never stopped; ignore stray interrupts
+            }
+        }
+        
+        private void handle(Entry entry) {
+            try {
+                if (entry.closed() != null) {
+                    loggers.remove(entry.target());
+                    entry.target().closeOnWriter();
+                    entry.closed().countDown();
+                } else {
+                    entry.target().writeEntry(entry.line());
+                    writtenLines++;
+                }
+            } catch (Exception e) {
+                logger.error("Error writing log for {}: {}", entry.target().getConnectionName(), e.getMessage(), e);
+                if (entry.closed() != null) {
+                    entry.closed().countDown();
+                }
+            }
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Formats queue depth and throughput for JMX. The rate is averaged since the previous call.
+         */
+        public String getSummary() {
+            synchronized (sampleLock) {
+                long now = System.nanoTime();
+                long lines = writtenLines;
+                if (now - sampleNanos >= 1_000_000_000L) {
+                    linesPerSecond = (lines - sampleLines) * 1e9 / (now - sampleNanos);
+                    sampleLines = lines;
+                    sampleNanos = now;
+                }
+                return String.format("%d sessions, %d/%d queued, %d lines in %d batches (%.0f lines/s), "
+                                + "%d lines hit a full ring",
+                        loggers.size(), ring.size(), ring.capacity(), lines, batches, linesPerSecond,
+                        rejectedLines.get());
+            }
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package de.kortty.core;
+
+import de.kortty.model.TerminalLogConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Searches terminal logs and their rotated generations on all cores.
+ *
+ * Files are searched in parallel, each by one thread. Plain files are memory-mapped,
+ * gzipped generations are decompressed as a stream. The literal is searched in the raw
+ * bytes, ignoring ASCII case, and only lines that contain it are decoded and checked
+ * against the optional regular expression. XML logs keep lines as they are inside CDATA
+ * sections; JSON logs store them escaped, so the literal is searched in the escaped form
+ * there and the regular expression is matched against the decoded line. Hits are passed
+ * to the listener as they are found, on the searching threads.
+ */
+public class LogSearch {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogSearch.class);
+    private static final int MAP_CHUNK_BYTES = 256 * 1024 * 1024;
+    private static final int GZIP_CHUNK_BYTES = 1024 * 1024;
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+    private static final Pattern TIMESTAMP = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}(\\.\\d{3})?");
+    
+    /**
+     * A log file to search, the connection it belongs to and the format it was written in.
+     */
+    public record Source(String connection, Path file, TerminalLogConfig.LogFormat format) {
+    }
+    
+    /**
+     * A matching line. The time is taken from the line itself, if it has one.
+     */
+    public record Hit(String connection, Path file, long lineNumber, String time, String line) {
+    }
+    
+    /**
+     * Receives hits and progress; called on the searching threads.
+     */
+    public interface Listener {
+        void onHit(Hit hit);
+        
+        default void onFileDone(Source source, long bytes) {
+        }
+    }
+    
+    private final Pattern refinement;
+    private final int maxHits;
+    private final Needle plainNeedle;
+    private final Needle jsonNeedle;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private final AtomicLong bytesSearched = new AtomicLong();
+    
+    /**
+     * @param literal    searched case-insensitively; may be empty if a pattern is given
+     * @param refinement optional regular expression a line must also match
+     * @param maxHits    the search stops after this many hits
+     */
+    public LogSearch(String literal, Pattern refinement, int maxHits) {
+        String text = literal != null ? literal : "";
+        this.refinement = refinement;
+        this.maxHits = maxHits;
+        this.plainNeedle = new Needle(text.toLowerCase());
+        this.jsonNeedle = new Needle(TerminalLogger.escapeJson(text).toLowerCase());
+    }
+    
+    /**
+     * The literal as it appears in one log format.
+     * The bytes are prefiltered with the longest ASCII part of the literal; if that is
+     * not the whole literal, candidate lines are checked again after decoding.
+     */
+    private static final class Needle {
+        
+        final String lowerLiteral;
+        final byte[] bytes;
+        final boolean verify;
+        
+        Needle(String lowerLiteral) {
+            this.lowerLiteral = lowerLiteral;
+            String ascii = longestAsciiRun(lowerLiteral);
+            this.bytes = ascii.getBytes(StandardCharsets.US_ASCII);
+            this.verify = ascii.length() < lowerLiteral.length();
+        }
+    }
+    
+    private Needle needleFor(TerminalLogConfig.LogFormat format) {
+        if (format == null) {
+            return plainNeedle;
+        }
+        return switch (format) {
+            case JSON, NDJSON -> jsonNeedle;
+            default -> plainNeedle;
+        };
+    }
+    
+    private static String longestAsciiRun(String text) {
+        String longest = "";
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) >= 0x80) {
+                if (i - start > longest.length()) {
+                    longest = text.substring(start, i);
+                }
+                start = i + 1;
+            }
+        }
+        return longest;
+    }
+    
+    /**
+     * Lists a log file and its rotated generations, newest first. Missing files are skipped.
+     */
+    public static List<Path> listLogFiles(Path logFile) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isRegularFile(logFile)) {
+            files.add(logFile);
+        }
+        Path directory = logFile.toAbsolutePath().getParent();
+        if (directory != null && Files.isDirectory(directory)) {
+            List<Path> rotated = LogArchiver.listRotated(logFile);
+            for (int i = rotated.size() - 1; i >= 0; i--) {
+                files.add(rotated.get(i));
+            }
+        }
+        return files;
+    }
+    
+    /**
+     * Searches all sources in parallel and returns when done or cancelled.
+     */
+    public void run(List<Source> sources, Listener listener) {
+        long start = System.nanoTime();
+        sources.parallelStream().forEach(source -> {
+            if (cancelled.get()) {
+                return;
+            }
+            try {
+                long bytes = source.file().getFileName().toString().endsWith(".gz")
+                        ? searchGzip(source, listener)
+                        : searchMapped(source, listener);
+                listener.onFileDone(source, bytes);
+            } catch (IOException e) {
+                logger.warn("Cannot search {}: {}", source.file(), e.getMessage());
+                listener.onFileDone(source, 0);
+            }
+        });
+        logger.info("Searched {} files ({} MB) in {} ms, {} hits", sources.size(),
+                bytesSearched.get() / (1024 * 1024), (System.nanoTime() - start) / 1_000_000, hitCount.get());
+    }
+    
+    public void cancel() {
+        cancelled.set(true);
+    }
+    
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+    
+    public int getHitCount() {
+        return hitCount.get();
+    }
+    
+    public long getBytesSearched() {
+        return bytesSearched.get();
+    }
+    
+    private long searchMapped(Source source, Listener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.file(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long lineNumber = 0;
+            while (position < size && !cancelled.get()) {
+                long length = Math.min(MAP_CHUNK_BYTES, size - position);
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                // Only complete lines, unless this is the end of the file
+                int end = (int) length;
+                if (position + length < size) {
+                    end = lastNewline(chunk, end) + 1;
+                    if (end <= 0) {
+                        end = (int) length; // a single line longer than a chunk
+                    }
+                }
+                lineNumber = scan(source, chunk, end, lineNumber, listener);
+                position += end;
+                bytesSearched.addAndGet(end);
+            }
+            return size;
+        }
+    }
+    
+    private long searchGzip(Source source, Listener listener) throws IOException {
+        byte[] buffer = new byte[GZIP_CHUNK_BYTES];
+        int filled = 0;
+        long lineNumber = 0;
+        long total = 0;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(source.file()), 64 * 1024)) {
+            while (!cancelled.get()) {
+                int read = in.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    if (filled > 0) {
+                        lineNumber = scan(source, ByteBuffer.wrap(buffer), filled, lineNumber, listener);
+                    }
+                    break;
+                }
+                filled += read;
+                total += read;
+                bytesSearched.addAndGet(read);
+                if (filled < buffer.length) {
+                    continue;
+                }
+                
+                ByteBuffer chunk = ByteBuffer.wrap(buffer);
+                int end = lastNewline(chunk, filled) + 1;
+                if (end <= 0) {
+                    end = filled; // a single line longer than the buffer
+                }
+                lineNumber = scan(source, chunk, end, lineNumber, listener);
+                // Keep the incomplete last line for the next chunk
+                System.arraycopy(buffer, end, buffer, 0, filled - end);
+                filled -= end;
+            }
+        }
+        return total;
+    }
+    
+    private static int lastNewline(ByteBuffer buffer, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Scans complete lines in [0, end) and reports the matching ones.
+     *
+     * @return the line number after the last scanned line
+     */
+    private long scan(Source source, ByteBuffer buffer, int end, long lineNumber, Listener listener) {
+        Needle needle = needleFor(source.format());
+        int lineStart = 0;
+        int counted = 0; // lines before counted are included in lineNumber
+        int from = 0;
+        while (from < end && !cancelled.get()) {
+            int hit = needle.bytes.length > 0 ? indexOf(needle.bytes, buffer, from, end) : from;
+            if (hit < 0) {
+                break;
+            }
+            
+            // Count lines up to the hit and find its line
+            for (int i = counted; i < hit; i++) {
+                if (buffer.get(i) == '\n') {
+                    lineNumber++;
+                    lineStart = i + 1;
+                }
+            }
+            counted = hit;
+            int lineEnd = hit;
+            while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            
+            String line = decode(buffer, lineStart, Math.min(lineEnd, lineStart + MAX_LINE_BYTES));
+            if (matches(needle, source.format(), line)) {
+                if (hitCount.incrementAndGet() > maxHits) {
+                    cancel();
+                    break;
+                }
+                listener.onHit(new Hit(source.connection(), source.file(), lineNumber + 1, timeOf(line), line));
+            }
+            
+            // Continue with the next line
+            from = lineEnd + 1;
+            if (lineEnd < end) {
+                lineNumber++;
+                lineStart = from;
+                counted = from;
+            }
+        }
+        
+        for (int i = counted; i < end; i++) {
+            if (buffer.get(i) == '\n') {
+                lineNumber++;
+            }
+        }
+        return lineNumber;
+    }
+    
+    /**
+     * Finds the lower-case ASCII needle in the bytes, ignoring case.
+     */
+    private static int indexOf(byte[] needle, ByteBuffer buffer, int from, int end) {
+        byte first = needle[0];
+        byte firstUpper = (byte) Character.toUpperCase(first);
+        int last = end - needle.length;
+        for (int i = from; i <= last; i++) {
+            byte b = buffer.get(i);
+            if (b != first && b != firstUpper) {
+                continue;
+            }
+            int j = 1;
+            while (j < needle.length && equalsIgnoreCase(buffer.get(i + j), needle[j])) {
+                j++;
+            }
+            if (j == needle.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static boolean equalsIgnoreCase(byte b, byte lowerNeedle) {
+        return b == lowerNeedle || (b >= 'A' && b <= 'Z' && b + 32 == lowerNeedle);
+    }
+    
+    private boolean matches(Needle needle, TerminalLogConfig.LogFormat format, String line) {
+        if (needle.verify && !line.toLowerCase().contains(needle.lowerLiteral)) {
+            return false;
+        }
+        if (refinement == null) {
+            return true;
+        }
+        String text = line;
+        if (format == TerminalLogConfig.LogFormat.JSON || format == TerminalLogConfig.LogFormat.NDJSON) {
+            String value = jsonLineValue(line);
+            if (value != null) {
+                text = value;
+            }
+        }
+        return refinement.matcher(text).find();
+    }
+    
+    /**
+     * Decodes the "line" member of a JSON record, or returns null if the record has none.
+     * Strings are skipped as a whole, so a "line" inside another value is not taken.
+     */
+    private static String jsonLineValue(String record) {
+        int i = 0;
+        int length = record.length();
+        while (i < length) {
+            if (record.charAt(i) != '"') {
+                i++;
+                continue;
+            }
+            StringBuilder key = new StringBuilder();
+            i = readJsonString(record, i + 1, key);
+            int next = i;
+            while (next < length && record.charAt(next) == ' ') {
+                next++;
+            }
+            if (next >= length || record.charAt(next) != ':') {
+                continue; // a value, not a key
+            }
+            next++;
+            while (next < length && record.charAt(next) == ' ') {
+                next++;
+            }
+            if (next >= length || record.charAt(next) != '"') {
+                i = next;
+                continue;
+            }
+            StringBuilder value = new StringBuilder();
+            i = readJsonString(record, next + 1, value);
+            if (key.toString().equals("line")) {
+                return value.toString();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Reads a JSON string starting after its opening quote into the builder.
+     *
+     * @return the index after the closing quote
+     */
+    private static int readJsonString(String text, int start, StringBuilder out) {
+        int i = start;
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (c == '"') {
+                return i;
+            }
+            if (c != '\\' || i >= text.length()) {
+                out.append(c);
+                continue;
+            }
+            char escaped = text.charAt(i++);
+            switch (escaped) {
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'u' -> {
+                    if (i + 4 <= text.length()) {
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                            i += 4;
+                        } catch (NumberFormatException e) {
+                            out.append('u');
+                        }
+                    } else {
+                        out.append('u');
+                    }
+                }
+                default -> out.append(escaped);
+            }
+        }
+        return i;
+    }
+    
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    private static String timeOf(String line) {
+        Matcher matcher = TIMESTAMP.matcher(line);
+        return matcher.find() ? matcher.group() : "";
+    }
+}
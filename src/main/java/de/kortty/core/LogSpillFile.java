@@ -0,0 +1,142 @@
+package de.kortty.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory-mapped side file that holds log lines while the log writer is behind.
+ *
+ * Lines are stored as length-prefixed UTF-8 records and read back in the order they were
+ * appended. The mapping starts small and doubles up to {@link #MAX_BYTES}; read space is
+ * reclaimed by moving the unread records to the front. Not thread-safe: the owning logger
+ * guards all calls with its spill lock.
+ */
+final class LogSpillFile implements Closeable {
+    
+    static final long MAX_BYTES = 512L * 1024 * 1024;
+    private static final int INITIAL_BYTES = 1024 * 1024;
+    private static final int COPY_CHUNK = 64 * 1024;
+    
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int readPosition = 0;
+    private int writePosition = 0;
+    private long lines = 0;
+    
+    LogSpillFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_BYTES);
+    }
+    
+    /**
+     * Appends a line.
+     *
+     * @return false if the file has reached its maximum size
+     */
+    boolean append(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int needed = Integer.BYTES + bytes.length;
+        if (!ensureSpace(needed)) {
+            return false;
+        }
+        buffer.putInt(writePosition, bytes.length);
+        buffer.put(writePosition + Integer.BYTES, bytes);
+        writePosition += needed;
+        lines++;
+        return true;
+    }
+    
+    /**
+     * Removes up to {@code max} of the oldest lines.
+     */
+    List<String> take(int max) {
+        List<String> result = new ArrayList<>(Math.min(max, 256));
+        while (result.size() < max && readPosition < writePosition) {
+            int length = buffer.getInt(readPosition);
+            byte[] bytes = new byte[length];
+            buffer.get(readPosition + Integer.BYTES, bytes);
+            readPosition += Integer.BYTES + length;
+            result.add(new String(bytes, StandardCharsets.UTF_8));
+            lines--;
+        }
+        if (readPosition == writePosition) {
+            readPosition = 0;
+            writePosition = 0;
+        }
+        return result;
+    }
+    
+    boolean isEmpty() {
+        return readPosition == writePosition;
+    }
+    
+    /**
+     * Gets the number of lines not taken yet.
+     */
+    long getLineCount() {
+        return lines;
+    }
+    
+    private boolean ensureSpace(int needed) throws IOException {
+        if (writePosition + needed <= buffer.capacity()) {
+            return true;
+        }
+        
+        // Reclaim the space of lines already taken
+        if (readPosition > 0) {
+            compact();
+            if (writePosition + needed <= buffer.capacity()) {
+                return true;
+            }
+        }
+        
+        long size = buffer.capacity();
+        while (size < writePosition + (long) needed) {
+            size *= 2;
+        }
+        if (size > MAX_BYTES) {
+            return false;
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return true;
+    }
+    
+    private void compact() {
+        // Moves towards the start in forward chunks, so overlapping ranges are safe
+        byte[] chunk = new byte[COPY_CHUNK];
+        int unread = writePosition - readPosition;
+        for (int done = 0; done < unread; done += COPY_CHUNK) {
+            int length = Math.min(COPY_CHUNK, unread - done);
+            buffer.get(readPosition + done, chunk, 0, length);
+            buffer.put(done, chunk, 0, length);
+        }
+        readPosition = 0;
+        writePosition = unread;
+    }
+    
+    /**
+     * Closes and deletes the file. Lines not taken are lost.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Windows keeps the file while the mapping has not been collected yet
+            path.toFile().deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package de.kortty.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sparse time index of NDJSON terminal logs.
+ *
+ * Next to {@code terminal.ndjson} the logger writes {@code terminal.ndjson.idx}, a text file
+ * with one {@code <epoch millis> <byte offset>} pair for roughly every
+ * {@link #INTERVAL_BYTES} of log. Each offset is the start of a record, so a reader can seek
+ * close to a point in time and parse only the slice it needs. Offsets count uncompressed
+ * bytes; for a gzipped generation the reader still has to decompress up to the offset, but
+ * skips parsing. Records must start with {@code {"ts":<epoch millis>}}.
+ */
+public final class LogTimeIndex {
+    
+    /** Distance between index entries in log bytes */
+    static final long INTERVAL_BYTES = 64 * 1024;
+    
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final String TIMESTAMP_PREFIX = "{\"ts\":";
+    
+    private LogTimeIndex() {
+    }
+    
+    /**
+     * Gets the index file belonging to a log file or rotated generation.
+     */
+    public static Path indexPath(Path logFile) {
+        String name = logFile.getFileName().toString();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        return logFile.resolveSibling(name + INDEX_EXTENSION);
+    }
+    
+    /**
+     * Gets the offset of the last indexed record written at or before the given time.
+     * Returns 0 if the index is missing or starts later.
+     */
+    public static long findOffset(Path indexFile, long fromMillis) throws IOException {
+        if (!Files.exists(indexFile)) {
+            return 0;
+        }
+        long offset = 0;
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String entry;
+            while ((entry = reader.readLine()) != null) {
+                int space = entry.indexOf(' ');
+                if (space <= 0) {
+                    continue; // torn last entry after a crash
+                }
+                try {
+                    long millis = Long.parseLong(entry, 0, space, 10);
+                    if (millis > fromMillis) {
+                        break;
+                    }
+                    offset = Long.parseLong(entry, space + 1, entry.length(), 10);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            }
+        }
+        return offset;
+    }
+    
+    /**
+     * Streams the records of an NDJSON log written between two points in time.
+     * Plain files are read from the indexed offset; gzipped generations are skipped up to it.
+     * An incomplete last record, e.g. after a crash, is ignored.
+     */
+    public static void readRange(Path logFile, long fromMillis, long toMillis, Consumer<String> consumer)
+            throws IOException {
+        long offset = findOffset(indexPath(logFile), fromMillis);
+        try (BufferedReader reader = open(logFile, offset)) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                long millis = recordMillis(record);
+                if (millis < 0 || millis < fromMillis) {
+                    continue;
+                }
+                if (millis > toMillis) {
+                    break;
+                }
+                consumer.accept(record);
+            }
+        }
+    }
+    
+    private static BufferedReader open(Path logFile, long offset) throws IOException {
+        InputStream in;
+        if (logFile.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(Files.newInputStream(logFile), 64 * 1024);
+            for (long remaining = offset; remaining > 0; ) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    break;
+                }
+                remaining -= skipped;
+            }
+        } else {
+            FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ);
+            channel.position(Math.min(offset, channel.size()));
+            in = Channels.newInputStream(channel);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+    
+    /**
+     * Gets the timestamp of a record without parsing the JSON, or -1 if it has none.
+     */
+    public static long recordMillis(String record) {
+        if (!record.startsWith(TIMESTAMP_PREFIX) || !record.endsWith("}")) {
+            return -1;
+        }
+        int end = TIMESTAMP_PREFIX.length();
+        while (end < record.length() && Character.isDigit(record.charAt(end))) {
+            end++;
+        }
+        if (end == TIMESTAMP_PREFIX.length()) {
+            return -1;
+        }
+        return Long.parseLong(record, TIMESTAMP_PREFIX.length(), end, 10);
+    }
+}
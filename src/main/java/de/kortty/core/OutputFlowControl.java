@@ -0,0 +1,148 @@
+package de.kortty.core;
+
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Flow control between the SSH channel and the UI thread that renders its output.
+ *
+ * Every chunk read from the channel counts as pending until an acknowledgement posted to the
+ * UI thread has run there. The UI thread works through its queue in order, so by then the
+ * repaints and writes posted for earlier chunks are done as well. While more than
+ * {@link #HIGH_WATER_CHARS} are pending, the reader stops consuming the channel, so the SSH
+ * window fills up and the server has to wait. Reading resumes below {@link #LOW_WATER_CHARS}.
+ */
+public class OutputFlowControl {
+    
+    public static final long HIGH_WATER_CHARS = 1024 * 1024;
+    public static final long LOW_WATER_CHARS = 256 * 1024;
+    
+    private static final Set<OutputFlowControl> ACTIVE = ConcurrentHashMap.newKeySet();
+    
+    private final String name;
+    private final Executor uiExecutor;
+    private final Object lock = new Object();
+    
+    // guarded by lock
+    private long readChars = 0;
+    private long acknowledgedChars = 0;
+    private boolean acknowledgementPosted = false;
+    private boolean paused = false;
+    private boolean closed = false;
+    private long pauseCount = 0;
+    private long pausedNanos = 0;
+    private long maxPending = 0;
+    
+    /**
+     * @param uiExecutor posts to the thread that renders the output, e.g. {@code Platform::runLater}
+     */
+    public OutputFlowControl(String name, Executor uiExecutor) {
+        this.name = name;
+        this.uiExecutor = uiExecutor;
+        ACTIVE.add(this);
+    }
+    
+    /**
+     * Blocks the reader while the UI thread is too far behind. Returns immediately otherwise.
+     */
+    public void awaitCapacity() throws InterruptedIOException {
+        synchronized (lock) {
+            if (!paused) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                while (paused && !closed) {
+                    lock.wait(200);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the terminal to catch up");
+            } finally {
+                pausedNanos += System.nanoTime() - start;
+            }
+        }
+    }
+    
+    /**
+     * Counts a chunk read from the channel and makes sure an acknowledgement is on its way.
+     */
+    public void onRead(int chars) {
+        synchronized (lock) {
+            readChars += chars;
+            long pending = readChars - acknowledgedChars;
+            maxPending = Math.max(maxPending, pending);
+            if (!paused && pending > HIGH_WATER_CHARS) {
+                paused = true;
+                pauseCount++;
+            }
+            if (!acknowledgementPosted) {
+                acknowledgementPosted = true;
+                postAcknowledgement(readChars);
+            }
+        }
+    }
+    
+    private void postAcknowledgement(long upTo) {
+        uiExecutor.execute(() -> {
+            synchronized (lock) {
+                acknowledgedChars = Math.max(acknowledgedChars, upTo);
+                long pending = readChars - acknowledgedChars;
+                if (paused && pending <= LOW_WATER_CHARS) {
+                    paused = false;
+                    lock.notifyAll();
+                }
+                // More was read meanwhile; follow it with the next acknowledgement
+                if (pending > 0 && !closed) {
+                    postAcknowledgement(readChars);
+                } else {
+                    acknowledgementPosted = false;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Releases a waiting reader and removes the flow control from the global list.
+     */
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            paused = false;
+            lock.notifyAll();
+        }
+        ACTIVE.remove(this);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public boolean isPaused() {
+        synchronized (lock) {
+            return paused;
+        }
+    }
+    
+    /**
+     * Formats pending output and pauses for JMX.
+     */
+    public String getSummary() {
+        synchronized (lock) {
+            return String.format("%d chars pending (max %d), %d pauses, %d ms paused%s",
+                    readChars - acknowledgedChars, maxPending, pauseCount, pausedNanos / 1_000_000,
+                    paused ? ", reading paused" : "");
+        }
+    }
+    
+    /**
+     * Gets the flow controls of all open terminals.
+     */
+    public static Collection<OutputFlowControl> getActiveFlowControls() {
+        return Collections.unmodifiableSet(ACTIVE);
+    }
+}
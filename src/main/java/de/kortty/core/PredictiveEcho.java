@@ -0,0 +1,227 @@
+package de.kortty.core;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Mosh-style predictive local echo for one terminal.
+ *
+ * Printable keystrokes are shown as predictions right away and confirmed against the
+ * server's echo. Escape sequences in the output are skipped while matching, so colored
+ * prompts do not count as mismatches. Any other character that differs from the next
+ * prediction rolls all predictions back. If a prediction is not confirmed in time (e.g.
+ * echo is switched off), predicting is suspended until the next Enter; the caller checks
+ * this with {@link #expire()} on a timer, as output may never come.
+ *
+ * Predictions on a new command line are only shown once the server has echoed a character
+ * of it, so nothing typed is drawn while the terminal has echo off.
+ *
+ * The engine only keeps state; the caller decides whether the context allows predictions
+ * (no full-screen application, no password prompt) and draws the pending text.
+ */
+public class PredictiveEcho {
+    
+    private static final long CONFIRM_TIMEOUT_NANOS = 3_000_000_000L;
+    private static final int MAX_PENDING = 64;
+    
+    private enum OutputState {
+        GROUND,
+        ESCAPE,
+        CSI,
+        STRING
+    }
+    
+    private final KeystrokeLatencyTracker tracker;
+    private final Deque<Prediction> pending = new ArrayDeque<>();
+    private OutputState outputState = OutputState.GROUND;
+    private boolean enabled;
+    private boolean suspended = false;
+    private boolean echoSeen = false;
+    private long predictedCount = 0;
+    private long confirmedCount = 0;
+    private long rolledBackCount = 0;
+    
+    public PredictiveEcho(KeystrokeLatencyTracker tracker, boolean enabled) {
+        this.tracker = tracker;
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Handles a write to the channel.
+     *
+     * @param bytes            the bytes written
+     * @param contextAllowsIt  false in full-screen applications and at password prompts
+     * @return true if the pending predictions changed
+     */
+    public synchronized boolean onInput(byte[] bytes, boolean contextAllowsIt) {
+        if (bytes.length == 1 && (bytes[0] == '\r' || bytes[0] == '\n')) {
+            // A new command line starts; give predictions another chance
+            suspended = false;
+            echoSeen = false;
+            return clear();
+        }
+        
+        boolean printable = bytes.length == 1 && bytes[0] >= 0x20 && bytes[0] <= 0x7E;
+        if (!printable || !enabled || !contextAllowsIt) {
+            if (!contextAllowsIt) {
+                suspended = true;
+            }
+            return clear();
+        }
+        if (suspended || pending.size() >= MAX_PENDING) {
+            return false;
+        }
+        
+        pending.addLast(new Prediction((char) bytes[0], System.nanoTime()));
+        predictedCount++;
+        return true;
+    }
+    
+    /**
+     * Matches output from the server against the pending predictions.
+     *
+     * @return true if the pending predictions changed
+     */
+    public synchronized boolean onOutput(CharSequence data) {
+        if (expire()) {
+            return true;
+        }
+        if (pending.isEmpty()) {
+            return false;
+        }
+        
+        long now = System.nanoTime();
+        boolean changed = false;
+        for (int i = 0, n = data.length(); i < n && !pending.isEmpty(); i++) {
+            char c = data.charAt(i);
+            if (!isText(c)) {
+                continue;
+            }
+            Prediction head = pending.peekFirst();
+            if (c == head.character()) {
+                pending.removeFirst();
+                confirmedCount++;
+                echoSeen = true;
+                tracker.getHiddenLatency().record((now - head.shownNanos()) / 1000);
+            } else {
+                rollBack();
+            }
+            changed = true;
+        }
+        return changed;
+    }
+    
+    /**
+     * Rolls the predictions back and suspends predicting if the oldest one has not been
+     * confirmed in time.
+     *
+     * @return true if the pending predictions changed
+     */
+    public synchronized boolean expire() {
+        if (pending.isEmpty() || System.nanoTime() - pending.peekFirst().shownNanos() <= CONFIRM_TIMEOUT_NANOS) {
+            return false;
+        }
+        suspended = true;
+        return rollBack();
+    }
+    
+    /**
+     * Gets the time until {@link #expire()} has to check the oldest prediction, or -1 if
+     * there is none.
+     */
+    public synchronized long getNanosUntilExpiry() {
+        if (pending.isEmpty()) {
+            return -1;
+        }
+        return Math.max(0, pending.peekFirst().shownNanos() + CONFIRM_TIMEOUT_NANOS - System.nanoTime());
+    }
+    
+    /**
+     * Runs the output through a small escape parser; returns true for printable text.
+     */
+    private boolean isText(char c) {
+        switch (outputState) {
+            case ESCAPE:
+                if (c == '[') {
+                    outputState = OutputState.CSI;
+                } else if (c == ']' || c == 'P' || c == '_' || c == '^') {
+                    outputState = OutputState.STRING;
+                } else if (c < 0x20 || c > 0x2F) {
+                    outputState = OutputState.GROUND;
+                }
+                return false;
+            case CSI:
+                if (c >= 0x40 && c <= 0x7E) {
+                    outputState = OutputState.GROUND;
+                }
+                return false;
+            case STRING:
+                if (c == 0x07) {
+                    outputState = OutputState.GROUND;
+                } else if (c == 0x1B) {
+                    outputState = OutputState.ESCAPE; // ESC \ (ST) ends the string
+                }
+                return false;
+            default:
+                if (c == 0x1B) {
+                    outputState = OutputState.ESCAPE;
+                    return false;
+                }
+                return c >= 0x20 && c != 0x7F;
+        }
+    }
+    
+    private boolean rollBack() {
+        rolledBackCount += pending.size();
+        return clear();
+    }
+    
+    private boolean clear() {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        pending.clear();
+        return true;
+    }
+    
+    /**
+     * Gets the predicted characters that have not been echoed yet, or nothing while no echo
+     * has been seen on the current command line.
+     */
+    public synchronized String getPendingText() {
+        if (!echoSeen) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(pending.size());
+        for (Prediction prediction : pending) {
+            text.append(prediction.character());
+        }
+        return text.toString();
+    }
+    
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+    
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+    
+    public synchronized long getPredictedCount() {
+        return predictedCount;
+    }
+    
+    public synchronized long getConfirmedCount() {
+        return confirmedCount;
+    }
+    
+    public synchronized long getRolledBackCount() {
+        return rolledBackCount;
+    }
+    
+    private record Prediction(char character, long shownNanos) {
+    }
+}
@@ -4,6 +4,7 @@ import de.kortty.model.Project;
 import de.kortty.model.SessionState;
 import de.kortty.model.WindowState;
 import de.kortty.persistence.HistoryStorage;
+import de.kortty.persistence.JAXBContextRegistry;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
@@ -59,7 +60,15 @@ public class ProjectManager {
         // Save terminal histories to separate files
         for (WindowState window : project.getWindows()) {
             for (SessionState session : window.getTabs()) {
-                if (session.getTerminalHistory() != null) {
+                if (session.getHistoryJournal() != null) {
+                    // Only the last buffered chunk still needs compressing
+                    String historyFile = historyStorage.saveJournal(
+                            session.getSessionId(),
+                            session.getHistoryJournal()
+                    );
+                    session.setHistoryFilePath(historyFile);
+                    session.setTerminalHistory(null);
+                } else if (session.getTerminalHistory() != null) {
                     String historyFile = historyStorage.saveHistory(
                             session.getSessionId(), 
                             session.getTerminalHistory()
@@ -71,7 +80,7 @@ public class ProjectManager {
         }
         
         // Save project XML
-        JAXBContext context = JAXBContext.newInstance(Project.class);
+        JAXBContext context = JAXBContextRegistry.get(Project.class);
         Marshaller marshaller = context.createMarshaller();
         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
         
@@ -87,7 +96,7 @@ public class ProjectManager {
      * Loads a project from disk.
      */
     public Project loadProject(Path filePath) throws Exception {
-        JAXBContext context = JAXBContext.newInstance(Project.class);
+        JAXBContext context = JAXBContextRegistry.get(Project.class);
         Unmarshaller unmarshaller = context.createUnmarshaller();
         
         Project project;
@@ -95,15 +104,7 @@ public class ProjectManager {
             project = (Project) unmarshaller.unmarshal(in);
         }
         
-        // Load terminal histories
-        for (WindowState window : project.getWindows()) {
-            for (SessionState session : window.getTabs()) {
-                if (session.getHistoryFilePath() != null) {
-                    String history = historyStorage.loadHistory(session.getHistoryFilePath());
-                    session.setTerminalHistory(history);
-                }
-            }
-        }
+        // Histories stay on disk until a tab actually needs them (see loadHistory)
         
         project.setProjectFilePath(filePath.toString());
         this.currentProject = project;
@@ -112,6 +113,23 @@ public class ProjectManager {
         return project;
     }
     
+    /**
+     * Loads the saved terminal history of a session, or null if it has none.
+     */
+    public String loadHistory(SessionState session) throws IOException {
+        if (session.getTerminalHistory() != null) {
+            return session.getTerminalHistory();
+        }
+        if (session.getHistoryFilePath() == null) {
+            return null;
+        }
+        return historyStorage.loadHistory(session.getHistoryFilePath());
+    }
+    
+    public HistoryStorage getHistoryStorage() {
+        return historyStorage;
+    }
+    
     /**
      * Saves project to its existing file path.
      */
@@ -0,0 +1,293 @@
+package de.kortty.core;
+
+import de.kortty.model.TerminalLogConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Captures the undecoded bytes of a session into a binary file.
+ *
+ * The file starts with a header ({@link #MAGIC}, start time, terminal size) followed by frames:
+ * a type byte, then for {@code 'T'} the epoch millis, for {@code 'D'} a length and the bytes
+ * exactly as the server sent them, and for {@code 'R'} the new terminal size. A timestamp frame
+ * precedes a data frame whenever at least {@link #TIMESTAMP_INTERVAL_MILLIS} have passed, and
+ * every resize frame. The file is preallocated and written through
+ * a memory mapping in {@link #SEGMENT_BYTES} steps, so appending is a copy into memory; the
+ * unused tail is cut off on close, and after a crash a zero type byte ends the capture.
+ * Full files are rotated like text logs.
+ */
+public class RawCapture implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RawCapture.class);
+    
+    public static final String EXTENSION = ".raw";
+    static final byte[] MAGIC = {'K', 'T', 'R', 'A', 'W', '0', '0', '1'};
+    static final long TIMESTAMP_INTERVAL_MILLIS = 10;
+    private static final int SEGMENT_BYTES = 8 * 1024 * 1024;
+    private static final int HEADER_BYTES = MAGIC.length + Long.BYTES + 2 * Short.BYTES;
+    private static final byte FRAME_TIMESTAMP = 'T';
+    private static final byte FRAME_DATA = 'D';
+    private static final byte FRAME_RESIZE = 'R';
+    
+    private final Path file;
+    private final TerminalLogConfig config;
+    
+    // guarded by this
+    private int columns;
+    private int rows;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long position;
+    private long lastTimestamp = 0;
+    private long capturedBytes = 0;
+    
+    /**
+     * @param file    capture file; an existing capture is rotated first
+     * @param columns terminal size at the start, needed for replay; later sizes are recorded
+     *                with {@link #resize}
+     */
+    public RawCapture(Path file, TerminalLogConfig config, int columns, int rows) throws IOException {
+        this.file = file;
+        this.config = config;
+        this.columns = columns;
+        this.rows = rows;
+        open();
+        logger.info("Raw capture started: {}", file);
+    }
+    
+    private void open() throws IOException {
+        if (Files.exists(file) && Files.size(file) > 0) {
+            Files.move(file, LogArchiver.nextRotatedPath(file));
+            LogArchiver.archive(file, config);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentStart = 0;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+        segment.put(MAGIC);
+        segment.putLong(System.currentTimeMillis());
+        segment.putShort((short) columns);
+        segment.putShort((short) rows);
+        position = HEADER_BYTES;
+        lastTimestamp = 0;
+    }
+    
+    /**
+     * Appends bytes read from the channel. Called on the reader thread.
+     */
+    public synchronized void write(byte[] data, int offset, int length) {
+        if (channel == null || length <= 0) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            boolean timestamp = now - lastTimestamp >= TIMESTAMP_INTERVAL_MILLIS;
+            int needed = (timestamp ? 1 + Long.BYTES : 0) + 1 + Integer.BYTES + length;
+            if (position + needed > config.getMaxFileSizeBytes() && position > HEADER_BYTES) {
+                rotate();
+                timestamp = true;
+            }
+            ensureMapped(needed);
+            if (timestamp) {
+                segment.put(FRAME_TIMESTAMP);
+                segment.putLong(now);
+                lastTimestamp = now;
+            }
+            segment.put(FRAME_DATA);
+            segment.putInt(length);
+            segment.put(data, offset, length);
+            position += needed;
+            capturedBytes += length;
+        } catch (IOException e) {
+            logger.error("Raw capture of {} failed, stopping: {}", file, e.getMessage());
+            close();
+        }
+    }
+    
+    /**
+     * Records a new terminal size. Called from the connector's resize path.
+     */
+    public synchronized void resize(int columns, int rows) {
+        if (channel == null || (columns == this.columns && rows == this.rows)) {
+            return;
+        }
+        this.columns = columns;
+        this.rows = rows;
+        try {
+            int needed = 1 + Long.BYTES + 1 + 2 * Short.BYTES;
+            if (position + needed > config.getMaxFileSizeBytes() && position > HEADER_BYTES) {
+                rotate(); // the new file's header carries the new size
+                return;
+            }
+            ensureMapped(needed);
+            long now = System.currentTimeMillis();
+            segment.put(FRAME_TIMESTAMP);
+            segment.putLong(now);
+            lastTimestamp = now;
+            segment.put(FRAME_RESIZE);
+            segment.putShort((short) columns);
+            segment.putShort((short) rows);
+            position += needed;
+        } catch (IOException e) {
+            logger.error("Raw capture of {} failed, stopping: {}", file, e.getMessage());
+            close();
+        }
+    }
+    
+    private void ensureMapped(int needed) throws IOException {
+        if (segment.remaining() >= needed) {
+            return;
+        }
+        // The unused rest of the old segment is overwritten by the frames of the new one
+        segmentStart = position;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, Math.max(SEGMENT_BYTES, needed + 1));
+    }
+    
+    private void rotate() throws IOException {
+        finish();
+        logger.info("Rotating raw capture {}", file);
+        open();
+    }
+    
+    /**
+     * Cuts the preallocated tail off and closes the file.
+     */
+    private void finish() throws IOException {
+        segment.force();
+        segment = null;
+        try {
+            channel.truncate(position);
+        } catch (IOException e) {
+            // Windows refuses while the mapping is alive; the zero tail is harmless
+            logger.debug("Could not truncate raw capture {}: {}", file, e.getMessage());
+        }
+        channel.close();
+        channel = null;
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    public synchronized long getCapturedBytes() {
+        return capturedBytes;
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            finish();
+            logger.info("Raw capture stopped: {} ({} bytes)", file, capturedBytes);
+        } catch (IOException e) {
+            logger.error("Error closing raw capture {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * Converts a capture (also a gzipped generation) into an asciicast recording, so it can be
+     * replayed in the player. Bytes are decoded as the terminal would; multi-byte characters
+     * split between frames stay intact. Resize frames become resize events.
+     *
+     * @return the number of output events
+     */
+    public static long toAsciicast(Path captureFile, Path castFile) throws IOException {
+        InputStream raw = Files.newInputStream(captureFile);
+        if (captureFile.getFileName().toString().endsWith(".gz")) {
+            raw = new GZIPInputStream(raw, 64 * 1024);
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 64 * 1024));
+             BufferedWriter out = Files.newBufferedWriter(castFile, StandardCharsets.UTF_8)) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Kein Rohdaten-Mitschnitt: " + captureFile);
+            }
+            long startMillis = in.readLong();
+            int width = in.readShort();
+            int height = in.readShort();
+            
+            StringBuilder line = new StringBuilder("{\"version\": 2, \"width\": ").append(width)
+                    .append(", \"height\": ").append(height)
+                    .append(", \"timestamp\": ").append(startMillis / 1000)
+                    .append(", \"title\": ");
+            AsciicastRecording.appendJsonString(line, captureFile.getFileName().toString());
+            out.write(line.append("}\n").toString());
+            
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer pending = ByteBuffer.allocate(0);
+            long nanos = 0;
+            long events = 0;
+            while (true) {
+                byte[] data;
+                try {
+                    int type = in.readByte();
+                    if (type == FRAME_TIMESTAMP) {
+                        nanos = Math.max(nanos, (in.readLong() - startMillis) * 1_000_000);
+                        continue;
+                    }
+                    if (type == FRAME_RESIZE) {
+                        int columns = in.readShort();
+                        int rows = in.readShort();
+                        line.setLength(0);
+                        line.append('[');
+                        AsciicastRecording.appendSeconds(line, nanos);
+                        line.append(", \"r\", \"").append(columns).append('x').append(rows).append("\"]\n");
+                        out.write(line.toString());
+                        continue;
+                    }
+                    if (type != FRAME_DATA) {
+                        break; // zero tail of a capture that was not closed
+                    }
+                    data = new byte[in.readInt()];
+                    in.readFully(data);
+                } catch (EOFException e) {
+                    break; // end of the file, or a torn last frame after a crash
+                }
+                
+                // Keep an incomplete character at the end for the next frame
+                ByteBuffer bytes = ByteBuffer.allocate(pending.remaining() + data.length);
+                bytes.put(pending).put(data).flip();
+                CharBuffer chars = CharBuffer.allocate(bytes.remaining());
+                decoder.decode(bytes, chars, false);
+                pending = bytes;
+                chars.flip();
+                if (chars.hasRemaining()) {
+                    line.setLength(0);
+                    line.append('[');
+                    AsciicastRecording.appendSeconds(line, nanos);
+                    line.append(", \"o\", ");
+                    AsciicastRecording.appendJsonString(line, chars.toString());
+                    out.write(line.append("]\n").toString());
+                    events++;
+                }
+            }
+            return events;
+        }
+    }
+}
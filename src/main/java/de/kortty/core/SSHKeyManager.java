@@ -1,6 +1,7 @@
 package de.kortty.core;
 
 import de.kortty.model.SSHKey;
+import de.kortty.persistence.JAXBContextRegistry;
 import de.kortty.security.EncryptionService;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.Marshaller;
@@ -47,10 +48,7 @@ public class SSHKeyManager {
         }
         
         try {
-            JAXBContext context = JAXBContext.newInstance(
-                SSHKeysWrapper.class, 
-                SSHKey.class
-            );
+            JAXBContext context = JAXBContextRegistry.get(SSHKeysWrapper.class, SSHKey.class);
             Unmarshaller unmarshaller = context.createUnmarshaller();
             SSHKeysWrapper wrapper = (SSHKeysWrapper) unmarshaller.unmarshal(file.toFile());
             
@@ -76,10 +74,7 @@ public class SSHKeyManager {
             SSHKeysWrapper wrapper = new SSHKeysWrapper();
             wrapper.setKeys(new ArrayList<>(keys));
             
-            JAXBContext context = JAXBContext.newInstance(
-                SSHKeysWrapper.class, 
-                SSHKey.class
-            );
+            JAXBContext context = JAXBContextRegistry.get(SSHKeysWrapper.class, SSHKey.class);
             Marshaller marshaller = context.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
             
@@ -0,0 +1,333 @@
+package de.kortty.core;
+
+import com.techsenger.jeditermfx.core.TerminalColor;
+import com.techsenger.jeditermfx.core.TextStyle;
+import com.techsenger.jeditermfx.core.model.TerminalLine;
+import com.techsenger.jeditermfx.core.model.TerminalTextBuffer;
+import com.techsenger.jeditermfx.core.model.TextBufferChangesListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the scrollback and screen of a terminal buffer to a text, ANSI or HTML file.
+ *
+ * The buffer is rendered and written one page at a time, so memory stays constant and the
+ * emulator is only blocked while a page is rendered. Lines are addressed by an absolute
+ * number that does not change while the session keeps printing: the number of lines the
+ * full history has discarded, counted by a buffer listener, plus the index in the buffer.
+ * Lines discarded before their page was reached are skipped and reported.
+ */
+public class ScrollbackExporter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ScrollbackExporter.class);
+    private static final int PAGE_LINES = 1000;
+    
+    public enum Format {
+        TEXT("Text", ".txt"),
+        ANSI("Text mit ANSI-Farben", ".ans"),
+        HTML("HTML", ".html");
+        
+        private final String displayName;
+        private final String extension;
+        
+        Format(String displayName, String extension) {
+            this.displayName = displayName;
+            this.extension = extension;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+    }
+    
+    /**
+     * Receives the number of exported lines after every page.
+     */
+    public interface ProgressListener {
+        void onProgress(long linesDone, long linesTotal);
+    }
+    
+    /**
+     * The number of written lines and of lines the history discarded before they were reached.
+     */
+    public record Result(long exportedLines, long skippedLines) {
+    }
+    
+    /**
+     * Counts the lines the buffer discards from its full history. Called by the emulator
+     * with the buffer lock held, and read by the exporter with the lock held.
+     */
+    private static final class DiscardCounter implements TextBufferChangesListener {
+        
+        long discarded;
+        boolean reset;
+        
+        @Override
+        public void linesDiscardedFromHistory(List<TerminalLine> lines) {
+            discarded += lines.size();
+        }
+        
+        @Override
+        public void historyCleared() {
+            reset = true;
+        }
+        
+        @Override
+        public void widthResized() {
+            // Reflowing changes the number of lines, so they cannot be followed any more
+            reset = true;
+        }
+        
+        @Override
+        public void linesChanged(int fromIndex) {
+        }
+    }
+    
+    private final TerminalTextBuffer buffer;
+    private final Format format;
+    private final String defaultForeground;
+    private final String defaultBackground;
+    
+    /**
+     * @param defaultForeground CSS color of unstyled text, used for HTML
+     * @param defaultBackground CSS background color, used for HTML
+     */
+    public ScrollbackExporter(TerminalTextBuffer buffer, Format format,
+                              String defaultForeground, String defaultBackground) {
+        this.buffer = buffer;
+        this.format = format;
+        this.defaultForeground = defaultForeground;
+        this.defaultBackground = defaultBackground;
+    }
+    
+    /**
+     * Writes the buffer to the file. Runs on the calling thread; interrupting it aborts the export.
+     */
+    public Result export(Path file, String title, ProgressListener progress) throws IOException {
+        long startNanos = System.nanoTime();
+        DiscardCounter counter = new DiscardCounter();
+        long total;
+        buffer.lock();
+        try {
+            buffer.addChangesListener(counter);
+            total = buffer.getHistoryLinesCount() + lastUsedScreenRow() + 1;
+        } finally {
+            buffer.unlock();
+        }
+        
+        long done = 0;
+        long skipped = 0;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            
+            List<String> page = new ArrayList<>(PAGE_LINES);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeHeader(writer, title);
+                while (done + skipped < total) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Export abgebrochen");
+                    }
+                    
+                    page.clear();
+                    long lost;
+                    buffer.lock();
+                    try {
+                        // Absolute number of the next line; the oldest line at the start is 0
+                        long next = done + skipped;
+                        if (counter.reset) {
+                            lost = total - done - skipped; // the remaining lines cannot be found
+                        } else {
+                            lost = Math.min(total - next, Math.max(0, counter.discarded - next));
+                            int history = buffer.getHistoryLinesCount();
+                            int index = (int) (next + lost - counter.discarded - history);
+                            int count = (int) Math.min(PAGE_LINES, total - done - skipped - lost);
+                            for (int i = 0; i < count && index + i < buffer.getHeight(); i++) {
+                                page.add(renderLine(buffer.getLine(index + i)));
+                            }
+                        }
+                    } finally {
+                        buffer.unlock();
+                    }
+                    
+                    if (lost > 0) {
+                        skipped += lost;
+                        writer.write(renderGap(lost));
+                        writer.write('\n');
+                    }
+                    if (page.isEmpty() && lost == 0) {
+                        break;
+                    }
+                    for (String line : page) {
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                    done += page.size();
+                    if (progress != null) {
+                        progress.onProgress(done + skipped, total);
+                    }
+                }
+                writeFooter(writer);
+            }
+        } finally {
+            buffer.lock();
+            try {
+                buffer.removeChangesListener(counter);
+            } finally {
+                buffer.unlock();
+            }
+        }
+        
+        if (skipped > 0) {
+            logger.warn("Export of {} skipped {} lines that left the history before they were written", file, skipped);
+        }
+        logger.info("Exported {} lines as {} to {} in {} ms", done, format, file,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return new Result(done, skipped);
+    }
+    
+    /**
+     * Marks lines that left the history before the export reached them.
+     */
+    private String renderGap(long lines) {
+        String text = "[... " + lines + " Zeilen während des Exports aus dem Verlauf verdrängt ...]";
+        return format == Format.ANSI ? "\033[0;7m" + text + "\033[0m" : text;
+    }
+    
+    /**
+     * Finds the last screen row with content, so empty rows below the prompt are not exported.
+     */
+    private int lastUsedScreenRow() {
+        for (int row = buffer.getHeight() - 1; row >= 0; row--) {
+            if (!buffer.getLine(row).getText().isBlank()) {
+                return row;
+            }
+        }
+        return -1;
+    }
+    
+    private String renderLine(TerminalLine line) {
+        if (format == Format.TEXT) {
+            return line.getText().stripTrailing();
+        }
+        
+        StringBuilder sb = new StringBuilder(buffer.getWidth() + 32);
+        for (TerminalLine.TextEntry entry : line.getEntries()) {
+            String text = entry.isNul() ? " ".repeat(entry.getLength()) : entry.getText().toString();
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (format == Format.ANSI) {
+                appendAnsi(sb, entry.getStyle(), text);
+            } else {
+                appendHtml(sb, entry.getStyle(), text);
+            }
+        }
+        if (format == Format.ANSI) {
+            sb.append("\033[0m");
+        }
+        return sb.toString();
+    }
+    
+    private static void appendAnsi(StringBuilder sb, TextStyle style, String text) {
+        sb.append("\033[0");
+        if (style.hasOption(TextStyle.Option.BOLD)) sb.append(";1");
+        if (style.hasOption(TextStyle.Option.DIM)) sb.append(";2");
+        if (style.hasOption(TextStyle.Option.ITALIC)) sb.append(";3");
+        if (style.hasOption(TextStyle.Option.UNDERLINED)) sb.append(";4");
+        if (style.hasOption(TextStyle.Option.INVERSE)) sb.append(";7");
+        appendAnsiColor(sb, style.getForeground(), 38);
+        appendAnsiColor(sb, style.getBackground(), 48);
+        sb.append('m').append(text);
+    }
+    
+    private static void appendAnsiColor(StringBuilder sb, TerminalColor color, int selector) {
+        if (color == null) {
+            return;
+        }
+        if (color.isIndexed()) {
+            sb.append(';').append(selector).append(";5;").append(color.getColorIndex());
+        } else {
+            var rgb = color.toColor();
+            sb.append(';').append(selector).append(";2;")
+                    .append(rgb.getRed()).append(';').append(rgb.getGreen()).append(';').append(rgb.getBlue());
+        }
+    }
+    
+    private void appendHtml(StringBuilder sb, TextStyle style, String text) {
+        String fg = cssColor(style.getForeground());
+        String bg = cssColor(style.getBackground());
+        if (style.hasOption(TextStyle.Option.INVERSE)) {
+            String swap = fg != null ? fg : defaultForeground;
+            fg = bg != null ? bg : defaultBackground;
+            bg = swap;
+        }
+        
+        StringBuilder css = new StringBuilder();
+        if (fg != null) css.append("color:").append(fg).append(';');
+        if (bg != null) css.append("background:").append(bg).append(';');
+        if (style.hasOption(TextStyle.Option.BOLD)) css.append("font-weight:bold;");
+        if (style.hasOption(TextStyle.Option.ITALIC)) css.append("font-style:italic;");
+        if (style.hasOption(TextStyle.Option.UNDERLINED)) css.append("text-decoration:underline;");
+        if (style.hasOption(TextStyle.Option.DIM)) css.append("opacity:0.6;");
+        
+        if (css.isEmpty()) {
+            appendEscaped(sb, text);
+        } else {
+            sb.append("<span style=\"").append(css).append("\">");
+            appendEscaped(sb, text);
+            sb.append("</span>");
+        }
+    }
+    
+    private static String cssColor(TerminalColor color) {
+        return color != null ? String.format("#%06x", TerminalPalette.rgb(color)) : null;
+    }
+    
+    private static void appendEscaped(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '&' -> sb.append("&amp;");
+                default -> sb.append(c);
+            }
+        }
+    }
+    
+    private void writeHeader(Writer writer, String title) throws IOException {
+        if (format != Format.HTML) {
+            return;
+        }
+        StringBuilder escapedTitle = new StringBuilder();
+        appendEscaped(escapedTitle, title);
+        writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>");
+        writer.write(escapedTitle.toString());
+        writer.write("</title>\n</head>\n<body style=\"margin:0;background:" + defaultBackground + "\">\n");
+        writer.write("<pre style=\"margin:0;padding:8px;font-family:monospace;color:" + defaultForeground
+                + ";background:" + defaultBackground + "\">");
+    }
+    
+    private void writeFooter(Writer writer) throws IOException {
+        if (format == Format.HTML) {
+            writer.write("</pre>\n</body>\n</html>\n");
+        }
+    }
+}
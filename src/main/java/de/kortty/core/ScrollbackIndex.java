@@ -0,0 +1,449 @@
+package de.kortty.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental full-text index over the scrollback of one terminal tab.
+ *
+ * Output is fed in through {@link #append(String)} from the connector's data path, which only
+ * queues it; a shared background thread strips escape sequences and adds every completed line
+ * to a trigram index, so neither the indexing nor a running search holds up the reader. A search
+ * only verifies the lines that contain all trigrams of the query instead of scanning the whole
+ * buffer. Lines are kept in fixed-size segments; once the line limit is reached the oldest
+ * segment (together with its part of the index) is dropped.
+ *
+ * The queue is bounded: if the indexer falls {@link #MAX_PENDING_CHARS} behind, further output
+ * is dropped until it has caught up, and the index is marked incomplete.
+ */
+public class ScrollbackIndex {
+    
+    private static final int SEGMENT_LINES = 4096;
+    private static final int MAX_LINE_LENGTH = 4096;
+    private static final int MAX_PENDING_CHARS = 4 * 1024 * 1024;
+    
+    private static final ExecutorService INDEXER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ScrollbackIndex-Indexer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    
+    private final String name;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final AnsiStripper stripper;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long nextLineNumber = 0;
+    
+    // Output not yet indexed, guarded by this
+    private StringBuilder pending = new StringBuilder();
+    private boolean drainScheduled = false;
+    private boolean gap = false;
+    private long droppedChars = 0;
+    
+    public ScrollbackIndex(String name, int maxLines) {
+        this.name = name;
+        this.maxSegments = Math.max(1, (maxLines + SEGMENT_LINES - 1) / SEGMENT_LINES);
+        this.stripper = new AnsiStripper(this::addLine, MAX_LINE_LENGTH);
+    }
+    
+    /**
+     * Queues a chunk of raw terminal output for indexing.
+     */
+    public void append(String data) {
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (gap || pending.length() + data.length() > MAX_PENDING_CHARS) {
+                // Dropped until the indexer has taken the queued batch, so the gap is in one place
+                gap = true;
+                droppedChars += data.length();
+            } else {
+                pending.append(data);
+            }
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        }
+        INDEXER.execute(this::drain);
+    }
+    
+    /**
+     * Indexes everything queued so far as one batch. Runs on the indexer thread only.
+     */
+    private void drain() {
+        StringBuilder batch;
+        boolean gapAfterBatch;
+        synchronized (this) {
+            batch = pending;
+            pending = new StringBuilder();
+            gapAfterBatch = gap;
+            gap = false;
+            drainScheduled = false;
+        }
+        lock.writeLock().lock();
+        try {
+            stripper.feed(batch);
+            if (gapAfterBatch) {
+                // The dropped output may have ended the line or an escape sequence
+                stripper.reset();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Whether output had to be dropped because the indexer fell behind; searches may then miss lines.
+     */
+    public synchronized boolean isIncomplete() {
+        return droppedChars > 0;
+    }
+    
+    /**
+     * Gets the number of output characters dropped because the indexer fell behind.
+     */
+    public synchronized long getDroppedChars() {
+        return droppedChars;
+    }
+    
+    /**
+     * Removes all indexed lines.
+     */
+    public void clear() {
+        synchronized (this) {
+            pending.setLength(0);
+            gap = false;
+            droppedChars = 0;
+        }
+        // On the indexer, so a batch taken before is not indexed after the clear
+        INDEXER.execute(() -> {
+            lock.writeLock().lock();
+            try {
+                segments.clear();
+                stripper.reset();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    private void addLine(CharSequence text) {
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.isFull()) {
+            segment = new Segment(nextLineNumber);
+            segments.addLast(segment);
+            if (segments.size() > maxSegments) {
+                segments.removeFirst();
+            }
+        }
+        segment.add(text.toString());
+        nextLineNumber++;
+    }
+    
+    /**
+     * Searches the indexed lines.
+     *
+     * @param literal    case-insensitive text every match must contain (may be empty)
+     * @param refinement optional regex that candidate lines must additionally match
+     * @param limit      maximum number of matches to return
+     * @return matches in scrollback order (oldest first)
+     */
+    public List<Match> search(String literal, Pattern refinement, int limit) {
+        String needle = literal != null ? lowerCase(literal) : "";
+        List<Match> matches = new ArrayList<>();
+        if (needle.isEmpty() && refinement == null) {
+            return matches;
+        }
+        long[] trigrams = trigramsOf(needle);
+        
+        lock.readLock().lock();
+        try {
+            for (Segment segment : segments) {
+                if (!segment.search(needle, trigrams, refinement, limit, matches)) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+    
+    /**
+     * Gets the number of lines currently held in the index.
+     */
+    public long getLineCount() {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (Segment segment : segments) {
+                count += segment.count;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets the running number the next completed line will get; the line being written
+     * at the cursor has this number.
+     */
+    public long getNextLineNumber() {
+        lock.readLock().lock();
+        try {
+            return nextLineNumber;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Lower-cases char by char, exactly like the index does, so query and postings agree.
+     */
+    private static String lowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+    
+    private static long[] trigramsOf(String lowerText) {
+        int n = lowerText.length();
+        if (n < 3) {
+            return new long[0];
+        }
+        long[] result = new long[n - 2];
+        long key = 0;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            key = ((key << 16) | lowerText.charAt(i)) & 0xFFFF_FFFF_FFFFL;
+            if (i >= 2) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Case-insensitive indexOf; the needle must already be lower case.
+     */
+    private static int indexOfIgnoreCase(String haystack, String lowerNeedle) {
+        int max = haystack.length() - lowerNeedle.length();
+        for (int i = 0; i <= max; i++) {
+            if (haystack.regionMatches(true, i, lowerNeedle, 0, lowerNeedle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * A matching line.
+     *
+     * @param lineNumber running line number since the tab was opened
+     * @param line       the line text without escape sequences
+     * @param start      start of the match within the line
+     * @param end        end of the match within the line (exclusive)
+     */
+    public record Match(long lineNumber, String line, int start, int end) {
+    }
+    
+    /**
+     * A block of lines with its own trigram postings.
+     * Line offsets within a segment fit into a char, which halves the posting size.
+     */
+    private static final class Segment {
+        
+        private final long firstLineNumber;
+        private final String[] lines = new String[SEGMENT_LINES];
+        private final PostingTable postings = new PostingTable();
+        private int count;
+        
+        Segment(long firstLineNumber) {
+            this.firstLineNumber = firstLineNumber;
+        }
+        
+        boolean isFull() {
+            return count == SEGMENT_LINES;
+        }
+        
+        void add(String line) {
+            char offset = (char) count;
+            lines[count++] = line;
+            
+            long key = 0;
+            for (int i = 0, n = line.length(); i < n; i++) {
+                key = ((key << 16) | Character.toLowerCase(line.charAt(i))) & 0xFFFF_FFFF_FFFFL;
+                if (i >= 2) {
+                    postings.getOrCreate(key).add(offset);
+                }
+            }
+        }
+        
+        /**
+         * Appends matches to the result list. Returns false once the limit is reached.
+         */
+        boolean search(String needle, long[] trigrams, Pattern refinement, int limit, List<Match> out) {
+            if (trigrams.length == 0) {
+                for (int i = 0; i < count; i++) {
+                    if (!verify(i, needle, refinement, limit, out)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            
+            // Collect postings, shortest first, so the intersection stays small
+            Posting[] lists = new Posting[trigrams.length];
+            for (int i = 0; i < trigrams.length; i++) {
+                Posting posting = postings.get(trigrams[i]);
+                if (posting == null) {
+                    return true; // A trigram never occurs in this segment
+                }
+                lists[i] = posting;
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            
+            Posting shortest = lists[0];
+            for (int p = 0; p < shortest.size; p++) {
+                char offset = shortest.data[p];
+                boolean inAll = true;
+                for (int l = 1; l < lists.length && inAll; l++) {
+                    inAll = lists[l].contains(offset);
+                }
+                if (inAll && !verify(offset, needle, refinement, limit, out)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private boolean verify(int offset, String needle, Pattern refinement, int limit, List<Match> out) {
+            String line = lines[offset];
+            int start = 0;
+            int end = line.length();
+            
+            if (!needle.isEmpty()) {
+                start = indexOfIgnoreCase(line, needle);
+                if (start < 0) {
+                    return true;
+                }
+                end = start + needle.length();
+            }
+            if (refinement != null) {
+                Matcher matcher = refinement.matcher(line);
+                if (!matcher.find()) {
+                    return true;
+                }
+                if (needle.isEmpty()) {
+                    start = matcher.start();
+                    end = matcher.end();
+                }
+            }
+            
+            out.add(new Match(firstLineNumber + offset, line, start, end));
+            return out.size() < limit;
+        }
+    }
+    
+    /**
+     * Open-addressing map from trigram to posting, so adding a character neither boxes
+     * the key nor allocates a map entry.
+     */
+    private static final class PostingTable {
+        
+        private long[] keys = new long[1024];
+        private Posting[] values = new Posting[1024];
+        private int size;
+        
+        Posting get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slotOf(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+        
+        Posting getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int slot = slotOf(key, mask);
+            for (; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            Posting posting = new Posting();
+            keys[slot] = key;
+            values[slot] = posting;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return posting;
+        }
+        
+        private void grow() {
+            long[] oldKeys = keys;
+            Posting[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Posting[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = slotOf(oldKeys[i], mask);
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+        
+        private static int slotOf(long key, int mask) {
+            return (int) ((key * 0x9E37_79B9_7F4A_7C15L) >>> 40) & mask;
+        }
+    }
+    
+    /**
+     * Sorted, duplicate-free list of line offsets.
+     */
+    private static final class Posting {
+        
+        private char[] data = new char[4];
+        private int size;
+        
+        void add(char offset) {
+            if (size > 0 && data[size - 1] == offset) {
+                return; // Trigram occurs more than once in the same line
+            }
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = offset;
+        }
+        
+        boolean contains(char offset) {
+            return Arrays.binarySearch(data, 0, size, offset) >= 0;
+        }
+    }
+}
@@ -16,7 +16,9 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -44,7 +46,14 @@ public class SshTtyConnector implements TtyConnector {
     
     private DisconnectListener disconnectListener;
     private Thread connectionMonitorThread;
-    private DataListener dataListener;
+    private final List<DataListener> dataListeners = new CopyOnWriteArrayList<>();
+    private final List<RawDataListener> rawDataListeners = new CopyOnWriteArrayList<>();
+    private final List<InputListener> inputListeners = new CopyOnWriteArrayList<>();
+    private final List<ResizeListener> resizeListeners = new CopyOnWriteArrayList<>();
+    private volatile KeystrokeLatencyTracker latencyTracker;
+    private volatile TermSize termSize;
+    private volatile OutputFlowControl flowControl;
+    private volatile EmulationScheduler.Slot emulationSlot;
     
     public SshTtyConnector(ServerConnection connection, String password) {
         this.connection = connection;
@@ -115,7 +124,7 @@ public class SshTtyConnector implements TtyConnector {
             // Get streams
             inputStream = channel.getInvertedOut();
             outputStream = channel.getInvertedIn();
-            reader = new InputStreamReader(inputStream, charset);
+            reader = new InputStreamReader(new RawTap(inputStream), charset);
             
             connected.set(true);
             logger.info("Connected to {}", connection.getDisplayName());
@@ -227,16 +236,39 @@ public class SshTtyConnector implements TtyConnector {
         if (!connected.get() || reader == null) {
             return -1;
         }
+        // Background tabs wait for their next time slice
+        EmulationScheduler.Slot slot = emulationSlot;
+        if (slot != null) {
+            slot.awaitTurn();
+        }
+        // Stop consuming the channel while the UI is behind; the SSH window then throttles the server
+        OutputFlowControl flow = flowControl;
+        if (flow != null) {
+            flow.awaitCapacity();
+        }
         int count = reader.read(buf, offset, length);
+        if (count > 0 && flow != null) {
+            flow.onRead(count);
+        }
+        if (count > 0 && slot != null) {
+            slot.onRead(count);
+        }
         
-        // Notify listener of received data
-        if (count > 0 && dataListener != null) {
-            try {
-                String data = new String(buf, offset, count);
-                dataListener.onData(data);
-            } catch (Exception e) {
-                // Don't let listener errors break the connection
-                logger.warn("Data listener error: {}", e.getMessage());
+        KeystrokeLatencyTracker tracker = latencyTracker;
+        if (count > 0 && tracker != null) {
+            tracker.onOutput(buf, offset, count);
+        }
+        
+        // Notify listeners of received data
+        if (count > 0 && !dataListeners.isEmpty()) {
+            String data = new String(buf, offset, count);
+            for (DataListener listener : dataListeners) {
+                try {
+                    listener.onData(data);
+                } catch (Exception e) {
+                    // Don't let listener errors break the connection
+                    logger.warn("Data listener error: {}", e.getMessage());
+                }
             }
         }
         
@@ -245,6 +277,28 @@ public class SshTtyConnector implements TtyConnector {
     
     @Override
     public void write(byte[] bytes) throws IOException {
+        if (connected.get() && outputStream != null) {
+            KeystrokeLatencyTracker tracker = latencyTracker;
+            if (tracker != null) {
+                tracker.onInput(bytes);
+            }
+            for (InputListener listener : inputListeners) {
+                try {
+                    listener.onInput(bytes);
+                } catch (Exception e) {
+                    logger.warn("Input listener error: {}", e.getMessage());
+                }
+            }
+            outputStream.write(bytes);
+            outputStream.flush();
+        }
+    }
+    
+    /**
+     * Writes to the channel without notifying the input listeners.
+     * Used for automated input that is not typed by the user (e.g. login scripts).
+     */
+    public void writeDirect(byte[] bytes) throws IOException {
         if (connected.get() && outputStream != null) {
             outputStream.write(bytes);
             outputStream.flush();
@@ -282,19 +336,103 @@ public class SshTtyConnector implements TtyConnector {
         if (channel != null && channel.isOpen()) {
             try {
                 channel.sendWindowChange(termSize.getColumns(), termSize.getRows());
+                this.termSize = termSize;
                 logger.debug("Resized terminal to {}x{}", termSize.getColumns(), termSize.getRows());
+                for (ResizeListener listener : resizeListeners) {
+                    listener.onResize(termSize.getColumns(), termSize.getRows());
+                }
             } catch (Exception e) {
                 logger.warn("Failed to resize terminal: {}", e.getMessage());
             }
         }
     }
     
+    /**
+     * Gets the last size sent to the remote PTY, or null before the first resize.
+     */
+    public TermSize getTermSize() {
+        return termSize;
+    }
+    
     public void setDisconnectListener(DisconnectListener listener) {
         this.disconnectListener = listener;
     }
     
-    public void setDataListener(DataListener listener) {
-        this.dataListener = listener;
+    /**
+     * Registers a listener that receives every chunk of output read from the channel.
+     * Listeners are called on the reader thread, so they must not block.
+     */
+    public void addDataListener(DataListener listener) {
+        if (listener != null) {
+            dataListeners.add(listener);
+        }
+    }
+    
+    public void removeDataListener(DataListener listener) {
+        dataListeners.remove(listener);
+    }
+    
+    /**
+     * Registers a listener that receives the undecoded bytes read from the channel.
+     * Listeners are called on the reader thread and must copy the bytes they keep.
+     */
+    public void addRawDataListener(RawDataListener listener) {
+        if (listener != null) {
+            rawDataListeners.add(listener);
+        }
+    }
+    
+    public void removeRawDataListener(RawDataListener listener) {
+        rawDataListeners.remove(listener);
+    }
+    
+    /**
+     * Registers a listener that is told about every write to the channel, before it is sent.
+     * Listeners are called on the writing thread, so they must not block.
+     */
+    public void addInputListener(InputListener listener) {
+        if (listener != null) {
+            inputListeners.add(listener);
+        }
+    }
+    
+    public void removeInputListener(InputListener listener) {
+        inputListeners.remove(listener);
+    }
+    
+    /**
+     * Registers a listener that is told about every size sent to the remote PTY.
+     * Listeners are called on the resizing thread, so they must not block.
+     */
+    public void addResizeListener(ResizeListener listener) {
+        if (listener != null) {
+            resizeListeners.add(listener);
+        }
+    }
+    
+    public void removeResizeListener(ResizeListener listener) {
+        resizeListeners.remove(listener);
+    }
+    
+    /**
+     * Sets the tracker that measures keystroke echo latency on this connection.
+     */
+    public void setLatencyTracker(KeystrokeLatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+    
+    /**
+     * Sets the flow control that pauses reading while the view cannot keep up.
+     */
+    public void setFlowControl(OutputFlowControl flowControl) {
+        this.flowControl = flowControl;
+    }
+    
+    /**
+     * Sets the scheduler slot that limits how fast a background tab is fed to its emulator.
+     */
+    public void setEmulationSlot(EmulationScheduler.Slot emulationSlot) {
+        this.emulationSlot = emulationSlot;
     }
     
     public ServerConnection getConnection() {
@@ -386,4 +524,63 @@ public class SshTtyConnector implements TtyConnector {
     public interface DataListener {
         void onData(String data);
     }
+    
+    /**
+     * Listener for the raw bytes received from the SSH connection, before decoding.
+     */
+    public interface RawDataListener {
+        void onRawData(byte[] data, int offset, int length);
+    }
+    
+    /**
+     * Listener for input written to the SSH connection.
+     */
+    public interface InputListener {
+        void onInput(byte[] bytes);
+    }
+    
+    /**
+     * Listener for size changes of the remote PTY.
+     */
+    public interface ResizeListener {
+        void onResize(int columns, int rows);
+    }
+    
+    /**
+     * Passes the bytes the decoder reads from the channel to the raw data listeners.
+     */
+    private class RawTap extends FilterInputStream {
+        
+        RawTap(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && !rawDataListeners.isEmpty()) {
+                notifyRawData(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buf, int offset, int length) throws IOException {
+            int count = super.read(buf, offset, length);
+            if (count > 0 && !rawDataListeners.isEmpty()) {
+                notifyRawData(buf, offset, count);
+            }
+            return count;
+        }
+        
+        private void notifyRawData(byte[] buf, int offset, int count) {
+            for (RawDataListener listener : rawDataListeners) {
+                try {
+                    listener.onRawData(buf, offset, count);
+                } catch (Exception e) {
+                    logger.warn("Raw data listener error: {}", e.getMessage());
+                }
+            }
+        }
+    }
 }
@@ -5,15 +5,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
 
 /**
  * Logs terminal output to a file with rotation and format support.
@@ -22,25 +25,44 @@ public class TerminalLogger {
     
     private static final Logger logger = LoggerFactory.getLogger(TerminalLogger.class);
     private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final int MAX_LINE_LENGTH = 10000;
+    private static final long FLUSH_BYTES = 64 * 1024;
+    private static final int SPILL_BATCH_LINES = 512;
     
     private final TerminalLogConfig config;
     private final String connectionName;
-    private final BlockingQueue<String> logQueue;
-    private final Thread writerThread;
+    private final String escapedConnectionName;
     private volatile boolean running = false;
+    private LogPipeline.Worker worker;
+    private boolean continuesSplitLine = false;
+    private volatile long queuedLines = 0;  // written by the producer only
+    private long ringLinesWritten = 0;      // written by the worker only
+    
+    private final Object spillLock = new Object();
+    private LogSpillFile spillFile;         // guarded by spillLock
+    private boolean spilling = false;       // guarded by spillLock
+    private long spilledLines = 0;          // guarded by spillLock
+    private long droppedLines = 0;          // guarded by spillLock
     
     private Path logFile;
     private BufferedWriter writer;
+    private BufferedWriter indexWriter;
+    private long lastIndexedOffset = 0;
     private long currentFileSize = 0;
     private boolean headerWritten = false;
-    private final StringBuilder lineBuffer = new StringBuilder();
+    private boolean firstEntry = true;
+    private long unflushedBytes = 0;
+    private long firstUnflushedNanos = 0;
+    private volatile long lineCount = 0;
+    private volatile long flushCount = 0;
+    private long cachedTimestampMillis = -1;
+    private String cachedTimestamp;
+    private final AnsiStripper stripper = new AnsiStripper(this::enqueueLine, MAX_LINE_LENGTH);
     
     public TerminalLogger(TerminalLogConfig config, String connectionName) {
         this.config = config;
         this.connectionName = connectionName;
-        this.logQueue = new LinkedBlockingQueue<>(10000); // Buffer up to 10k lines
-        this.writerThread = new Thread(this::writerLoop, "TerminalLogger-" + connectionName);
-        this.writerThread.setDaemon(true);
+        this.escapedConnectionName = escapeJson(connectionName);
     }
     
     /**
@@ -66,8 +88,9 @@ public class TerminalLogger {
         // Initialize file and writer
         initializeWriter();
         
+        // From here on the file belongs to the pipeline worker
+        worker = LogPipeline.register(this);
         running = true;
-        writerThread.start();
         
         logger.info("Terminal logger started for {}, format={}, file={}", 
                     connectionName, config.getFormat(), logFile);
@@ -84,132 +107,227 @@ public class TerminalLogger {
         running = false;
         
         // Flush any remaining buffered data
-        synchronized (lineBuffer) {
-            if (lineBuffer.length() > 0) {
-                String remaining = sanitizeLine(lineBuffer.toString());
-                if (!remaining.isEmpty()) {
-                    logQueue.offer(remaining);
-                }
-                lineBuffer.setLength(0);
-            }
-        }
-        
-        writerThread.interrupt();
-        
-        try {
-            writerThread.join(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        synchronized (stripper) {
+            stripper.flush();
         }
         
-        closeWriter();
-        logger.info("Terminal logger stopped for {}", connectionName);
+        // Returns once the worker has written the queued lines and closed the file
+        worker.close(this);
+        logger.info("Terminal logger stopped for {} ({})", connectionName, getSummary());
     }
     
     /**
      * Logs terminal output data (may be partial).
-     * Data is buffered until a complete line is available.
+     * Escape sequences are removed in a single pass; text is buffered until a line is complete.
      */
     public void log(String data) {
         if (!running || data == null || data.isEmpty()) {
             return;
         }
         
-        synchronized (lineBuffer) {
-            // Append data to buffer
-            lineBuffer.append(data);
-            
-            // Process complete lines (ending with \n or \r\n)
-            String bufferContent = lineBuffer.toString();
-            int lastNewline = Math.max(bufferContent.lastIndexOf('\n'), bufferContent.lastIndexOf('\r'));
-            
-            if (lastNewline >= 0) {
-                // Extract complete lines
-                String completeLinesStr = bufferContent.substring(0, lastNewline + 1);
-                String remaining = bufferContent.substring(lastNewline + 1);
-                
-                // Split into individual lines and process
-                String[] lines = completeLinesStr.split("[\\r\\n]+");
-                for (String line : lines) {
-                    if (!line.trim().isEmpty()) {
-                        // Remove ANSI escape sequences and non-ASCII characters
-                        String cleanLine = sanitizeLine(line);
-                        
-                        if (!cleanLine.trim().isEmpty() && !logQueue.offer(cleanLine)) {
-                            logger.warn("Log queue full for {}, dropping line", connectionName);
-                        }
-                    }
-                }
-                
-                // Keep remaining incomplete line in buffer
-                lineBuffer.setLength(0);
-                lineBuffer.append(remaining);
+        synchronized (stripper) {
+            stripper.feed(data);
+        }
+    }
+    
+    /**
+     * Queues a completed line without surrounding whitespace; blank lines are skipped.
+     * Lines cut at the maximum length keep their whitespace at the cut.
+     */
+    private void enqueueLine(CharSequence line) {
+        boolean split = stripper.isSplitLine();
+        int start = 0;
+        int end = line.length();
+        if (!continuesSplitLine) {
+            while (start < end && Character.isWhitespace(line.charAt(start))) {
+                start++;
             }
-            
-            // Prevent buffer from growing too large
-            if (lineBuffer.length() > 10000) {
-                logger.warn("Line buffer too large for {}, flushing", connectionName);
-                String cleanLine = sanitizeLine(lineBuffer.toString());
-                if (!cleanLine.trim().isEmpty()) {
-                    logQueue.offer(cleanLine);
-                }
-                lineBuffer.setLength(0);
+        }
+        if (!split) {
+            while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+                end--;
             }
         }
+        continuesSplitLine = split;
+        if (start == end) {
+            return;
+        }
+        submit(line.subSequence(start, end).toString());
     }
     
     /**
-     * Sanitizes a line by removing ANSI escape sequences and non-ASCII characters.
+     * Hands a line to the pipeline. While the ring is full, lines go to the spill file
+     * until the worker has caught up, so they are written in order.
      */
-    private String sanitizeLine(String line) {
-        if (line == null || line.isEmpty()) {
-            return "";
+    private void submit(String line) {
+        synchronized (spillLock) {
+            if (spilling) {
+                spill(line);
+                return;
+            }
         }
-        
-        // Remove ANSI CSI escape sequences (ESC[...)
-        String cleaned = line.replaceAll("\\x1B\\[[;\\d]*m", "");
-        cleaned = cleaned.replaceAll("\\x1B\\[\\?[0-9;]*[a-zA-Z]", "");
-        cleaned = cleaned.replaceAll("\\x1B\\[[0-9;]*[A-Za-z~]", "");
-        
-        // Remove ANSI OSC sequences (ESC]... - like ]3008;...)
-        cleaned = cleaned.replaceAll("\\x1B\\].*?(?:\\x07|\\x1B\\\\)", "");
-        cleaned = cleaned.replaceAll("\\]\\d+;[^\\\\]*\\\\", "");
-        
-        // Remove standalone backslashes at end
-        cleaned = cleaned.replaceAll("\\\\+$", "");
-        
-        // Keep only ASCII printable characters, tabs
-        StringBuilder sb = new StringBuilder();
-        for (char c : cleaned.toCharArray()) {
-            if ((c >= 32 && c <= 126) || c == '\t') {
-                sb.append(c);
+        if (worker.submit(this, line)) {
+            queuedLines++;
+            return;
+        }
+        synchronized (spillLock) {
+            if (config.getOverflowPolicy() == TerminalLogConfig.OverflowPolicy.SPILL) {
+                spilling = true;
+                logger.warn("Log writer behind for {}, spilling to {}", connectionName, spillPath());
+                spill(line);
+            } else {
+                drop();
             }
         }
-        
-        return sb.toString().trim();
+    }
+    
+    // Called with spillLock held
+    private void spill(String line) {
+        try {
+            if (spillFile == null) {
+                spillFile = new LogSpillFile(spillPath());
+            }
+            if (spillFile.append(line)) {
+                spilledLines++;
+                LogPipeline.countSpilled();
+                return;
+            }
+            logger.error("Spill file for {} is full ({} MB), dropping lines", connectionName,
+                    LogSpillFile.MAX_BYTES / (1024 * 1024));
+        } catch (IOException e) {
+            logger.error("Cannot spill log line for {}: {}", connectionName, e.getMessage());
+        }
+        drop();
+    }
+    
+    // Called with spillLock held
+    private void drop() {
+        if (droppedLines++ == 0) {
+            logger.warn("Log writer behind for {}, dropping lines", connectionName);
+        }
+        LogPipeline.countDropped();
+    }
+    
+    private Path spillPath() {
+        return logFile.resolveSibling(logFile.getFileName() + ".spill");
     }
     
     /**
-     * Writer loop that processes queued log entries.
+     * Called by the pipeline worker. Writes a batch of spilled lines once all lines queued
+     * before the spill are written, and switches back to the ring when the spill is empty.
+     *
+     * @return true if spilled lines remain
      */
-    private void writerLoop() {
-        while (running || !logQueue.isEmpty()) {
-            try {
-                String line = logQueue.poll(100, java.util.concurrent.TimeUnit.MILLISECONDS);
-                if (line != null) {
-                    writeLine(line);
+    boolean drainSpill() throws IOException {
+        List<String> lines;
+        boolean more;
+        synchronized (spillLock) {
+            if (!spilling || ringLinesWritten != queuedLines) {
+                return false;
+            }
+            lines = spillFile.take(SPILL_BATCH_LINES);
+            more = !spillFile.isEmpty();
+            spilling = more;
+        }
+        for (String line : lines) {
+            writeLine(line);
+            if (config.getFlushPolicy() == TerminalLogConfig.FlushPolicy.EVERY_LINE) {
+                flush();
+            }
+        }
+        if (!more) {
+            logger.info("Log writer caught up for {} ({} lines spilled so far)", connectionName, spilledLines);
+        }
+        return more;
+    }
+    
+    /**
+     * Called by the pipeline worker for every queued line.
+     */
+    void writeEntry(String line) throws IOException {
+        ringLinesWritten++;
+        writeLine(line);
+        if (config.getFlushPolicy() == TerminalLogConfig.FlushPolicy.EVERY_LINE) {
+            flush();
+        }
+    }
+    
+    /**
+     * Called by the pipeline worker after each batch and whenever it wakes up.
+     * Flushes if the policy asks for it.
+     *
+     * @return nanoseconds until the next flush is due, or Long.MAX_VALUE if none is pending
+     */
+    long flushIfDue() {
+        if (unflushedBytes == 0 || config.getFlushPolicy() == TerminalLogConfig.FlushPolicy.BUFFER_FULL) {
+            return Long.MAX_VALUE; // the buffered writer writes through when its buffer is full
+        }
+        long due = firstUnflushedNanos + config.getFlushIntervalMillis() * 1_000_000L - System.nanoTime();
+        if (config.getFlushPolicy() == TerminalLogConfig.FlushPolicy.INTERVAL
+                && unflushedBytes < FLUSH_BYTES && due > 0) {
+            return due;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            unflushedBytes = 0;
+            logger.error("Error flushing log for {}: {}", connectionName, e.getMessage());
+        }
+        return Long.MAX_VALUE;
+    }
+    
+    /**
+     * Called by the pipeline worker once all lines queued before {@link #stop()} are written.
+     */
+    void closeOnWriter() {
+        try {
+            while (drainSpill()) {
+                // write all spilled lines before closing
+            }
+        } catch (IOException e) {
+            logger.error("Error writing spilled lines for {}: {}", connectionName, e.getMessage());
+        }
+        synchronized (spillLock) {
+            if (spillFile != null) {
+                try {
+                    spillFile.close();
+                } catch (IOException e) {
+                    logger.warn("Cannot delete spill file for {}: {}", connectionName, e.getMessage());
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                logger.error("Error writing log for {}: {}", connectionName, e.getMessage(), e);
+                spillFile = null;
+            }
+        }
+        closeWriter();
+    }
+    
+    /**
+     * Formats written, spilled and dropped lines for JMX.
+     */
+    public String getSummary() {
+        synchronized (spillLock) {
+            return String.format("%d lines written, %d spilled (%d pending), %d dropped, %d flushes",
+                    lineCount, spilledLines, spillFile != null ? spillFile.getLineCount() : 0,
+                    droppedLines, flushCount);
+        }
+    }
+    
+    public String getConnectionName() {
+        return connectionName;
+    }
+    
+    private void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+            if (indexWriter != null) {
+                indexWriter.flush(); // after the log, so entries never point past written records
             }
+            flushCount++;
         }
+        unflushedBytes = 0;
     }
     
     /**
-     * Writes a line to the log file.
+     * Writes a line to the log file without flushing.
      */
     private void writeLine(String line) throws IOException {
         if (writer == null) {
@@ -217,51 +335,92 @@ public class TerminalLogger {
         }
         
         String formattedLine = formatLine(line);
-        byte[] bytes = formattedLine.getBytes(StandardCharsets.UTF_8);
+        int bytes = utf8Length(formattedLine);
         
         // Check if rotation is needed
-        if (currentFileSize + bytes.length > config.getMaxFileSizeBytes()) {
+        if (currentFileSize + bytes > config.getMaxFileSizeBytes()) {
             rotateLog();
+            // The new file starts a new entry list
+            formattedLine = formatLine(line);
+            bytes = utf8Length(formattedLine);
+        }
+        
+        if (indexWriter != null && currentFileSize - lastIndexedOffset >= LogTimeIndex.INTERVAL_BYTES) {
+            indexWriter.write(cachedTimestampMillis + " " + currentFileSize + "\n");
+            lastIndexedOffset = currentFileSize;
         }
         
         writer.write(formattedLine);
-        writer.flush();
-        currentFileSize += bytes.length;
+        currentFileSize += bytes;
+        if (unflushedBytes == 0) {
+            firstUnflushedNanos = System.nanoTime();
+        }
+        unflushedBytes += bytes;
+        lineCount++;
     }
     
     /**
      * Formats a line according to the configured format.
      */
     private String formatLine(String line) {
-        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
+        String timestamp = timestamp();
         
         switch (config.getFormat()) {
             case PLAIN_TEXT:
-                return String.format("[%s] %s\n", timestamp, line);
+                return "[" + timestamp + "] " + line + "\n";
                 
             case XML:
-                if (!headerWritten) {
-                    headerWritten = true;
-                    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<terminal-log connection=\"" + 
-                           escapeXml(connectionName) + "\">\n" +
-                           "  <entry timestamp=\"" + timestamp + "\"><![CDATA[" + line + "]]></entry>\n";
-                }
                 return "  <entry timestamp=\"" + timestamp + "\"><![CDATA[" + line + "]]></entry>\n";
                 
             case JSON:
-                if (!headerWritten) {
-                    headerWritten = true;
-                    return "{\n  \"connection\": \"" + escapeJson(connectionName) + "\",\n" +
-                           "  \"entries\": [\n" +
-                           "    {\"timestamp\": \"" + timestamp + "\", \"line\": \"" + escapeJson(line) + "\"}";
-                }
-                return ",\n    {\"timestamp\": \"" + timestamp + "\", \"line\": \"" + escapeJson(line) + "\"}";
+                String separator = firstEntry ? "    " : ",\n    ";
+                firstEntry = false;
+                return separator + "{\"timestamp\": \"" + timestamp + "\", \"line\": \"" + escapeJson(line) + "\"}";
+                
+            case NDJSON:
+                // One self-contained record per line; "ts" first so readers can find the time cheaply
+                return "{\"ts\":" + cachedTimestampMillis + ",\"timestamp\":\"" + timestamp
+                        + "\",\"connection\":\"" + escapedConnectionName + "\",\"line\":\"" + escapeJson(line) + "\"}\n";
                 
             default:
                 return line + "\n";
         }
     }
     
+    /**
+     * Formats the current time, reusing the text while the millisecond has not changed.
+     */
+    private String timestamp() {
+        long now = System.currentTimeMillis();
+        if (now != cachedTimestampMillis) {
+            cachedTimestampMillis = now;
+            cachedTimestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault())
+                    .format(TIMESTAMP_FORMAT);
+        }
+        return cachedTimestamp;
+    }
+    
+    /**
+     * Counts the UTF-8 bytes of a string without encoding it.
+     */
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+    
     /**
      * Escapes XML special characters.
      */
@@ -277,7 +436,7 @@ public class TerminalLogger {
     /**
      * Escapes JSON special characters.
      */
-    private String escapeJson(String text) {
+    static String escapeJson(String text) {
         if (text == null) return "";
         return text.replace("\\", "\\\\")
                    .replace("\"", "\\\"")
@@ -295,9 +454,10 @@ public class TerminalLogger {
         if (fileExists) {
             currentFileSize = Files.size(logFile);
             
-            // Check if rotation is immediately needed
-            if (currentFileSize >= config.getMaxFileSizeBytes()) {
-                rotateLog();
+            // XML and JSON files are complete documents, so a new session starts a new file;
+            // plain text and NDJSON are appended until the file is full
+            if (currentFileSize >= config.getMaxFileSizeBytes() || (!isAppendable() && currentFileSize > 0)) {
+                archiveCurrentFile();
                 fileExists = false;
             }
         }
@@ -308,9 +468,31 @@ public class TerminalLogger {
             fileExists ? StandardOpenOption.APPEND : StandardOpenOption.CREATE
         );
         
+        // A crash can leave a torn last line; finish it, so the first record of this
+        // session starts on a line of its own and stays readable
+        if (fileExists && currentFileSize > 0 && !endsWithNewline(logFile)) {
+            writer.write('\n');
+            currentFileSize++;
+            logger.warn("Terminal log {} ended in an incomplete line, probably after a crash", logFile);
+        }
+        
+        if (config.getFormat() == TerminalLogConfig.LogFormat.NDJSON) {
+            Path indexFile = LogTimeIndex.indexPath(logFile);
+            boolean tornIndex = Files.exists(indexFile) && !endsWithNewline(indexFile);
+            indexWriter = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (tornIndex) {
+                indexWriter.write('\n'); // a torn entry at most points to an earlier record
+            }
+            // Index the first record of this session
+            lastIndexedOffset = currentFileSize - LogTimeIndex.INTERVAL_BYTES;
+        }
+        
         headerWritten = fileExists;
+        firstEntry = !fileExists;
         
         if (!headerWritten) {
+            headerWritten = true;
             // Write header for new files
             if (config.getFormat() == TerminalLogConfig.LogFormat.XML) {
                 String header = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
@@ -333,24 +515,51 @@ public class TerminalLogger {
         logger.info("Rotating log file for {}, current size: {} bytes", 
                     connectionName, currentFileSize);
         
-        // Close footer if needed
-        closeFileFooter();
-        
+        // Writes the footer and flushes
         closeWriter();
+        unflushedBytes = 0;
         
-        // Delete old file (simple rotation - just truncate)
-        if (Files.exists(logFile)) {
-            Files.delete(logFile);
-        }
-        
-        // Reset state
-        currentFileSize = 0;
+        archiveCurrentFile();
         headerWritten = false;
         
         // Reinitialize writer with new file
         initializeWriter();
     }
     
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+    
+    private boolean isAppendable() {
+        return config.getFormat() == TerminalLogConfig.LogFormat.PLAIN_TEXT
+                || config.getFormat() == TerminalLogConfig.LogFormat.NDJSON;
+    }
+    
+    /**
+     * Renames the log to its next rotated name; compression and retention run in the background.
+     */
+    private void archiveCurrentFile() throws IOException {
+        if (Files.exists(logFile)) {
+            Path rotated = LogArchiver.nextRotatedPath(logFile);
+            Files.move(logFile, rotated);
+            Path index = LogTimeIndex.indexPath(logFile);
+            if (Files.exists(index)) {
+                Files.move(index, LogTimeIndex.indexPath(rotated));
+            }
+            logger.info("Rotated log of {} to {}", connectionName, rotated.getFileName());
+        }
+        currentFileSize = 0;
+        LogArchiver.archive(logFile, config);
+    }
+    
     /**
      * Closes the file footer for structured formats.
      */
@@ -381,6 +590,14 @@ public class TerminalLogger {
             }
             writer = null;
         }
+        if (indexWriter != null) {
+            try {
+                indexWriter.close();
+            } catch (IOException e) {
+                logger.error("Error closing index for {}: {}", connectionName, e.getMessage());
+            }
+            indexWriter = null;
+        }
     }
 }
 
@@ -0,0 +1,49 @@
+package de.kortty.core;
+
+import com.techsenger.jeditermfx.core.TerminalColor;
+
+/**
+ * Resolves terminal colors, including the xterm 256 color palette, to RGB values.
+ */
+public final class TerminalPalette {
+    
+    /** Xterm colors 0-15 */
+    private static final int[] BASE_COLORS = {
+            0x000000, 0xcd0000, 0x00cd00, 0xcdcd00, 0x0000ee, 0xcd00cd, 0x00cdcd, 0xe5e5e5,
+            0x7f7f7f, 0xff0000, 0x00ff00, 0xffff00, 0x5c5cff, 0xff00ff, 0x00ffff, 0xffffff
+    };
+    
+    private TerminalPalette() {
+    }
+    
+    /**
+     * Gets the color as 0xRRGGBB.
+     */
+    public static int rgb(TerminalColor color) {
+        if (color.isIndexed()) {
+            return indexedColor(color.getColorIndex());
+        }
+        var c = color.toColor();
+        return (c.getRed() << 16) | (c.getGreen() << 8) | c.getBlue();
+    }
+    
+    /**
+     * Resolves an entry of the xterm 256 color palette.
+     */
+    public static int indexedColor(int index) {
+        if (index < 16) {
+            return BASE_COLORS[Math.max(index, 0)];
+        }
+        if (index < 232) {
+            int cube = index - 16;
+            int r = cube / 36, g = (cube / 6) % 6, b = cube % 6;
+            return (cubeLevel(r) << 16) | (cubeLevel(g) << 8) | cubeLevel(b);
+        }
+        int gray = 8 + (Math.min(index, 255) - 232) * 10;
+        return (gray << 16) | (gray << 8) | gray;
+    }
+    
+    private static int cubeLevel(int step) {
+        return step == 0 ? 0 : 55 + step * 40;
+    }
+}
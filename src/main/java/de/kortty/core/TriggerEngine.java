@@ -0,0 +1,288 @@
+package de.kortty.core;
+
+import de.kortty.model.OutputTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Evaluates the output triggers of one terminal against its output.
+ *
+ * The data path only queues the chunk. A worker strips escape sequences, splits the output
+ * into lines and runs one Aho-Corasick pass over each line for the search texts of all
+ * triggers; regular expressions are only evaluated for triggers whose text occurs in the
+ * line. The time spent per trigger is accounted, so an expensive rule can be identified.
+ */
+public class TriggerEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TriggerEngine.class);
+    /** Separate log category, written to its own file (see logback.xml). */
+    private static final Logger triggerLog = LoggerFactory.getLogger("de.kortty.triggers");
+    
+    private static final int MAX_LINE_LENGTH = 4096;
+    private static final int MAX_QUEUED_CHUNKS = 10_000;
+    private static final long NOTIFY_INTERVAL_NANOS = 500_000_000L;
+    
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "Trigger-Worker");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    
+    private static final Set<TriggerEngine> ACTIVE = ConcurrentHashMap.newKeySet();
+    
+    private final String name;
+    private final TriggerListener listener;
+    private final List<Rule> rules = new ArrayList<>();
+    private final AhoCorasick prefilter;
+    private final AnsiStripper stripper;
+    private final BitSet found = new BitSet();
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedChunks = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicLong droppedChunks = new AtomicLong();
+    private final AtomicLong prefilterNanos = new AtomicLong();
+    private final AtomicLong lineCount = new AtomicLong();
+    private volatile boolean closed = false;
+    
+    /**
+     * Compiles the enabled triggers. Triggers with an invalid regular expression are skipped.
+     */
+    public TriggerEngine(String name, List<OutputTrigger> triggers, TriggerListener listener) {
+        this.name = name;
+        this.listener = listener;
+        
+        List<String> literals = new ArrayList<>();
+        for (OutputTrigger trigger : triggers) {
+            if (!trigger.isEnabled()) {
+                continue;
+            }
+            String text = trigger.getText() != null ? trigger.getText() : "";
+            String regex = trigger.getRegex() != null ? trigger.getRegex().trim() : "";
+            if (text.isEmpty() && regex.isEmpty()) {
+                continue;
+            }
+            Pattern pattern = null;
+            if (!regex.isEmpty()) {
+                try {
+                    pattern = Pattern.compile(regex, trigger.isCaseSensitive() ? 0 : Pattern.CASE_INSENSITIVE);
+                } catch (PatternSyntaxException e) {
+                    logger.warn("Skipping trigger '{}' with invalid regex: {}", trigger.getDisplayName(), e.getMessage());
+                    continue;
+                }
+            }
+            int literalId = -1;
+            if (!text.isEmpty()) {
+                literalId = literals.size();
+                literals.add(text);
+            }
+            rules.add(new Rule(trigger, literalId, pattern));
+        }
+        this.prefilter = new AhoCorasick(literals);
+        this.stripper = new AnsiStripper(this::evaluate, MAX_LINE_LENGTH);
+        
+        ACTIVE.add(this);
+        logger.debug("Compiled {} triggers for {}", rules.size(), name);
+    }
+    
+    /**
+     * Queues a chunk of output. Called on the data path; never blocks.
+     */
+    public void onData(String data) {
+        if (closed || rules.isEmpty()) {
+            return;
+        }
+        if (queuedChunks.incrementAndGet() > MAX_QUEUED_CHUNKS) {
+            // The worker cannot keep up; skip rather than hold up the terminal
+            queuedChunks.decrementAndGet();
+            droppedChunks.incrementAndGet();
+            return;
+        }
+        queue.add(data);
+        if (draining.compareAndSet(false, true)) {
+            WORKERS.execute(this::drain);
+        }
+    }
+    
+    private void drain() {
+        try {
+            String chunk;
+            while ((chunk = queue.poll()) != null) {
+                queuedChunks.decrementAndGet();
+                stripper.feed(chunk);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Trigger evaluation failed for {}: {}", name, e.getMessage());
+        } finally {
+            draining.set(false);
+            // Output may have arrived between the last poll and releasing the flag
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                WORKERS.execute(this::drain);
+            }
+        }
+    }
+    
+    /**
+     * Checks one line of plain text against all triggers. Runs on the worker.
+     */
+    private void evaluate(CharSequence line) {
+        lineCount.incrementAndGet();
+        long start = System.nanoTime();
+        found.clear();
+        boolean anyLiteral = prefilter.findAll(line, found);
+        prefilterNanos.addAndGet(System.nanoTime() - start);
+        
+        String text = null;
+        for (Rule rule : rules) {
+            if (rule.literalId >= 0 && (!anyLiteral || !found.get(rule.literalId))) {
+                continue;
+            }
+            if (text == null) {
+                text = line.toString(); // The stripper reuses its buffer
+            }
+            long ruleStart = System.nanoTime();
+            boolean matched = rule.matches(text);
+            rule.nanos.addAndGet(System.nanoTime() - ruleStart);
+            rule.evaluations.incrementAndGet();
+            if (matched) {
+                fire(rule, text);
+            }
+        }
+    }
+    
+    private void fire(Rule rule, String line) {
+        rule.matches.incrementAndGet();
+        OutputTrigger trigger = rule.trigger;
+        if (trigger.getAction() == OutputTrigger.Action.LOG) {
+            triggerLog.info("[{}] {}: {}", name, trigger.getDisplayName(), line);
+            return;
+        }
+        // Floods of matching lines only reach the UI every NOTIFY_INTERVAL_NANOS
+        long now = System.nanoTime();
+        if (now - rule.lastNotifyNanos >= NOTIFY_INTERVAL_NANOS) {
+            rule.lastNotifyNanos = now;
+            listener.onTrigger(trigger, line);
+        }
+    }
+    
+    /**
+     * Stops evaluating and removes the engine from the global list.
+     */
+    public void close() {
+        closed = true;
+        queue.clear();
+        ACTIVE.remove(this);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public boolean hasTriggers() {
+        return !rules.isEmpty();
+    }
+    
+    /**
+     * Gets the counters of all compiled triggers.
+     */
+    public List<TriggerStats> getStats() {
+        List<TriggerStats> stats = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            stats.add(new TriggerStats(rule.trigger.getDisplayName(), rule.matches.get(),
+                    rule.evaluations.get(), rule.nanos.get()));
+        }
+        return stats;
+    }
+    
+    public long getLineCount() {
+        return lineCount.get();
+    }
+    
+    public long getPrefilterNanos() {
+        return prefilterNanos.get();
+    }
+    
+    public long getDroppedChunks() {
+        return droppedChunks.get();
+    }
+    
+    /**
+     * Formats the counters for JMX.
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "%d lines, prefilter %.1f ms", lineCount.get(), prefilterNanos.get() / 1e6));
+        for (TriggerStats stats : getStats()) {
+            summary.append(String.format(Locale.ROOT, "; %s: %d matches, %d checks, %.1f ms",
+                    stats.name(), stats.matches(), stats.evaluations(), stats.nanos() / 1e6));
+        }
+        if (droppedChunks.get() > 0) {
+            summary.append("; ").append(droppedChunks.get()).append(" chunks skipped");
+        }
+        return summary.toString();
+    }
+    
+    /**
+     * Gets all engines of currently open tabs.
+     */
+    public static Collection<TriggerEngine> getActiveEngines() {
+        return Collections.unmodifiableSet(ACTIVE);
+    }
+    
+    /**
+     * Counters of one trigger; nanos is the time spent verifying candidate lines.
+     */
+    public record TriggerStats(String name, long matches, long evaluations, long nanos) {
+    }
+    
+    /**
+     * Receives matches of triggers with a UI action. Called on the worker thread.
+     */
+    public interface TriggerListener {
+        void onTrigger(OutputTrigger trigger, String line);
+    }
+    
+    private static final class Rule {
+        
+        private final OutputTrigger trigger;
+        private final int literalId;
+        private final Pattern pattern;
+        private final AtomicLong matches = new AtomicLong();
+        private final AtomicLong evaluations = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        private long lastNotifyNanos = Long.MIN_VALUE / 2;
+        
+        Rule(OutputTrigger trigger, int literalId, Pattern pattern) {
+            this.trigger = trigger;
+            this.literalId = literalId;
+            this.pattern = pattern;
+        }
+        
+        /**
+         * Verifies a candidate line: exact case if requested, then the regex.
+         */
+        boolean matches(String line) {
+            if (literalId >= 0 && trigger.isCaseSensitive() && !line.contains(trigger.getText())) {
+                return false;
+            }
+            return pattern == null || pattern.matcher(line).find();
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package de.kortty.jmx;
 
 import de.kortty.KorTTYApplication;
+import de.kortty.core.EmulationScheduler;
+import de.kortty.core.KeystrokeLatencyTracker;
+import de.kortty.core.LogPipeline;
+import de.kortty.core.OutputFlowControl;
 import de.kortty.core.SSHSession;
 import de.kortty.core.SessionManager;
+import de.kortty.core.TerminalLogger;
+import de.kortty.core.TriggerEngine;
 
 import java.lang.management.ManagementFactory;
 import java.time.Duration;
@@ -68,6 +74,109 @@ public class SSHClientMonitor implements SSHClientMonitorMBean {
         return stats;
     }
     
+    @Override
+    public Map<String, String> getKeystrokeLatencies() {
+        Map<String, String> latencies = new HashMap<>();
+        
+        for (KeystrokeLatencyTracker tracker : KeystrokeLatencyTracker.getActiveTrackers()) {
+            latencies.put(uniqueKey(latencies, tracker.getName()), tracker.getSummary());
+        }
+        
+        return latencies;
+    }
+    
+    @Override
+    public Map<String, String> getTriggerStatistics() {
+        Map<String, String> statistics = new HashMap<>();
+        
+        for (TriggerEngine engine : TriggerEngine.getActiveEngines()) {
+            statistics.put(uniqueKey(statistics, engine.getName()), engine.getSummary());
+        }
+        
+        return statistics;
+    }
+    
+    @Override
+    public Map<String, String> getFlowControlStatistics() {
+        Map<String, String> statistics = new HashMap<>();
+        
+        for (OutputFlowControl flowControl : OutputFlowControl.getActiveFlowControls()) {
+            statistics.put(uniqueKey(statistics, flowControl.getName()), flowControl.getSummary());
+        }
+        
+        return statistics;
+    }
+    
+    @Override
+    public Map<String, String> getEmulationStatistics() {
+        Map<String, String> statistics = new HashMap<>();
+        
+        for (EmulationScheduler.Slot slot : EmulationScheduler.getActiveSlots()) {
+            statistics.put(uniqueKey(statistics, slot.getName()), slot.getSummary());
+        }
+        
+        return statistics;
+    }
+    
+    @Override
+    public Map<String, String> getLogPipelineStatistics() {
+        Map<String, String> statistics = new HashMap<>();
+        
+        for (LogPipeline.Worker worker : LogPipeline.getWorkers()) {
+            statistics.put(worker.getName(), worker.getSummary());
+        }
+        statistics.put("Total", String.format("%d lines spilled, %d lines dropped",
+                LogPipeline.getSpilledLines(), LogPipeline.getDroppedLines()));
+        
+        return statistics;
+    }
+    
+    @Override
+    public Map<String, String> getTerminalLogStatistics() {
+        Map<String, String> statistics = new HashMap<>();
+        
+        for (TerminalLogger terminalLogger : LogPipeline.getActiveLoggers()) {
+            statistics.put(uniqueKey(statistics, terminalLogger.getConnectionName()), terminalLogger.getSummary());
+        }
+        
+        return statistics;
+    }
+    
+    /**
+     * Several tabs may be open to the same server, so repeated names get a " #2", " #3", ... suffix.
+     */
+    private static String uniqueKey(Map<String, ?> map, String name) {
+        String key = name;
+        int suffix = 2;
+        while (map.containsKey(key)) {
+            key = name + " #" + suffix++;
+        }
+        return key;
+    }
+    
+    @Override
+    public int getLogQueueDepth() {
+        return LogPipeline.getQueueDepth();
+    }
+    
+    @Override
+    public long getTimeToFirstWindowMillis() {
+        KorTTYApplication application = KorTTYApplication.getInstance();
+        return application != null ? application.getTimeToFirstWindowMillis() : -1;
+    }
+    
+    @Override
+    public Map<String, String> getStartupStatistics() {
+        Map<String, String> statistics = new HashMap<>();
+        
+        KorTTYApplication application = KorTTYApplication.getInstance();
+        if (application != null) {
+            application.getStartupMillis().forEach((step, millis) -> statistics.put(step, millis + " ms"));
+        }
+        
+        return statistics;
+    }
+    
     @Override
     public long getUptimeSeconds() {
         return Duration.between(startTime, LocalDateTime.now()).getSeconds();
@@ -39,6 +39,51 @@ public interface SSHClientMonitorMBean {
      */
     Map<String, String> getConnectionStatistics();
     
+    /**
+     * Gets the keystroke echo latency percentiles (p50/p95/p99) per open terminal tab.
+     */
+    Map<String, String> getKeystrokeLatencies();
+    
+    /**
+     * Gets matches and time spent per output trigger for each open terminal tab.
+     */
+    Map<String, String> getTriggerStatistics();
+    
+    /**
+     * Gets pending output and read pauses of the UI flow control for each open terminal tab.
+     */
+    Map<String, String> getFlowControlStatistics();
+    
+    /**
+     * Gets emulation priority, CPU usage and throttled time slices for each open terminal tab.
+     */
+    Map<String, String> getEmulationStatistics();
+    
+    /**
+     * Gets queued lines, throughput and dropped lines for each terminal log writer.
+     */
+    Map<String, String> getLogPipelineStatistics();
+    
+    /**
+     * Gets written, spilled and dropped log lines for each logged terminal session.
+     */
+    Map<String, String> getTerminalLogStatistics();
+    
+    /**
+     * Gets the number of terminal log lines waiting to be written.
+     */
+    int getLogQueueDepth();
+    
+    /**
+     * Gets the milliseconds from JVM start to the main window, without the master password dialog.
+     */
+    long getTimeToFirstWindowMillis();
+    
+    /**
+     * Gets the duration of each startup step, such as loading connections or keys.
+     */
+    Map<String, String> getStartupStatistics();
+    
     /**
      * Gets the application uptime in seconds.
      */
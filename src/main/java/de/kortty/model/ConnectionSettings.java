@@ -49,6 +49,9 @@ public class ConnectionSettings {
     @XmlElement
     private boolean closeWithoutConfirmation = false;
     
+    @XmlElement
+    private boolean predictiveEcho = false;
+    
     // ANSI Colors
     @XmlElement
     private String ansiBlack = "#000000";
@@ -102,6 +105,7 @@ public class ConnectionSettings {
         this.boldAsBright = other.boldAsBright;
         this.encoding = other.encoding;
         this.closeWithoutConfirmation = other.closeWithoutConfirmation;
+        this.predictiveEcho = other.predictiveEcho;
         copyAnsiColors(other);
     }
     
@@ -230,6 +234,14 @@ public class ConnectionSettings {
         this.closeWithoutConfirmation = closeWithoutConfirmation;
     }
     
+    public boolean isPredictiveEcho() {
+        return predictiveEcho;
+    }
+    
+    public void setPredictiveEcho(boolean predictiveEcho) {
+        this.predictiveEcho = predictiveEcho;
+    }
+    
     public String getAnsiColor(int index, boolean bright) {
         if (bright) {
             return switch (index) {
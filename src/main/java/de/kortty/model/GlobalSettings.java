@@ -42,6 +42,9 @@ public class GlobalSettings {
     @XmlElement
     private double dashboardDividerPosition = 0.2; // Last dashboard divider position (0.0-1.0)
     
+    @XmlElement
+    private java.util.List<OutputTrigger> outputTriggers = new java.util.ArrayList<>(); // Apply to all connections
+    
     @XmlEnum
     public enum BackupEncryptionType {
         @XmlEnumValue("PASSWORD") PASSWORD,
@@ -137,4 +140,15 @@ public class GlobalSettings {
     public void setDashboardDividerPosition(double dashboardDividerPosition) {
         this.dashboardDividerPosition = dashboardDividerPosition;
     }
+    
+    public java.util.List<OutputTrigger> getOutputTriggers() {
+        if (outputTriggers == null) {
+            outputTriggers = new java.util.ArrayList<>();
+        }
+        return outputTriggers;
+    }
+    
+    public void setOutputTriggers(java.util.List<OutputTrigger> outputTriggers) {
+        this.outputTriggers = outputTriggers;
+    }
 }
@@ -0,0 +1,133 @@
+package de.kortty.model;
+
+import jakarta.xml.bind.annotation.*;
+
+/**
+ * A rule that reacts to terminal output, e.g. highlighting the tab when "ERROR" appears.
+ *
+ * The search text is matched first (cheap, all triggers at once); the optional regular
+ * expression is only evaluated on lines that contain the search text.
+ */
+@XmlRootElement(name = "outputTrigger")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class OutputTrigger {
+    
+    @XmlElement
+    private boolean enabled = true;
+    
+    @XmlElement
+    private String name;
+    
+    @XmlElement
+    private String text; // Literal search text
+    
+    @XmlElement
+    private String regex; // Optional refinement, only run on lines containing the text
+    
+    @XmlElement
+    private boolean caseSensitive = false;
+    
+    @XmlElement
+    private Action action = Action.HIGHLIGHT;
+    
+    @XmlEnum
+    public enum Action {
+        @XmlEnumValue("HIGHLIGHT") HIGHLIGHT("Tab hervorheben"),
+        @XmlEnumValue("BOUNCE") BOUNCE("Tab blinken lassen"),
+        @XmlEnumValue("LOG") LOG("In Trigger-Log schreiben");
+        
+        private final String displayName;
+        
+        Action(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+    
+    public OutputTrigger() {
+    }
+    
+    public OutputTrigger(String name, String text, Action action) {
+        this.name = name;
+        this.text = text;
+        this.action = action;
+    }
+    
+    /**
+     * Copy constructor.
+     */
+    public OutputTrigger(OutputTrigger other) {
+        this.enabled = other.enabled;
+        this.name = other.name;
+        this.text = other.text;
+        this.regex = other.regex;
+        this.caseSensitive = other.caseSensitive;
+        this.action = other.action;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    public void setText(String text) {
+        this.text = text;
+    }
+    
+    public String getRegex() {
+        return regex;
+    }
+    
+    public void setRegex(String regex) {
+        this.regex = regex;
+    }
+    
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+    
+    public void setCaseSensitive(boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+    }
+    
+    public Action getAction() {
+        return action;
+    }
+    
+    public void setAction(Action action) {
+        this.action = action;
+    }
+    
+    /**
+     * Gets the name, falling back to the search text.
+     */
+    public String getDisplayName() {
+        if (name != null && !name.isBlank()) {
+            return name;
+        }
+        return text != null && !text.isEmpty() ? text : regex;
+    }
+}
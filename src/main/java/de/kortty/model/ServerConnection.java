@@ -70,6 +70,9 @@ public class ServerConnection {
     @XmlElement
     private TerminalLogConfig logConfig;
     
+    @XmlElement
+    private java.util.List<OutputTrigger> outputTriggers = new java.util.ArrayList<>();
+    
     @XmlElement
     private int connectionTimeoutSeconds = 15;  // Default: 15 seconds
     
@@ -284,6 +287,17 @@ public class ServerConnection {
         this.logConfig = logConfig;
     }
     
+    public java.util.List<OutputTrigger> getOutputTriggers() {
+        if (outputTriggers == null) {
+            outputTriggers = new java.util.ArrayList<>();
+        }
+        return outputTriggers;
+    }
+    
+    public void setOutputTriggers(java.util.List<OutputTrigger> outputTriggers) {
+        this.outputTriggers = outputTriggers;
+    }
+    
     public int getConnectionTimeoutSeconds() {
         return connectionTimeoutSeconds;
     }
@@ -1,5 +1,6 @@
 package de.kortty.model;
 
+import de.kortty.persistence.HistoryJournal;
 import jakarta.xml.bind.annotation.*;
 
 /**
@@ -36,6 +37,10 @@ public class SessionState {
     @XmlElement
     private String group;
     
+    /** Live output journal of the tab; finalized into the history file on save. */
+    @XmlTransient
+    private HistoryJournal historyJournal;
+    
     public SessionState() {
     }
     
@@ -118,6 +123,14 @@ public class SessionState {
         this.group = group;
     }
     
+    public HistoryJournal getHistoryJournal() {
+        return historyJournal;
+    }
+    
+    public void setHistoryJournal(HistoryJournal historyJournal) {
+        this.historyJournal = historyJournal;
+    }
+    
     /**
      * Generates a display title for the tab based on user and current state.
      */
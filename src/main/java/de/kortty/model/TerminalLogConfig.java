@@ -17,7 +17,8 @@ public class TerminalLogConfig {
     public enum LogFormat {
         PLAIN_TEXT("Plain Text", "txt"),
         XML("XML", "xml"),
-        JSON("JSON", "json");
+        JSON("JSON", "json"),
+        NDJSON("JSON Lines (absturzsicher, mit Zeitindex)", "ndjson");
         
         private final String displayName;
         private final String extension;
@@ -41,6 +42,55 @@ public class TerminalLogConfig {
         }
     }
     
+    /**
+     * When the log writer forces written lines to disk.
+     */
+    @XmlEnum
+    public enum FlushPolicy {
+        EVERY_LINE("Jede Zeile (sicher, langsam)"),
+        INTERVAL("Gebündelt nach Zeit oder Menge"),
+        BUFFER_FULL("Nur bei vollem Puffer (schnell)");
+        
+        private final String displayName;
+        
+        FlushPolicy(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+    
+    /**
+     * What happens to lines while the log writer cannot keep up.
+     */
+    @XmlEnum
+    public enum OverflowPolicy {
+        SPILL("Auslagern (verlustfrei)"),
+        DROP("Zeilen verwerfen");
+        
+        private final String displayName;
+        
+        OverflowPolicy(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+    
     @XmlElement
     private boolean enabled = false;
     
@@ -53,6 +103,27 @@ public class TerminalLogConfig {
     @XmlElement
     private LogFormat format = LogFormat.PLAIN_TEXT;
     
+    @XmlElement
+    private FlushPolicy flushPolicy = FlushPolicy.INTERVAL;
+    
+    @XmlElement
+    private int flushIntervalMillis = 200;
+    
+    @XmlElement
+    private OverflowPolicy overflowPolicy = OverflowPolicy.SPILL;
+    
+    @XmlElement
+    private int maxRotatedFiles = 5;
+    
+    @XmlElement
+    private int maxRotatedTotalMB = 100;
+    
+    @XmlElement
+    private boolean compressRotatedLogs = true;
+    
+    @XmlElement
+    private boolean rawCapture = false;
+    
     public TerminalLogConfig() {
     }
     
@@ -88,6 +159,75 @@ public class TerminalLogConfig {
         this.format = format;
     }
     
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy != null ? flushPolicy : FlushPolicy.INTERVAL;
+    }
+    
+    public void setFlushPolicy(FlushPolicy flushPolicy) {
+        this.flushPolicy = flushPolicy;
+    }
+    
+    public int getFlushIntervalMillis() {
+        return flushIntervalMillis > 0 ? flushIntervalMillis : 200;
+    }
+    
+    public void setFlushIntervalMillis(int flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+    
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy != null ? overflowPolicy : OverflowPolicy.SPILL;
+    }
+    
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+    
+    /**
+     * Gets how many rotated files are kept next to the current log.
+     */
+    public int getMaxRotatedFiles() {
+        return maxRotatedFiles;
+    }
+    
+    public void setMaxRotatedFiles(int maxRotatedFiles) {
+        this.maxRotatedFiles = maxRotatedFiles;
+    }
+    
+    /**
+     * Gets how much space the rotated files may take together.
+     */
+    public int getMaxRotatedTotalMB() {
+        return maxRotatedTotalMB;
+    }
+    
+    public void setMaxRotatedTotalMB(int maxRotatedTotalMB) {
+        this.maxRotatedTotalMB = maxRotatedTotalMB;
+    }
+    
+    public long getMaxRotatedTotalBytes() {
+        return (long) maxRotatedTotalMB * 1024 * 1024;
+    }
+    
+    public boolean isCompressRotatedLogs() {
+        return compressRotatedLogs;
+    }
+    
+    public void setCompressRotatedLogs(boolean compressRotatedLogs) {
+        this.compressRotatedLogs = compressRotatedLogs;
+    }
+    
+    /**
+     * Whether the undecoded output is also captured, next to the log as {@code <log>.raw}.
+     */
+    public boolean isRawCapture() {
+        return rawCapture;
+    }
+    
+    public void setRawCapture(boolean rawCapture) {
+        this.rawCapture = rawCapture;
+    }
+    
     /**
      * Gets the maximum file size in bytes.
      */
@@ -0,0 +1,301 @@
+package de.kortty.persistence;
+
+import de.kortty.core.AnsiStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only journal of a terminal tab's output, used to save the full scrollback with a project.
+ *
+ * Output is stripped of escape sequences and buffered as plain text lines. Whenever enough text
+ * has accumulated, the buffer is compressed as a separate gzip member and appended to the current
+ * generation file on a shared background writer. Because concatenated gzip members form a valid
+ * gzip stream, the generations can be read one after another as a single history.
+ *
+ * A generation that is finished is never written again, so saving a project hands it over by
+ * reference (a hard link, or a copy where links are not supported) instead of copying its bytes.
+ * Saving finishes the current generation unless it is still small; only that small tail is
+ * copied. The oldest generations are dropped once the journal exceeds twice its file size limit.
+ *
+ * The writer queue is bounded: if the writer falls behind by more than {@link #MAX_QUEUED_CHARS},
+ * further output is dropped and a marker line records how much is missing.
+ *
+ * While open, the journal holds a lock on its lock file, which tells the journal cleanup at
+ * startup that the journal belongs to a running instance.
+ */
+public class HistoryJournal {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HistoryJournal.class);
+    private static final int FLUSH_THRESHOLD_CHARS = 64 * 1024;
+    private static final int MAX_LINE_LENGTH = 4096;
+    private static final long MAX_QUEUED_CHARS = 16L * 1024 * 1024;
+    // A current generation below this size is copied on save instead of being finished
+    private static final long MIN_FINISHED_BYTES = 1024 * 1024;
+    
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "HistoryJournal-Writer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final AtomicLong QUEUED_CHARS = new AtomicLong();
+    
+    private final Path currentFile;
+    private final long maxFileBytes;
+    private final Path lockFile;
+    private final FileChannel lockChannel;
+    private final AnsiStripper stripper;
+    private StringBuilder pending = new StringBuilder();
+    private final AtomicLong droppedChars = new AtomicLong();
+    private volatile boolean closed = false;
+    
+    // Accessed by the writer thread only
+    private final Deque<Path> finished = new ArrayDeque<>();
+    private long finishedBytes = 0;
+    private long currentFileBytes = 0;
+    private int nextGeneration = 1;
+    private long reportedDroppedChars = 0;
+    
+    HistoryJournal(Path currentFile, Path lockFile, long maxFileBytes) {
+        this.currentFile = currentFile;
+        this.maxFileBytes = maxFileBytes;
+        this.lockFile = lockFile;
+        this.lockChannel = acquireLock(lockFile);
+        this.stripper = new AnsiStripper(line -> pending.append(line).append('\n'), MAX_LINE_LENGTH);
+    }
+    
+    private static FileChannel acquireLock(Path lockFile) {
+        try {
+            FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.lock();
+            return channel;
+        } catch (IOException e) {
+            logger.warn("Failed to lock history journal {}: {}", lockFile, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Appends a chunk of raw terminal output. Called from the connector's data path.
+     */
+    public void append(String data) {
+        if (closed || data == null || data.isEmpty()) {
+            return;
+        }
+        StringBuilder toWrite = null;
+        synchronized (this) {
+            stripper.feed(data);
+            if (pending.length() >= FLUSH_THRESHOLD_CHARS) {
+                toWrite = pending;
+                pending = new StringBuilder();
+            }
+        }
+        if (toWrite != null) {
+            submitWrite(toWrite);
+        }
+    }
+    
+    /**
+     * Appends plain text (e.g. restored history) as it is, without escape processing.
+     */
+    public void appendText(String text) {
+        if (closed || text == null || text.isEmpty()) {
+            return;
+        }
+        StringBuilder toWrite;
+        synchronized (this) {
+            stripper.flush();
+            pending.append(text);
+            if (!text.endsWith("\n")) {
+                pending.append('\n');
+            }
+            toWrite = pending;
+            pending = new StringBuilder();
+        }
+        submitWrite(toWrite);
+    }
+    
+    /**
+     * Gets the number of output characters dropped because the writer fell behind.
+     */
+    public long getDroppedChars() {
+        return droppedChars.get();
+    }
+    
+    /**
+     * Hands the complete journal to the given history parts, oldest first: the first part is
+     * {@code parts.apply(0)}, the next {@code parts.apply(1)} and so on. Finished generations
+     * are linked, only a small current generation is copied.
+     * Blocks until all buffered output has been written; call it off the FX thread.
+     *
+     * @return the number of parts written
+     */
+    public int finalizeTo(IntFunction<Path> parts) throws IOException {
+        StringBuilder toWrite;
+        synchronized (this) {
+            stripper.flush();
+            toWrite = pending;
+            pending = new StringBuilder();
+        }
+        
+        // Run on the writer so the hand-over sees every member queued before it
+        Future<Integer> handOver = WRITER.submit(() -> {
+            writeMember(toWrite);
+            if (currentFileBytes >= MIN_FINISHED_BYTES) {
+                finishCurrent();
+            }
+            int count = 0;
+            for (Path generation : finished) {
+                link(generation, parts.apply(count++));
+            }
+            if (currentFileBytes > 0) {
+                Path temp = temporary(parts.apply(count));
+                Files.copy(currentFile, temp);
+                Files.move(temp, parts.apply(count++), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return count;
+        });
+        
+        try {
+            return handOver.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while finalizing history journal", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to finalize history journal: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    /**
+     * Replaces the target with a link to a finished generation. Runs on the writer thread only.
+     */
+    private static void link(Path generation, Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(generation, target)) {
+            return; // linked by an earlier save
+        }
+        Path temp = temporary(target);
+        try {
+            Files.createLink(temp, generation);
+        } catch (UnsupportedOperationException | IOException e) {
+            // e.g. a file system without hard links; the generation does not change any more
+            Files.copy(generation, temp);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    private static Path temporary(Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        return temp;
+    }
+    
+    /**
+     * Closes the journal and deletes its files.
+     */
+    public void close() {
+        closed = true;
+        WRITER.submit(() -> {
+            try {
+                Files.deleteIfExists(currentFile);
+                for (Path generation : finished) {
+                    Files.deleteIfExists(generation);
+                }
+                finished.clear();
+                if (lockChannel != null) {
+                    lockChannel.close();
+                }
+                Files.deleteIfExists(lockFile);
+            } catch (IOException e) {
+                logger.warn("Failed to delete history journal {}: {}", currentFile, e.getMessage());
+            }
+        });
+    }
+    
+    private void submitWrite(StringBuilder text) {
+        int length = text.length();
+        if (QUEUED_CHARS.addAndGet(length) > MAX_QUEUED_CHARS) {
+            QUEUED_CHARS.addAndGet(-length);
+            if (droppedChars.getAndAdd(length) == 0) {
+                logger.warn("History journal writer behind, dropping output for {}", currentFile.getFileName());
+            }
+            return;
+        }
+        WRITER.submit(() -> {
+            try {
+                writeMember(text);
+            } catch (IOException e) {
+                logger.warn("Failed to write history journal {}: {}", currentFile, e.getMessage());
+            } finally {
+                QUEUED_CHARS.addAndGet(-length);
+            }
+        });
+    }
+    
+    /**
+     * Compresses the text as one gzip member and appends it. Runs on the writer thread only.
+     */
+    private void writeMember(StringBuilder text) throws IOException {
+        if (closed || text.length() == 0) {
+            return;
+        }
+        
+        if (currentFileBytes >= maxFileBytes) {
+            finishCurrent();
+        }
+        
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(text.length() / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            long dropped = droppedChars.get();
+            if (dropped > reportedDroppedChars) {
+                String marker = "[... " + (dropped - reportedDroppedChars)
+                        + " Zeichen Ausgabe verworfen, der Verlauf wurde nicht schnell genug gespeichert ...]\n";
+                gzip.write(marker.getBytes(StandardCharsets.UTF_8));
+                reportedDroppedChars = dropped;
+            }
+            gzip.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        
+        Files.write(currentFile, compressed.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        currentFileBytes += compressed.size();
+    }
+    
+    /**
+     * Renames the current generation to a finished one that is never written again, and drops
+     * the oldest finished generations beyond the size limit. Runs on the writer thread only.
+     */
+    private void finishCurrent() throws IOException {
+        if (currentFileBytes == 0) {
+            return;
+        }
+        Path generation = currentFile.resolveSibling(currentFile.getFileName() + "." + nextGeneration++);
+        Files.move(currentFile, generation, StandardCopyOption.REPLACE_EXISTING);
+        finished.addLast(generation);
+        finishedBytes += currentFileBytes;
+        currentFileBytes = 0;
+        
+        // Projects saved before keep their own links to dropped generations
+        while (finished.size() > 1 && finishedBytes > 2 * maxFileBytes) {
+            Path oldest = finished.removeFirst();
+            finishedBytes -= Files.size(oldest);
+            Files.deleteIfExists(oldest);
+        }
+    }
+}
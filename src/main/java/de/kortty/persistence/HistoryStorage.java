@@ -4,9 +4,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -18,6 +29,10 @@ public class HistoryStorage {
     private static final Logger logger = LoggerFactory.getLogger(HistoryStorage.class);
     private static final String HISTORY_DIR = "history";
     private static final String HISTORY_EXTENSION = ".history.gz";
+    private static final String JOURNAL_DIR = "journal";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String LOCK_EXTENSION = ".lock";
+    private static final long MAX_JOURNAL_FILE_BYTES = 32L * 1024 * 1024;
     
     private final Path historyDir;
     
@@ -41,16 +56,158 @@ public class HistoryStorage {
         String fileName = sessionId + HISTORY_EXTENSION;
         Path filePath = historyDir.resolve(fileName);
         
-        try (OutputStream fos = Files.newOutputStream(filePath);
+        // Written next to the file and moved over it: a saved history may be a link to a journal generation
+        Path temp = historyDir.resolve(fileName + ".tmp");
+        try (OutputStream fos = Files.newOutputStream(temp);
              GZIPOutputStream gzos = new GZIPOutputStream(fos);
              Writer writer = new OutputStreamWriter(gzos, StandardCharsets.UTF_8)) {
             writer.write(history);
         }
+        Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING);
+        deleteParts(fileName, 1);
         
         logger.debug("Saved history for session {} ({} chars)", sessionId, history.length());
         return fileName;
     }
     
+    /**
+     * Opens a new output journal for a terminal tab.
+     * The journal stays locked while open; journals left over after a crash are unlocked,
+     * and {@link #cleanupJournals()} removes them.
+     */
+    public HistoryJournal openJournal(String journalId) {
+        Path journalDir = historyDir.resolve(JOURNAL_DIR);
+        try {
+            Files.createDirectories(journalDir);
+        } catch (IOException e) {
+            logger.error("Failed to create journal directory", e);
+        }
+        return new HistoryJournal(
+                journalDir.resolve(journalId + JOURNAL_EXTENSION),
+                journalDir.resolve(journalId + LOCK_EXTENSION),
+                MAX_JOURNAL_FILE_BYTES);
+    }
+    
+    /**
+     * Saves the content of a tab's journal as the session's history.
+     * The journal's generations become the parts of the history file, see {@link #partPath}.
+     * Returns the file name.
+     */
+    public String saveJournal(String sessionId, HistoryJournal journal) throws IOException {
+        String fileName = sessionId + HISTORY_EXTENSION;
+        int parts = journal.finalizeTo(index -> partPath(fileName, index));
+        if (parts == 0) {
+            return saveHistory(sessionId, "");
+        }
+        deleteParts(fileName, parts);
+        logger.debug("Saved history journal for session {} ({} parts)", sessionId, parts);
+        return fileName;
+    }
+    
+    /**
+     * A history is stored in one or more parts, read one after another: the file itself and
+     * then "&lt;file&gt;.2", "&lt;file&gt;.3" and so on.
+     */
+    private Path partPath(String fileName, int index) {
+        return historyDir.resolve(index == 0 ? fileName : fileName + "." + (index + 1));
+    }
+    
+    private List<Path> listParts(String fileName) {
+        List<Path> parts = new ArrayList<>();
+        for (int index = 0; Files.exists(partPath(fileName, index)); index++) {
+            parts.add(partPath(fileName, index));
+        }
+        return parts;
+    }
+    
+    /**
+     * Deletes the parts from the given index on, left over from a longer history saved before.
+     */
+    private void deleteParts(String fileName, int fromIndex) throws IOException {
+        for (int index = fromIndex; Files.deleteIfExists(partPath(fileName, index)); index++) {
+            // next part
+        }
+    }
+    
+    /**
+     * Opens the decompressed content of all parts of a history as one stream.
+     */
+    private InputStream openHistoryStream(String fileName) throws IOException {
+        List<Path> parts = listParts(fileName);
+        if (parts.isEmpty()) {
+            throw new FileNotFoundException(historyDir.resolve(fileName).toString());
+        }
+        // One gzip stream per part, so each stream ends where its file ends
+        Iterator<Path> remaining = parts.iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return remaining.hasNext();
+            }
+            
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return new GZIPInputStream(Files.newInputStream(remaining.next()), 64 * 1024);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Deletes journals left behind by a previous run.
+     * Journals still locked by another running instance are kept.
+     */
+    public void cleanupJournals() {
+        Path journalDir = historyDir.resolve(JOURNAL_DIR);
+        if (!Files.exists(journalDir)) {
+            return;
+        }
+        
+        Set<String> journalIds = new TreeSet<>();
+        try (var stream = Files.list(journalDir)) {
+            stream.forEach(p -> {
+                String name = p.getFileName().toString();
+                int end = name.endsWith(LOCK_EXTENSION) ? name.length() - LOCK_EXTENSION.length()
+                        : name.indexOf(JOURNAL_EXTENSION);
+                if (end > 0) {
+                    journalIds.add(name.substring(0, end));
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to clean up journals", e);
+            return;
+        }
+        
+        for (String journalId : journalIds) {
+            Path lockFile = journalDir.resolve(journalId + LOCK_EXTENSION);
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.tryLock()) {
+                if (lock == null) {
+                    continue; // in use by another instance
+                }
+                // The current generation and the finished ones ("<id>.journal.<n>")
+                try (var generations = Files.newDirectoryStream(journalDir, journalId + JOURNAL_EXTENSION + "*")) {
+                    for (Path generation : generations) {
+                        Files.deleteIfExists(generation);
+                    }
+                }
+            } catch (OverlappingFileLockException e) {
+                continue; // in use by this instance
+            } catch (IOException e) {
+                logger.warn("Failed to delete stale journal {}: {}", journalId, e.getMessage());
+                continue;
+            }
+            try {
+                Files.deleteIfExists(lockFile);
+            } catch (IOException e) {
+                logger.warn("Failed to delete journal lock {}: {}", lockFile, e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Loads terminal history from a compressed file.
      */
@@ -62,9 +219,7 @@ public class HistoryStorage {
             return null;
         }
         
-        try (InputStream fis = Files.newInputStream(filePath);
-             GZIPInputStream gzis = new GZIPInputStream(fis);
-             Reader reader = new InputStreamReader(gzis, StandardCharsets.UTF_8)) {
+        try (Reader reader = new InputStreamReader(openHistoryStream(fileName), StandardCharsets.UTF_8)) {
             
             StringBuilder sb = new StringBuilder();
             char[] buffer = new char[8192];
@@ -79,12 +234,19 @@ public class HistoryStorage {
         }
     }
     
+    /**
+     * Opens a history file for streaming, line by line.
+     * The caller closes the reader; only what is read gets decompressed.
+     */
+    public BufferedReader openHistoryReader(String fileName) throws IOException {
+        return new BufferedReader(new InputStreamReader(openHistoryStream(fileName), StandardCharsets.UTF_8));
+    }
+    
     /**
      * Deletes a history file.
      */
     public void deleteHistory(String fileName) throws IOException {
-        Path filePath = historyDir.resolve(fileName);
-        Files.deleteIfExists(filePath);
+        deleteParts(fileName, 0);
         logger.debug("Deleted history file: {}", fileName);
     }
     
@@ -97,8 +259,8 @@ public class HistoryStorage {
         }
         
         try (var stream = Files.list(historyDir)) {
-            stream.filter(p -> p.toString().endsWith(HISTORY_EXTENSION))
-                    .filter(p -> !activeHistoryFiles.contains(p.getFileName().toString()))
+            stream.filter(p -> historyFileOf(p) != null)
+                    .filter(p -> !activeHistoryFiles.contains(historyFileOf(p)))
                     .forEach(p -> {
                         try {
                             Files.delete(p);
@@ -119,7 +281,7 @@ public class HistoryStorage {
         }
         
         try (var stream = Files.list(historyDir)) {
-            return stream.filter(p -> p.toString().endsWith(HISTORY_EXTENSION))
+            return stream.filter(p -> historyFileOf(p) != null)
                     .mapToLong(p -> {
                         try {
                             return Files.size(p);
@@ -130,4 +292,20 @@ public class HistoryStorage {
                     .sum();
         }
     }
+    
+    /**
+     * Gets the name of the history a file is a part of, or null if it is no history part.
+     */
+    private static String historyFileOf(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(HISTORY_EXTENSION)) {
+            return name;
+        }
+        int end = name.lastIndexOf(HISTORY_EXTENSION + ".");
+        String suffix = end > 0 ? name.substring(end + HISTORY_EXTENSION.length() + 1) : "";
+        if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+            return name.substring(0, end + HISTORY_EXTENSION.length());
+        }
+        return null;
+    }
 }
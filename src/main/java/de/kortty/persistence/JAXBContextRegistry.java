@@ -0,0 +1,129 @@
+package de.kortty.persistence;
+
+import de.kortty.core.CredentialManager;
+import de.kortty.core.GPGKeyManager;
+import de.kortty.core.SSHKeyManager;
+import de.kortty.model.AuthMethod;
+import de.kortty.model.GPGKey;
+import de.kortty.model.GlobalSettings;
+import de.kortty.model.JumpServer;
+import de.kortty.model.Project;
+import de.kortty.model.SSHKey;
+import de.kortty.model.SSHTunnel;
+import de.kortty.model.ServerConnection;
+import de.kortty.model.StoredCredential;
+import de.kortty.model.TerminalLogConfig;
+import de.kortty.model.TunnelType;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application-wide cache of JAXB contexts.
+ *
+ * Building a context introspects all bound classes and is by far the most expensive step
+ * of reading or writing an XML file; a built context is thread-safe, and creating a
+ * marshaller or unmarshaller from it is cheap. Each set of classes is built once, by the
+ * first thread asking for it, while other threads asking for the same set wait for that
+ * result. {@link #warmUp()} builds the contexts of all configuration files in the
+ * background, so they are ready when the configuration is loaded.
+ */
+public final class JAXBContextRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JAXBContextRegistry.class);
+    
+    private static final Class<?>[] CONNECTION_CLASSES = {
+            XMLConnectionRepository.ConnectionsWrapper.class, ServerConnection.class, SSHTunnel.class,
+            JumpServer.class, AuthMethod.class, TunnelType.class, TerminalLogConfig.class,
+            TerminalLogConfig.LogFormat.class
+    };
+    
+    private static final ConcurrentHashMap<Set<Class<?>>, CompletableFuture<JAXBContext>> CONTEXTS =
+            new ConcurrentHashMap<>();
+    
+    private JAXBContextRegistry() {
+    }
+    
+    /**
+     * Gets the context for the given classes, building it on first use.
+     * The order of the classes does not matter.
+     */
+    public static JAXBContext get(Class<?>... classes) throws JAXBException {
+        Set<Class<?>> key = Set.of(classes);
+        CompletableFuture<JAXBContext> future = CONTEXTS.get(key);
+        if (future == null) {
+            CompletableFuture<JAXBContext> created = new CompletableFuture<>();
+            future = CONTEXTS.putIfAbsent(key, created);
+            if (future == null) {
+                future = created;
+                build(key, classes, created);
+            }
+        }
+        
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof JAXBException jaxbException) {
+                throw jaxbException;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Gets the context for connection files: the configuration, exports and imports.
+     */
+    public static JAXBContext connections() throws JAXBException {
+        return get(CONNECTION_CLASSES);
+    }
+    
+    private static void build(Set<Class<?>> key, Class<?>[] classes, CompletableFuture<JAXBContext> future) {
+        long start = System.nanoTime();
+        try {
+            future.complete(JAXBContext.newInstance(classes));
+            logger.debug("Built JAXB context for {} in {} ms", classes[0].getSimpleName(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (JAXBException | RuntimeException e) {
+            // Not cached, so the next call tries again
+            CONTEXTS.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * Builds the contexts of all configuration files on a background thread.
+     * Called at startup, so the work overlaps with the master password dialog.
+     */
+    public static void warmUp() {
+        List<Class<?>[]> contextClasses = List.of(
+                CONNECTION_CLASSES,
+                new Class<?>[] {GlobalSettings.class},
+                new Class<?>[] {GPGKeyManager.GPGKeysWrapper.class, GPGKey.class},
+                new Class<?>[] {CredentialManager.CredentialsWrapper.class, StoredCredential.class,
+                        StoredCredential.Environment.class},
+                new Class<?>[] {SSHKeyManager.SSHKeysWrapper.class, SSHKey.class},
+                new Class<?>[] {Project.class});
+        
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            for (Class<?>[] classes : contextClasses) {
+                try {
+                    get(classes);
+                } catch (JAXBException | RuntimeException e) {
+                    logger.warn("Could not prepare JAXB context for {}: {}", classes[0].getSimpleName(), e.getMessage());
+                }
+            }
+            logger.info("Prepared {} JAXB contexts in {} ms", contextClasses.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }, "JAXB-WarmUp");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -1,10 +1,6 @@
 package de.kortty.persistence;
 
 import de.kortty.model.ServerConnection;
-import de.kortty.model.SSHTunnel;
-import de.kortty.model.JumpServer;
-import de.kortty.model.AuthMethod;
-import de.kortty.model.TunnelType;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.Marshaller;
 import jakarta.xml.bind.Unmarshaller;
@@ -40,7 +36,7 @@ public class XMLConnectionRepository {
         ConnectionsWrapper wrapper = new ConnectionsWrapper();
         wrapper.setConnections(connections);
         
-        JAXBContext context = JAXBContext.newInstance(ConnectionsWrapper.class, ServerConnection.class, SSHTunnel.class, JumpServer.class, AuthMethod.class, TunnelType.class, de.kortty.model.TerminalLogConfig.class, de.kortty.model.TerminalLogConfig.LogFormat.class);
+        JAXBContext context = JAXBContextRegistry.connections();
         Marshaller marshaller = context.createMarshaller();
         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
         
@@ -63,7 +59,7 @@ public class XMLConnectionRepository {
             return new ArrayList<>();
         }
         
-        JAXBContext context = JAXBContext.newInstance(ConnectionsWrapper.class, ServerConnection.class, SSHTunnel.class, JumpServer.class, AuthMethod.class, TunnelType.class, de.kortty.model.TerminalLogConfig.class, de.kortty.model.TerminalLogConfig.LogFormat.class);
+        JAXBContext context = JAXBContextRegistry.connections();
         Unmarshaller unmarshaller = context.createUnmarshaller();
         
         ConnectionsWrapper wrapper;
@@ -84,7 +80,7 @@ public class XMLConnectionRepository {
         ConnectionsWrapper wrapper = new ConnectionsWrapper();
         wrapper.setConnections(connections);
         
-        JAXBContext context = JAXBContext.newInstance(ConnectionsWrapper.class, ServerConnection.class, SSHTunnel.class, JumpServer.class, AuthMethod.class, TunnelType.class, de.kortty.model.TerminalLogConfig.class, de.kortty.model.TerminalLogConfig.LogFormat.class);
+        JAXBContext context = JAXBContextRegistry.connections();
         Marshaller marshaller = context.createMarshaller();
         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
         
@@ -99,7 +95,7 @@ public class XMLConnectionRepository {
      * Imports connections from an XML file.
      */
     public List<ServerConnection> importConnections(Path sourceFile) throws Exception {
-        JAXBContext context = JAXBContext.newInstance(ConnectionsWrapper.class, ServerConnection.class, SSHTunnel.class, JumpServer.class, AuthMethod.class, TunnelType.class, de.kortty.model.TerminalLogConfig.class, de.kortty.model.TerminalLogConfig.LogFormat.class);
+        JAXBContext context = JAXBContextRegistry.connections();
         Unmarshaller unmarshaller = context.createUnmarshaller();
         
         ConnectionsWrapper wrapper;
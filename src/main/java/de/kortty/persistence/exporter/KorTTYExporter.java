@@ -39,16 +39,7 @@ public class KorTTYExporter implements ConnectionExporter {
         XMLConnectionRepository.ConnectionsWrapper wrapper = new XMLConnectionRepository.ConnectionsWrapper();
         wrapper.setConnections(connections);
         
-        jakarta.xml.bind.JAXBContext context = jakarta.xml.bind.JAXBContext.newInstance(
-            XMLConnectionRepository.ConnectionsWrapper.class, 
-            de.kortty.model.ServerConnection.class,
-            de.kortty.model.SSHTunnel.class,
-            de.kortty.model.JumpServer.class,
-            de.kortty.model.AuthMethod.class,
-            de.kortty.model.TunnelType.class,
-            de.kortty.model.TerminalLogConfig.class,
-            de.kortty.model.TerminalLogConfig.LogFormat.class
-        );
+        jakarta.xml.bind.JAXBContext context = de.kortty.persistence.JAXBContextRegistry.connections();
         jakarta.xml.bind.Marshaller marshaller = context.createMarshaller();
         marshaller.setProperty(jakarta.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
         
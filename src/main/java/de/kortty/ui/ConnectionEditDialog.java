@@ -11,6 +11,7 @@ import de.kortty.core.CredentialManager;
 import de.kortty.core.SSHKeyManager;
 import de.kortty.model.ConnectionSettings;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.control.Alert;
 import javafx.scene.layout.GridPane;
@@ -56,6 +57,15 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
     // Connection-specific settings
     private CheckBox useCustomSettingsCheck;
     
+    // Output triggers
+    private TriggerListPane triggerListPane;
+    
+    // Jump server fields
+    private TextField jumpHostField;
+    private Spinner<Integer> jumpPortSpinner;
+    private TextField jumpUserField;
+    private TextArea autoCommandArea;
+    
     // Tunnel and Jump Server
     private CheckBox enableTunnelsCheck;
     private CheckBox enableJumpCheck;
@@ -64,12 +74,20 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
     private ColorPicker foregroundColorPicker;
     private ColorPicker backgroundColorPicker;
     private CheckBox closeWithoutConfirmCheck;
+    private CheckBox predictiveEchoCheck;
     
     // Terminal Logging
     private CheckBox enableLoggingCheck;
     private TextField logFilePathField;
     private Spinner<Integer> maxFileSizeMBSpinner;
     private ComboBox<de.kortty.model.TerminalLogConfig.LogFormat> logFormatCombo;
+    private ComboBox<de.kortty.model.TerminalLogConfig.FlushPolicy> flushPolicyCombo;
+    private Spinner<Integer> flushIntervalSpinner;
+    private ComboBox<de.kortty.model.TerminalLogConfig.OverflowPolicy> overflowPolicyCombo;
+    private Spinner<Integer> maxRotatedFilesSpinner;
+    private Spinner<Integer> maxRotatedTotalMBSpinner;
+    private CheckBox compressRotatedLogsCheck;
+    private CheckBox rawCaptureCheck;
     
     // Connection timeout
     private Spinner<Integer> timeoutSpinner;
@@ -299,7 +317,15 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
         // Tab 5: Terminal Logging
         Tab loggingTab = createLoggingTab();
         
-        tabPane.getTabs().addAll(connectionTab, settingsTab, tunnelsTab, jumpServerTab, loggingTab);
+        // Tab 6: Output triggers
+        Tab triggersTab = new Tab("Trigger");
+        triggersTab.setClosable(false);
+        triggerListPane = new TriggerListPane("Trigger für diese Verbindung (zusätzlich zu den globalen):",
+                connection.getOutputTriggers());
+        triggerListPane.setPadding(new Insets(20));
+        triggersTab.setContent(triggerListPane);
+        
+        tabPane.getTabs().addAll(connectionTab, settingsTab, tunnelsTab, jumpServerTab, loggingTab, triggersTab);
         getDialogPane().setContent(tabPane);
         
         // Buttons
@@ -374,6 +400,9 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
                     if (closeWithoutConfirmCheck != null) {
                         customSettings.setCloseWithoutConfirmation(closeWithoutConfirmCheck.isSelected());
                     }
+                    if (predictiveEchoCheck != null) {
+                        customSettings.setPredictiveEcho(predictiveEchoCheck.isSelected());
+                    }
                     connection.setSettings(customSettings);
                 } else {
                     connection.setSettings(null); // Use global settings
@@ -385,17 +414,22 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
                 
                 // Save jump server settings
                 if (enableJumpCheck != null && enableJumpCheck.isSelected()) {
-                    // Jump server configuration is saved when checkbox is enabled
-                    // Full implementation TODO: extract values from UI fields
                     if (connection.getJumpServer() == null) {
                         connection.setJumpServer(new de.kortty.model.JumpServer());
                     }
-                    connection.getJumpServer().setEnabled(true);
-                    // TODO: Set host, port, username, password, autoCommand from UI fields
+                    de.kortty.model.JumpServer jump = connection.getJumpServer();
+                    jump.setEnabled(true);
+                    jump.setHost(jumpHostField.getText() != null ? jumpHostField.getText().trim() : "");
+                    jump.setPort(jumpPortSpinner.getValue());
+                    jump.setUsername(jumpUserField.getText() != null ? jumpUserField.getText().trim() : "");
+                    jump.setAutoCommand(autoCommandArea.getText() != null ? autoCommandArea.getText().strip() : "");
                 } else if (connection.getJumpServer() != null) {
                     connection.getJumpServer().setEnabled(false);
                 }
                 
+                // Save output triggers
+                connection.setOutputTriggers(triggerListPane.getTriggers());
+                
                 // Save logging settings
                 de.kortty.model.TerminalLogConfig logConfig = connection.getLogConfig();
                 if (enableLoggingCheck != null) {
@@ -408,6 +442,27 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
                         if (logFormatCombo != null) {
                             logConfig.setFormat(logFormatCombo.getValue());
                         }
+                        if (flushPolicyCombo != null) {
+                            logConfig.setFlushPolicy(flushPolicyCombo.getValue());
+                        }
+                        if (flushIntervalSpinner != null) {
+                            logConfig.setFlushIntervalMillis(flushIntervalSpinner.getValue());
+                        }
+                        if (overflowPolicyCombo != null) {
+                            logConfig.setOverflowPolicy(overflowPolicyCombo.getValue());
+                        }
+                        if (maxRotatedFilesSpinner != null) {
+                            logConfig.setMaxRotatedFiles(maxRotatedFilesSpinner.getValue());
+                        }
+                        if (maxRotatedTotalMBSpinner != null) {
+                            logConfig.setMaxRotatedTotalMB(maxRotatedTotalMBSpinner.getValue());
+                        }
+                        if (compressRotatedLogsCheck != null) {
+                            logConfig.setCompressRotatedLogs(compressRotatedLogsCheck.isSelected());
+                        }
+                        if (rawCaptureCheck != null) {
+                            logConfig.setRawCapture(rawCaptureCheck.isSelected());
+                        }
                     }
                 }
                 
@@ -471,6 +526,13 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
         closeWithoutConfirmCheck = new CheckBox("Tab ohne Nachfrage schließen");
         closeWithoutConfirmCheck.setSelected(connSettings != null && connSettings.isCloseWithoutConfirmation());
         
+        // Predictive local echo for high-latency links
+        predictiveEchoCheck = new CheckBox("Eingaben sofort anzeigen (lokales Echo bei hoher Latenz)");
+        predictiveEchoCheck.setSelected(connSettings != null && connSettings.isPredictiveEcho());
+        predictiveEchoCheck.setTooltip(new Tooltip(
+                "Getippte Zeichen werden vorab unterstrichen angezeigt und mit dem Echo des Servers abgeglichen.\n"
+                + "In Vollbild-Programmen und bei Passwortabfragen automatisch aus."));
+        
         // Layout
         int row = 0;
         settingsGrid.add(new Label("Schriftart:"), 0, row);
@@ -490,6 +552,7 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
         settingsGrid.add(new Separator(), 0, row++, 2, 1);
         
         settingsGrid.add(closeWithoutConfirmCheck, 0, row++, 2, 1);
+        settingsGrid.add(predictiveEchoCheck, 0, row++, 2, 1);
         
         // Enable/disable settings grid based on checkbox
         useCustomSettingsCheck.selectedProperty().addListener((obs, oldVal, newVal) -> {
@@ -680,24 +743,23 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
         grid.setVgap(10);
         grid.setDisable(jumpServer == null || !jumpServer.isEnabled());
         
-        TextField jumpHostField = new TextField();
+        jumpHostField = new TextField();
         jumpHostField.setPromptText("Jump-Server Hostname");
         if (jumpServer != null) jumpHostField.setText(jumpServer.getHost());
         
-        Spinner<Integer> jumpPortSpinner = new Spinner<>(1, 65535, jumpServer != null ? jumpServer.getPort() : 22);
+        jumpPortSpinner = new Spinner<>(1, 65535, jumpServer != null ? jumpServer.getPort() : 22);
         jumpPortSpinner.setEditable(true);
         jumpPortSpinner.setPrefWidth(80);
         
-        TextField jumpUserField = new TextField();
+        jumpUserField = new TextField();
         jumpUserField.setPromptText("Benutzername");
         if (jumpServer != null) jumpUserField.setText(jumpServer.getUsername());
         
-        PasswordField jumpPasswordField = new PasswordField();
-        jumpPasswordField.setPromptText("Passwort (optional)");
-        
-        TextField autoCommandField = new TextField();
-        autoCommandField.setPromptText("z.B. ssh user@final-host");
-        if (jumpServer != null) autoCommandField.setText(jumpServer.getAutoCommand());
+        autoCommandArea = new TextArea();
+        autoCommandArea.setPromptText("z.B. ssh user@final-host\n\nOder als Skript:\nssh user@final-host\nexpect: [Pp]assword:\nsend: ...");
+        autoCommandArea.setPrefRowCount(5);
+        autoCommandArea.setPrefColumnCount(30);
+        if (jumpServer != null) autoCommandArea.setText(jumpServer.getAutoCommand());
         
         int row = 0;
         grid.add(new Label("Jump-Server Host:"), 0, row);
@@ -708,18 +770,17 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
         grid.add(new Label("Benutzer:"), 0, row);
         grid.add(jumpUserField, 1, row++);
         
-        grid.add(new Label("Passwort:"), 0, row);
-        grid.add(jumpPasswordField, 1, row++);
-        
         grid.add(new Label("Auto-Befehl:"), 0, row);
-        grid.add(autoCommandField, 1, row++);
+        grid.add(autoCommandArea, 1, row++);
         
         enableJumpCheck.selectedProperty().addListener((obs, old, newVal) -> {
             grid.setDisable(!newVal);
         });
         
         Label infoLabel = new Label("Jump Server ermöglicht das automatische Hopping über einen Bastion-Host.\n" +
-                "Der Auto-Befehl wird nach dem Login auf dem Jump-Server ausgeführt.");
+                "Der Auto-Befehl wird nach dem Login ausgeführt, sobald der Prompt erscheint. Mehrere Zeilen\n" +
+                "laufen nacheinander; 'expect: <Regex>' wartet auf eine Ausgabe, 'send: <Text>' sendet eine Zeile,\n" +
+                "'timeout: <Sekunden>' setzt die Wartezeit (Standard 15 s).");
         infoLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: gray;");
         infoLabel.setWrapText(true);
         
@@ -763,12 +824,45 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
         maxFileSizeMBSpinner.setEditable(true);
         maxFileSizeMBSpinner.setPrefWidth(100);
         
+        // Retention of rotated files
+        maxRotatedFilesSpinner = new Spinner<>(0, 1000, logConfig != null ? logConfig.getMaxRotatedFiles() : 5);
+        maxRotatedFilesSpinner.setEditable(true);
+        maxRotatedFilesSpinner.setPrefWidth(80);
+        
+        maxRotatedTotalMBSpinner = new Spinner<>(1, 100000, logConfig != null ? logConfig.getMaxRotatedTotalMB() : 100, 10);
+        maxRotatedTotalMBSpinner.setEditable(true);
+        maxRotatedTotalMBSpinner.setPrefWidth(100);
+        
+        compressRotatedLogsCheck = new CheckBox("Komprimieren (gzip)");
+        compressRotatedLogsCheck.setSelected(logConfig == null || logConfig.isCompressRotatedLogs());
+        
+        rawCaptureCheck = new CheckBox("Zusätzlich Rohdaten mitschneiden (<Log-Datei>.raw)");
+        rawCaptureCheck.setSelected(logConfig != null && logConfig.isRawCapture());
+        
         // Log format
         logFormatCombo = new ComboBox<>();
         logFormatCombo.getItems().addAll(de.kortty.model.TerminalLogConfig.LogFormat.values());
         logFormatCombo.setValue(logConfig != null ? logConfig.getFormat() : de.kortty.model.TerminalLogConfig.LogFormat.PLAIN_TEXT);
         logFormatCombo.setPrefWidth(200);
         
+        // Flush policy
+        flushPolicyCombo = new ComboBox<>();
+        flushPolicyCombo.getItems().addAll(de.kortty.model.TerminalLogConfig.FlushPolicy.values());
+        flushPolicyCombo.setValue(logConfig != null ? logConfig.getFlushPolicy() : de.kortty.model.TerminalLogConfig.FlushPolicy.INTERVAL);
+        flushPolicyCombo.setPrefWidth(250);
+        
+        flushIntervalSpinner = new Spinner<>(10, 10000, logConfig != null ? logConfig.getFlushIntervalMillis() : 200, 50);
+        flushIntervalSpinner.setEditable(true);
+        flushIntervalSpinner.setPrefWidth(100);
+        flushIntervalSpinner.disableProperty().bind(flushPolicyCombo.valueProperty()
+                .isNotEqualTo(de.kortty.model.TerminalLogConfig.FlushPolicy.INTERVAL));
+        
+        // Overflow policy
+        overflowPolicyCombo = new ComboBox<>();
+        overflowPolicyCombo.getItems().addAll(de.kortty.model.TerminalLogConfig.OverflowPolicy.values());
+        overflowPolicyCombo.setValue(logConfig != null ? logConfig.getOverflowPolicy() : de.kortty.model.TerminalLogConfig.OverflowPolicy.SPILL);
+        overflowPolicyCombo.setPrefWidth(250);
+        
         // Layout
         int row = 0;
         grid.add(new Label("Log-Datei:"), 0, row);
@@ -781,9 +875,26 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
         sizeBox.getChildren().addAll(maxFileSizeMBSpinner, new Label("MB"));
         grid.add(sizeBox, 1, row++);
         
+        grid.add(new Label("Alte Dateien:"), 0, row);
+        HBox retentionBox = new HBox(10);
+        retentionBox.setAlignment(Pos.CENTER_LEFT);
+        retentionBox.getChildren().addAll(new Label("max."), maxRotatedFilesSpinner, new Label("Dateien,"),
+                maxRotatedTotalMBSpinner, new Label("MB"), compressRotatedLogsCheck);
+        grid.add(retentionBox, 1, row++);
+        
         grid.add(new Label("Format:"), 0, row);
         grid.add(logFormatCombo, 1, row++);
         
+        grid.add(new Label("Schreiben:"), 0, row);
+        HBox flushBox = new HBox(10);
+        flushBox.getChildren().addAll(flushPolicyCombo, flushIntervalSpinner, new Label("ms"));
+        grid.add(flushBox, 1, row++);
+        
+        grid.add(new Label("Bei Rückstau:"), 0, row);
+        grid.add(overflowPolicyCombo, 1, row++);
+        
+        grid.add(rawCaptureCheck, 1, row++);
+        
         // Enable/disable grid based on checkbox
         enableLoggingCheck.selectedProperty().addListener((obs, old, newVal) -> {
             grid.setDisable(!newVal);
@@ -793,9 +904,21 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
                 "Terminal-Logging protokolliert die komplette Terminal-Ausgabe in eine Datei.\n\n" +
                 "• Plain Text: Einfaches Textformat mit Zeitstempeln\n" +
                 "• XML: Strukturiertes XML-Format\n" +
-                "• JSON: Maschinenlesbares JSON-Format\n\n" +
-                "Wenn die maximale Dateigröße erreicht ist, wird die Datei gelöscht und neu begonnen.\n" +
-                "Alle ANSI-Escape-Sequenzen und Nicht-ASCII-Zeichen werden entfernt.");
+                "• JSON: Maschinenlesbares JSON-Format\n" +
+                "• JSON Lines: Ein JSON-Datensatz pro Zeile, bleibt nach einem Absturz lesbar; " +
+                "ein Zeitindex (.idx) erlaubt das Lesen einzelner Zeiträume\n\n" +
+                "Wenn die maximale Dateigröße erreicht ist, wird die Datei mit Zeitstempel umbenannt, " +
+                "im Hintergrund komprimiert und eine neue begonnen. Die ältesten Dateien werden gelöscht, " +
+                "sobald Anzahl oder Gesamtgröße überschritten sind. XML- und JSON-Logs beginnen mit jeder " +
+                "Sitzung eine neue Datei.\n" +
+                "ANSI-Escape-Sequenzen werden entfernt.\n\n" +
+                "Gebündeltes Schreiben fasst Zeilen zusammen und schreibt sie spätestens nach dem " +
+                "eingestellten Intervall auf die Platte. Bei einem Absturz können die Zeilen dieses " +
+                "Intervalls fehlen; beim Schließen wird immer alles geschrieben.\n" +
+                "Kommt das Schreiben nicht nach, werden Zeilen in eine Datei neben dem Log (.spill) " +
+                "ausgelagert und in der richtigen Reihenfolge nachgetragen.\n" +
+                "Der Rohdaten-Mitschnitt speichert die Bytes des Servers unverändert samt Zeitstempeln " +
+                "und kann unter Tools > Aufnahme abspielen wiedergegeben werden.");
         infoLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: gray;");
         infoLabel.setWrapText(true);
         
@@ -820,7 +943,7 @@ public class ConnectionEditDialog extends Dialog<ServerConnection> {
         fileChooser.setInitialFileName(suggestedName);
         
         fileChooser.getExtensionFilters().addAll(
-                new FileChooser.ExtensionFilter("Log Dateien", "*.log", "*.txt", "*.xml", "*.json"),
+                new FileChooser.ExtensionFilter("Log Dateien", "*.log", "*.txt", "*.xml", "*.json", "*.ndjson"),
                 new FileChooser.ExtensionFilter("Alle Dateien", "*.*")
         );
         
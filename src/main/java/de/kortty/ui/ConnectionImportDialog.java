@@ -379,16 +379,7 @@ public class ConnectionImportDialog extends Dialog<ConnectionImportDialog.Import
             java.io.File actualXmlFile = extractOrDecryptFileForReading(selectedFile);
             
             // Read XML and extract groups
-            jakarta.xml.bind.JAXBContext context = jakarta.xml.bind.JAXBContext.newInstance(
-                de.kortty.persistence.XMLConnectionRepository.ConnectionsWrapper.class,
-                ServerConnection.class,
-                de.kortty.model.SSHTunnel.class,
-                de.kortty.model.JumpServer.class,
-                de.kortty.model.AuthMethod.class,
-                de.kortty.model.TunnelType.class,
-                de.kortty.model.TerminalLogConfig.class,
-                de.kortty.model.TerminalLogConfig.LogFormat.class
-            );
+            jakarta.xml.bind.JAXBContext context = de.kortty.persistence.JAXBContextRegistry.connections();
             
             jakarta.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
             de.kortty.persistence.XMLConnectionRepository.ConnectionsWrapper wrapper = 
@@ -423,16 +423,7 @@ public class ConnectionManagerDialog extends Dialog<ServerConnection> {
             new de.kortty.persistence.XMLConnectionRepository(result.exportFile.getParentFile().toPath());
         
         // Write directly to the selected file
-        jakarta.xml.bind.JAXBContext context = jakarta.xml.bind.JAXBContext.newInstance(
-            de.kortty.persistence.XMLConnectionRepository.ConnectionsWrapper.class,
-            ServerConnection.class,
-            de.kortty.model.SSHTunnel.class,
-            de.kortty.model.JumpServer.class,
-            de.kortty.model.AuthMethod.class,
-            de.kortty.model.TunnelType.class,
-            de.kortty.model.TerminalLogConfig.class,
-            de.kortty.model.TerminalLogConfig.LogFormat.class
-        );
+        jakarta.xml.bind.JAXBContext context = de.kortty.persistence.JAXBContextRegistry.connections();
         
         de.kortty.persistence.XMLConnectionRepository.ConnectionsWrapper wrapper = 
             new de.kortty.persistence.XMLConnectionRepository.ConnectionsWrapper();
@@ -672,16 +663,7 @@ public class ConnectionManagerDialog extends Dialog<ServerConnection> {
             }
             
             // Read XML file
-            jakarta.xml.bind.JAXBContext context = jakarta.xml.bind.JAXBContext.newInstance(
-                de.kortty.persistence.XMLConnectionRepository.ConnectionsWrapper.class,
-                ServerConnection.class,
-                de.kortty.model.SSHTunnel.class,
-                de.kortty.model.JumpServer.class,
-                de.kortty.model.AuthMethod.class,
-                de.kortty.model.TunnelType.class,
-                de.kortty.model.TerminalLogConfig.class,
-                de.kortty.model.TerminalLogConfig.LogFormat.class
-            );
+            jakarta.xml.bind.JAXBContext context = de.kortty.persistence.JAXBContextRegistry.connections();
             
             jakarta.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
             de.kortty.persistence.XMLConnectionRepository.ConnectionsWrapper wrapper = 
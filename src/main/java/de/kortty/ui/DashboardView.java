@@ -1,5 +1,10 @@
 package de.kortty.ui;
 
+import de.kortty.core.EmulationScheduler;
+import de.kortty.core.KeystrokeLatencyTracker;
+import de.kortty.core.LatencyHistogram;
+import de.kortty.core.PredictiveEcho;
+import de.kortty.core.TriggerEngine;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -65,10 +70,12 @@ public class DashboardView extends VBox {
                         setGraphic(null);
                         setStyle("-fx-background-color: transparent;");
                         setContextMenu(null);
+                        setTooltip(null);
                     } else {
                         String statusIcon = item.isConnected() ? "●" : "○";
                         String statusText = item.isConnected() ? "Aktiv" : "Beendet";
-                        setText(statusIcon + " " + item.getDisplayName() + " (" + statusText + ")");
+                        setText(statusIcon + " " + item.getDisplayName() + " (" + statusText + ")"
+                                + latencyText(item.getTerminalTab()) + cpuText(item.getTerminalTab()));
                         
                         // Color: green for active, red for disconnected
                         String color = item.isConnected() ? "#00ff00" : "#ff6666";
@@ -76,6 +83,7 @@ public class DashboardView extends VBox {
                         
                         // Context menu for terminal tabs only (not for window nodes)
                         if (item.getTerminalTab() != null) {
+                            setTooltip(new Tooltip(latencyDetails(item.getTerminalTab())));
                             ContextMenu contextMenu = new ContextMenu();
                             
                             if (item.isConnected()) {
@@ -109,6 +117,7 @@ public class DashboardView extends VBox {
                             setContextMenu(contextMenu);
                         } else {
                             setContextMenu(null);
+                            setTooltip(null);
                         }
                     }
                 }
@@ -244,6 +253,109 @@ public class DashboardView extends VBox {
         return "Unbekannt";
     }
     
+    /**
+     * Short latency suffix for a tab entry, e.g. " - 42,0 ms".
+     */
+    private String latencyText(TerminalTab terminalTab) {
+        if (terminalTab == null) {
+            return "";
+        }
+        LatencyHistogram echo = terminalTab.getTerminalView().getLatencyTracker().getEchoLatency();
+        if (echo.getCount() == 0) {
+            return "";
+        }
+        return " - " + KeystrokeLatencyTracker.millis(echo.getPercentile(50)) + " ms";
+    }
+    
+    /**
+     * Short CPU suffix for a tab entry whose emulation is busy, e.g. " - CPU 35 %".
+     */
+    private String cpuText(TerminalTab terminalTab) {
+        if (terminalTab == null) {
+            return "";
+        }
+        double cpu = terminalTab.getTerminalView().getEmulationSlot().getCpuPercent();
+        return cpu >= 1 ? String.format(" - CPU %.0f %%", cpu) : "";
+    }
+    
+    /**
+     * Tooltip lines with priority, CPU usage and throttling of a tab's emulation.
+     */
+    private String emulationDetails(TerminalTab terminalTab) {
+        EmulationScheduler.Slot slot = terminalTab.getTerminalView().getEmulationSlot();
+        return String.format("%nEmulation (%s): CPU %.1f %%, gesamt %d ms, %d Zeitscheiben gedrosselt",
+                slot.getPriority().getDisplayName(), slot.getCpuPercent(), slot.getCpuMillis(),
+                slot.getThrottledSlices());
+    }
+    
+    /**
+     * Tooltip with the latency percentiles of a tab.
+     */
+    private String latencyDetails(TerminalTab terminalTab) {
+        KeystrokeLatencyTracker tracker = terminalTab.getTerminalView().getLatencyTracker();
+        LatencyHistogram echo = tracker.getEchoLatency();
+        if (echo.getCount() == 0) {
+            return "Tastenlatenz: noch keine Messwerte"
+                    + emulationDetails(terminalTab)
+                    + triggerDetails(terminalTab);
+        }
+        LatencyHistogram render = tracker.getRenderDelay();
+        return "Tastenlatenz (Echo vom Server, " + echo.getCount() + " Tasten)"
+                + percentileLines(echo, 50, 95, 99)
+                + "\nDarstellungsverzögerung"
+                + percentileLines(render, 50, 95)
+                + emulationDetails(terminalTab)
+                + predictionDetails(terminalTab)
+                + triggerDetails(terminalTab);
+    }
+    
+    /**
+     * One indented tooltip line per percentile, e.g. "  p95: 12,5 ms", each starting with a line break.
+     */
+    private static String percentileLines(LatencyHistogram histogram, int... percentiles) {
+        StringBuilder lines = new StringBuilder();
+        for (int percentile : percentiles) {
+            lines.append("\n  p").append(percentile).append(": ")
+                    .append(KeystrokeLatencyTracker.millis(histogram.getPercentile(percentile))).append(" ms");
+        }
+        return lines.toString();
+    }
+    
+    /**
+     * Tooltip lines about the predictive local echo of a tab, if it is enabled.
+     */
+    private String predictionDetails(TerminalTab terminalTab) {
+        PredictiveEcho prediction = terminalTab.getTerminalView().getPredictiveEcho();
+        if (!prediction.isEnabled()) {
+            return "";
+        }
+        LatencyHistogram hidden = terminalTab.getTerminalView().getLatencyTracker().getHiddenLatency();
+        return "\nLokales Echo: " + prediction.getConfirmedCount() + " von " + prediction.getPredictedCount()
+                + " Zeichen bestätigt, " + prediction.getRolledBackCount() + " zurückgenommen\n"
+                + "  verborgene Latenz p50: " + KeystrokeLatencyTracker.millis(hidden.getPercentile(50)) + " ms, "
+                + "p95: " + KeystrokeLatencyTracker.millis(hidden.getPercentile(95)) + " ms";
+    }
+    
+    /**
+     * Tooltip lines with matches and time spent per output trigger of a tab.
+     */
+    private String triggerDetails(TerminalTab terminalTab) {
+        TriggerEngine engine = terminalTab.getTerminalView().getTriggerEngine();
+        if (engine == null) {
+            return "";
+        }
+        StringBuilder details = new StringBuilder("\nTrigger (" + engine.getLineCount() + " Zeilen, Vorfilter "
+                + KeystrokeLatencyTracker.millis(engine.getPrefilterNanos() / 1000) + " ms)");
+        for (TriggerEngine.TriggerStats stats : engine.getStats()) {
+            details.append("\n  ").append(stats.name()).append(": ").append(stats.matches()).append(" Treffer, ")
+                    .append(KeystrokeLatencyTracker.millis(stats.nanos() / 1000)).append(" ms");
+        }
+        if (engine.getDroppedChunks() > 0) {
+            details.append("\n  ").append(engine.getDroppedChunks()).append(" Ausgabeblöcke übersprungen (überlastet)");
+        }
+        return details.toString();
+    }
+    
     /**
      * Dashboard tree item.
      */
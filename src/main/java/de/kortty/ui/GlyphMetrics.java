@@ -0,0 +1,37 @@
+package de.kortty.ui;
+
+import javafx.geometry.Bounds;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cell metrics of monospaced terminal fonts, measured once per font family and size.
+ */
+final class GlyphMetrics {
+    
+    private static final Map<String, CellMetrics> CACHE = new ConcurrentHashMap<>();
+    
+    private GlyphMetrics() {
+    }
+    
+    /**
+     * Size of one terminal cell in pixels.
+     */
+    record CellMetrics(double width, double height, double ascent) {
+    }
+    
+    static CellMetrics of(Font font) {
+        return CACHE.computeIfAbsent(font.getFamily() + "/" + font.getStyle() + "/" + font.getSize(),
+                key -> measure(font));
+    }
+    
+    private static CellMetrics measure(Font font) {
+        Text probe = new Text("W");
+        probe.setFont(font);
+        Bounds bounds = probe.getLayoutBounds();
+        return new CellMetrics(bounds.getWidth(), bounds.getHeight(), probe.getBaselineOffset());
+    }
+}
@@ -0,0 +1,196 @@
+package de.kortty.ui;
+
+import de.kortty.core.SshTtyConnector;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcasts keystrokes and pastes typed into any tab of a group to all other tabs of the group.
+ *
+ * Input is only enqueued on the typing thread. Every target has its own queue that is drained
+ * by a sender task, so a slow or stalled server only holds up its own queue and never the
+ * source or the other members. Targets whose queue has not made progress for
+ * {@link #LAG_THRESHOLD_MS} are reported as lagging.
+ */
+class GroupBroadcaster {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GroupBroadcaster.class);
+    private static final long LAG_THRESHOLD_MS = 500;
+    
+    private static final ExecutorService SENDERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "Broadcast-Sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ScheduledExecutorService MONITOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Broadcast-Monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final String group;
+    private final Map<TerminalTab, Target> targets = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> lagCheck;
+    
+    GroupBroadcaster(String group) {
+        this.group = group;
+        this.lagCheck = MONITOR.scheduleWithFixedDelay(this::checkLag, LAG_THRESHOLD_MS, LAG_THRESHOLD_MS,
+                TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Updates the members of the group. Must be called on the FX thread.
+     */
+    void setMembers(Collection<TerminalTab> members) {
+        for (TerminalTab tab : new ArrayList<>(targets.keySet())) {
+            if (!members.contains(tab)) {
+                removeTarget(tab);
+            }
+        }
+        for (TerminalTab tab : members) {
+            targets.computeIfAbsent(tab, Target::new);
+        }
+    }
+    
+    /**
+     * Removes a member whose tab was closed. Must be called on the FX thread.
+     */
+    void removeMember(TerminalTab tab) {
+        removeTarget(tab);
+    }
+    
+    /**
+     * Stops broadcasting and detaches from all members. Must be called on the FX thread.
+     */
+    void stop() {
+        lagCheck.cancel(false);
+        for (TerminalTab tab : new ArrayList<>(targets.keySet())) {
+            removeTarget(tab);
+        }
+        logger.info("Broadcast stopped for group {}", group);
+    }
+    
+    private void removeTarget(TerminalTab tab) {
+        Target target = targets.remove(tab);
+        if (target != null) {
+            tab.getTerminalView().removeTypedInputListener(target.listener);
+            tab.setBroadcastState(TerminalTab.BroadcastState.OFF, null);
+        }
+    }
+    
+    /**
+     * Copies input typed into one member to the queues of all other members.
+     */
+    private void fanOut(TerminalTab source, byte[] bytes) {
+        byte[] copy = bytes.clone(); // The caller may reuse its buffer
+        for (Target target : targets.values()) {
+            if (target.tab != source) {
+                target.enqueue(copy);
+            }
+        }
+    }
+    
+    private void checkLag() {
+        long now = System.currentTimeMillis();
+        for (Target target : targets.values()) {
+            boolean lagging = target.error != null
+                    || (target.pendingBytes.get() > 0 && now - target.lastProgressMillis > LAG_THRESHOLD_MS);
+            if (lagging != target.lagging) {
+                target.lagging = lagging;
+                target.publishState();
+            }
+        }
+    }
+    
+    /**
+     * One member of the group with its own outgoing queue.
+     */
+    private final class Target {
+        
+        private final TerminalTab tab;
+        private final SshTtyConnector.InputListener listener;
+        private final ConcurrentLinkedQueue<byte[]> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicLong pendingBytes = new AtomicLong();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile long lastProgressMillis = System.currentTimeMillis();
+        private volatile boolean lagging = false;
+        private volatile String error;
+        
+        Target(TerminalTab tab) {
+            this.tab = tab;
+            this.listener = bytes -> fanOut(tab, bytes);
+            tab.getTerminalView().addTypedInputListener(listener);
+            publishState();
+        }
+        
+        void enqueue(byte[] bytes) {
+            if (pendingBytes.getAndAdd(bytes.length) == 0) {
+                lastProgressMillis = System.currentTimeMillis();
+            }
+            queue.add(bytes);
+            if (draining.compareAndSet(false, true)) {
+                SENDERS.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                byte[] bytes;
+                while ((bytes = queue.poll()) != null) {
+                    try {
+                        tab.getTerminalView().writeInput(bytes);
+                        error = null;
+                    } catch (Exception e) {
+                        error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                        logger.warn("Broadcast to {} failed: {}", tab.getConnection().getDisplayName(), error);
+                    }
+                    pendingBytes.addAndGet(-bytes.length);
+                    lastProgressMillis = System.currentTimeMillis();
+                }
+            } finally {
+                draining.set(false);
+                // Input may have arrived between the last poll and releasing the flag
+                if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                    SENDERS.execute(this::drain);
+                }
+            }
+        }
+        
+        String describe() {
+            if (error != null) {
+                return "Fehler: " + error;
+            }
+            long pending = pendingBytes.get();
+            if (pending > 0) {
+                return pending + " Bytes ausstehend" + (lagging ? " (verzögert)" : "");
+            }
+            return "zugestellt";
+        }
+        
+        void publishState() {
+            TerminalTab.BroadcastState state = lagging
+                    ? TerminalTab.BroadcastState.LAGGING
+                    : TerminalTab.BroadcastState.ACTIVE;
+            String detail = "Broadcast an Gruppe " + group + ": " + describe();
+            Platform.runLater(() -> {
+                if (targets.get(tab) == this) {
+                    tab.setBroadcastState(state, detail);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package de.kortty.ui;
+
+import de.kortty.model.ServerConnection;
+import de.kortty.model.SessionState;
+import de.kortty.persistence.HistoryStorage;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Tab;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read-only tab showing the saved history of a project session without connecting.
+ *
+ * The history file is not touched until the tab is viewed for the first time; it is then
+ * streamed on a background thread, keeping only the lines that fit into the scrollback.
+ * The list view renders only the visible lines. "Verbinden" turns the tab into a live session.
+ */
+public class HistoryTab extends Tab {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HistoryTab.class);
+    
+    private final ServerConnection connection;
+    private final SessionState sessionState;
+    private final HistoryStorage historyStorage;
+    private final ListView<String> lineView;
+    private final Label infoLabel;
+    private final Button connectButton;
+    private boolean loadStarted = false;
+    
+    public HistoryTab(ServerConnection connection, SessionState sessionState, HistoryStorage historyStorage,
+                      Consumer<HistoryTab> connectHandler) {
+        this.connection = connection;
+        this.sessionState = sessionState;
+        this.historyStorage = historyStorage;
+        
+        setText(connection.getDisplayName() + " (Verlauf)");
+        setClosable(true);
+        
+        lineView = new ListView<>();
+        lineView.setStyle("-fx-font-family: '" + connection.getSettings().getFontFamily() + "'; "
+                + "-fx-font-size: " + connection.getSettings().getFontSize() + "px;");
+        
+        infoLabel = new Label("Verlauf wird beim Anzeigen geladen");
+        
+        connectButton = new Button("Verbinden");
+        connectButton.setDisable(true);
+        connectButton.setOnAction(e -> connectHandler.accept(this));
+        
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox toolbar = new HBox(10, infoLabel, spacer, connectButton);
+        toolbar.setAlignment(Pos.CENTER_LEFT);
+        toolbar.setPadding(new Insets(5, 10, 5, 10));
+        
+        BorderPane content = new BorderPane();
+        content.setTop(toolbar);
+        content.setCenter(lineView);
+        setContent(content);
+        
+        // Load lazily: only once the user looks at the tab
+        setOnSelectionChanged(e -> {
+            if (isSelected()) {
+                loadHistory();
+            }
+        });
+        setOnClosed(e -> lineView.getItems().clear());
+    }
+    
+    /**
+     * Streams the history file into the list on a background thread.
+     */
+    private void loadHistory() {
+        if (loadStarted) {
+            return;
+        }
+        loadStarted = true;
+        
+        String historyFile = sessionState.getHistoryFilePath();
+        if (historyFile == null) {
+            infoLabel.setText("Kein Verlauf gespeichert");
+            connectButton.setDisable(false);
+            return;
+        }
+        
+        int maxLines = connection.getSettings().getScrollbackLines();
+        Task<List<String>> loadTask = new Task<>() {
+            @Override
+            protected List<String> call() throws Exception {
+                Deque<String> tail = new ArrayDeque<>();
+                try (BufferedReader reader = historyStorage.openHistoryReader(historyFile)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        tail.addLast(line);
+                        if (tail.size() > maxLines) {
+                            tail.removeFirst();
+                        }
+                    }
+                }
+                return new ArrayList<>(tail);
+            }
+        };
+        
+        loadTask.setOnSucceeded(e -> {
+            List<String> lines = loadTask.getValue();
+            lineView.getItems().setAll(lines);
+            lineView.scrollTo(Math.max(0, lines.size() - 1));
+            infoLabel.setText("Gespeicherter Verlauf (" + lines.size() + " Zeilen) - nicht verbunden");
+            connectButton.setDisable(false);
+        });
+        loadTask.setOnFailed(e -> {
+            logger.warn("Failed to load history {}", historyFile, loadTask.getException());
+            infoLabel.setText("Verlauf konnte nicht geladen werden: " + loadTask.getException().getMessage());
+            connectButton.setDisable(false);
+        });
+        
+        infoLabel.setText("Lade Verlauf...");
+        Thread thread = new Thread(loadTask, "History-Load-" + connection.getDisplayName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Gets the loaded history as text, to be shown above the live session.
+     */
+    public String getHistoryText() {
+        if (lineView.getItems().isEmpty()) {
+            return null;
+        }
+        return String.join("\n", lineView.getItems());
+    }
+    
+    public ServerConnection getConnection() {
+        return connection;
+    }
+    
+    public SessionState getSessionState() {
+        return sessionState;
+    }
+}
@@ -5,6 +5,8 @@ import com.googlecode.lanterna.terminal.swing.ScrollingSwingTerminal;
 import com.googlecode.lanterna.terminal.swing.SwingTerminalFontConfiguration;
 import com.googlecode.lanterna.terminal.swing.TerminalEmulatorColorConfiguration;
 import com.googlecode.lanterna.terminal.swing.TerminalEmulatorDeviceConfiguration;
+import com.techsenger.jeditermfx.core.util.TermSize;
+import de.kortty.core.OutputFlowControl;
 import de.kortty.core.SshTtyConnector;
 import de.kortty.model.ConnectionSettings;
 import de.kortty.model.ServerConnection;
@@ -43,6 +45,10 @@ public class LanternaTerminalView extends BorderPane {
     
     private final AtomicBoolean running = new AtomicBoolean(false);
     private Thread readerThread;
+    private OutputFlowControl flowControl;
+    
+    // Font configurations keep their measured glyph metrics, so each size is measured once
+    private final java.util.Map<Integer, SwingTerminalFontConfiguration> fontConfigs = new java.util.HashMap<>();
     
     public LanternaTerminalView(ServerConnection connection, String password) {
         this.connection = connection;
@@ -77,8 +83,8 @@ public class LanternaTerminalView extends BorderPane {
     }
     
     private ScrollingSwingTerminal createTerminalPanel() {
-        Font terminalFont = new Font(settings.getFontFamily(), Font.PLAIN, currentFontSize);
-        SwingTerminalFontConfiguration fontConfig = SwingTerminalFontConfiguration.newInstance(terminalFont);
+        SwingTerminalFontConfiguration fontConfig = fontConfigs.computeIfAbsent(currentFontSize,
+                size -> SwingTerminalFontConfiguration.newInstance(new Font(settings.getFontFamily(), Font.PLAIN, size)));
         TerminalEmulatorColorConfiguration colorConfig = TerminalEmulatorColorConfiguration.getDefault();
         TerminalEmulatorDeviceConfiguration deviceConfig = TerminalEmulatorDeviceConfiguration.getDefault();
         
@@ -130,6 +136,9 @@ public class LanternaTerminalView extends BorderPane {
     public void connect() {
         try {
             ttyConnector = new SshTtyConnector(connection, password);
+            // Output is written on the Swing thread; reading pauses while its queue is too long
+            flowControl = new OutputFlowControl(connection.getDisplayName(), SwingUtilities::invokeLater);
+            ttyConnector.setFlowControl(flowControl);
             if (ttyConnector.connect()) {
                 running.set(true);
                 startReaderThread();
@@ -181,6 +190,7 @@ public class LanternaTerminalView extends BorderPane {
         running.set(false);
         if (readerThread != null) readerThread.interrupt();
         if (ttyConnector != null) ttyConnector.close();
+        if (flowControl != null) flowControl.close();
         if (terminalPanel != null) {
             SwingUtilities.invokeLater(() -> terminalPanel.close());
         }
@@ -211,6 +221,11 @@ public class LanternaTerminalView extends BorderPane {
         }
     }
     
+    /**
+     * Lanterna fixes the font of a panel when it is created, so zoom needs a new panel. The
+     * previous screen content is not carried over; the new grid is sent to the PTY, which makes
+     * full-screen programs redraw.
+     */
     private void applyZoom() {
         SwingUtilities.invokeLater(() -> {
             if (terminalPanel != null) {
@@ -223,10 +238,25 @@ public class LanternaTerminalView extends BorderPane {
                 });
                 terminalPanel = newPanel;
                 terminalPanel.requestFocusInWindow();
+                
+                // The grid is known after the panel has been laid out
+                SwingUtilities.invokeLater(this::resizePty);
             }
         });
     }
     
+    private void resizePty() {
+        if (ttyConnector == null || !ttyConnector.isConnected() || terminalPanel == null) {
+            return;
+        }
+        try {
+            TerminalSize size = terminalPanel.getTerminalSize();
+            ttyConnector.resize(new TermSize(size.getColumns(), size.getRows()));
+        } catch (IOException e) {
+            logger.warn("Failed to read terminal size: {}", e.getMessage());
+        }
+    }
+    
     public String getTerminalHistory() { return ""; }
     public ServerConnection getConnection() { return connection; }
     public SshTtyConnector getTtyConnector() { return ttyConnector; }
@@ -0,0 +1,260 @@
+package de.kortty.ui;
+
+import de.kortty.core.LogSearch;
+import de.kortty.model.ServerConnection;
+import de.kortty.model.TerminalLogConfig;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Search over the terminal logs of one or all connections, including rotated
+ * and compressed generations. Hits appear in the table while the search runs.
+ */
+public class LogSearchDialog extends Dialog<Void> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogSearchDialog.class);
+    private static final int MAX_HITS = 10000;
+    private static final String ALL_CONNECTIONS = "Alle Verbindungen";
+    
+    private final Map<String, TerminalLogConfig> logConfigs = new LinkedHashMap<>();
+    private final SearchQueryFields queryFields;
+    private final ComboBox<String> scopeCombo;
+    private final TableView<LogSearch.Hit> resultTable;
+    private final Label statusLabel;
+    
+    // Hits found by the searching threads, moved into the table on the FX thread
+    private final ConcurrentLinkedQueue<LogSearch.Hit> pendingHits = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private LogSearch currentSearch;
+    
+    public LogSearchDialog(Stage owner, List<ServerConnection> connections) {
+        setTitle("In Logs suchen");
+        setHeaderText("Durchsucht die Terminal-Logs samt rotierten und komprimierten Dateien");
+        initOwner(owner);
+        initModality(Modality.NONE);
+        setResizable(true);
+        
+        for (ServerConnection connection : connections) {
+            TerminalLogConfig logConfig = connection.getLogConfig();
+            if (logConfig == null || logConfig.getLogFilePath() == null || logConfig.getLogFilePath().isBlank()) {
+                continue;
+            }
+            String name = connection.getDisplayName();
+            for (int i = 2; logConfigs.containsKey(name); i++) {
+                name = connection.getDisplayName() + " #" + i;
+            }
+            logConfigs.put(name, logConfig);
+        }
+        
+        queryFields = new SearchQueryFields(this::startSearch);
+        
+        scopeCombo = new ComboBox<>();
+        scopeCombo.getItems().add(ALL_CONNECTIONS);
+        scopeCombo.getItems().addAll(logConfigs.keySet());
+        scopeCombo.setValue(ALL_CONNECTIONS);
+        scopeCombo.setMaxWidth(Double.MAX_VALUE);
+        
+        GridPane grid = queryFields.getGrid();
+        grid.add(new Label("Verbindung:"), 0, 2);
+        grid.add(scopeCombo, 1, 2);
+        
+        resultTable = new TableView<>();
+        resultTable.setPlaceholder(new Label(logConfigs.isEmpty()
+                ? "Keine Verbindung mit Terminal-Log konfiguriert" : "Keine Treffer"));
+        
+        TableColumn<LogSearch.Hit, String> timeColumn = new TableColumn<>("Zeit");
+        timeColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().time()));
+        timeColumn.setPrefWidth(160);
+        
+        TableColumn<LogSearch.Hit, String> connectionColumn = new TableColumn<>("Verbindung");
+        connectionColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().connection()));
+        connectionColumn.setPrefWidth(120);
+        
+        TableColumn<LogSearch.Hit, String> fileColumn = new TableColumn<>("Datei");
+        fileColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().file().getFileName().toString()));
+        fileColumn.setPrefWidth(160);
+        
+        TableColumn<LogSearch.Hit, Long> lineNumberColumn = new TableColumn<>("Zeile");
+        lineNumberColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().lineNumber()));
+        lineNumberColumn.setPrefWidth(70);
+        
+        TableColumn<LogSearch.Hit, String> textColumn = new TableColumn<>("Text");
+        textColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().line().strip()));
+        textColumn.setPrefWidth(450);
+        
+        resultTable.getColumns().addAll(List.of(timeColumn, connectionColumn, fileColumn, lineNumberColumn, textColumn));
+        resultTable.setRowFactory(tv -> {
+            TableRow<LogSearch.Hit> row = new TableRow<>();
+            row.setOnMouseClicked(e -> {
+                if (e.getClickCount() == 2 && row.getItem() != null) {
+                    ClipboardContent content = new ClipboardContent();
+                    content.putString(row.getItem().line());
+                    Clipboard.getSystemClipboard().setContent(content);
+                    statusLabel.setText("Zeile in die Zwischenablage kopiert: " + row.getItem().file());
+                }
+            });
+            return row;
+        });
+        VBox.setVgrow(resultTable, Priority.ALWAYS);
+        
+        statusLabel = new Label("Bereit");
+        statusLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: gray;");
+        
+        HBox statusBox = new HBox(statusLabel);
+        statusBox.setAlignment(Pos.CENTER_LEFT);
+        
+        VBox content = new VBox(10, grid, resultTable, statusBox);
+        content.setPadding(new Insets(10));
+        
+        getDialogPane().setContent(content);
+        getDialogPane().setPrefSize(950, 550);
+        getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        
+        setOnShown(e -> queryFields.requestFocus());
+        setOnHidden(e -> cancelSearch());
+    }
+    
+    /**
+     * Searches the selected logs on background threads; hits are added to the table as they come.
+     */
+    private void startSearch() {
+        SearchQueryFields.Query query = queryFields.read(statusLabel);
+        if (query == null) {
+            return;
+        }
+        
+        cancelSearch();
+        pendingHits.clear();
+        resultTable.getItems().clear();
+        
+        Map<String, TerminalLogConfig> selected = new LinkedHashMap<>();
+        String scope = scopeCombo.getValue();
+        if (scope == null || ALL_CONNECTIONS.equals(scope)) {
+            selected.putAll(logConfigs);
+        } else {
+            selected.put(scope, logConfigs.get(scope));
+        }
+        
+        LogSearch search = new LogSearch(query.literal(), query.refinement(), MAX_HITS);
+        AtomicInteger filesDone = new AtomicInteger();
+        
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() {
+                List<LogSearch.Source> sources = new ArrayList<>();
+                for (Map.Entry<String, TerminalLogConfig> entry : selected.entrySet()) {
+                    Path logFile = Paths.get(entry.getValue().getLogFilePath());
+                    TerminalLogConfig.LogFormat format = entry.getValue().getFormat();
+                    try {
+                        for (Path file : LogSearch.listLogFiles(logFile)) {
+                            sources.add(new LogSearch.Source(entry.getKey(), file, format));
+                        }
+                    } catch (IOException e) {
+                        logger.warn("Cannot list logs of {}: {}", entry.getKey(), e.getMessage());
+                    }
+                }
+                
+                int fileCount = sources.size();
+                search.run(sources, new LogSearch.Listener() {
+                    @Override
+                    public void onHit(LogSearch.Hit hit) {
+                        if (!search.isCancelled()) {
+                            pendingHits.add(hit);
+                            scheduleDrain();
+                        }
+                    }
+                    
+                    @Override
+                    public void onFileDone(LogSearch.Source source, long bytes) {
+                        updateMessage(filesDone.incrementAndGet() + " von " + fileCount + " Dateien, "
+                                + search.getHitCount() + " Treffer...");
+                    }
+                });
+                return fileCount;
+            }
+        };
+        
+        long startNanos = System.nanoTime();
+        task.messageProperty().addListener((obs, old, message) -> {
+            if (currentSearch == search && message != null && !message.isEmpty()) {
+                statusLabel.setText(message);
+            }
+        });
+        task.setOnSucceeded(e -> {
+            if (currentSearch != search) {
+                return; // replaced by a newer search
+            }
+            drainHits();
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            int hits = resultTable.getItems().size();
+            String limit = search.getHitCount() > MAX_HITS ? " (Limit erreicht)" : "";
+            statusLabel.setText(hits + " Treffer" + limit + " in " + task.getValue() + " Dateien, "
+                    + search.getBytesSearched() / (1024 * 1024) + " MB (" + millis + " ms)");
+        });
+        task.setOnFailed(e -> {
+            logger.error("Log search failed", task.getException());
+            statusLabel.setText("Suche fehlgeschlagen: " + task.getException().getMessage());
+        });
+        
+        currentSearch = search;
+        statusLabel.setText("Suche läuft...");
+        
+        Thread thread = new Thread(task, "Log-Search");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void cancelSearch() {
+        if (currentSearch != null) {
+            currentSearch.cancel();
+            currentSearch = null;
+        }
+    }
+    
+    /**
+     * Moves pending hits into the table with at most one queued FX runnable at a time.
+     */
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drainHits);
+        }
+    }
+    
+    private void drainHits() {
+        drainScheduled.set(false);
+        List<LogSearch.Hit> batch = new ArrayList<>();
+        LogSearch.Hit hit;
+        while ((hit = pendingHits.poll()) != null) {
+            batch.add(hit);
+        }
+        if (!batch.isEmpty() && currentSearch != null) {
+            resultTable.getItems().addAll(batch);
+        }
+    }
+}
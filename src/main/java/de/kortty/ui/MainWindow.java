@@ -1,7 +1,9 @@
 package de.kortty.ui;
 
 import de.kortty.KorTTYApplication;
+import de.kortty.core.EmulationScheduler;
 import de.kortty.core.ProjectManager;
+import de.kortty.core.ScrollbackExporter;
 import de.kortty.core.SSHSession;
 import de.kortty.core.SessionManager;
 import de.kortty.model.*;
@@ -28,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.zip.ZipOutputStream;
 import java.util.zip.ZipEntry;
@@ -60,6 +63,11 @@ public class MainWindow {
     private static final List<MainWindow> openWindows = new ArrayList<>();
     
     private volatile boolean quickConnectDialogOpen = false;
+    private ScrollbackSearchDialog scrollbackSearchDialog;
+    private LogSearchDialog logSearchDialog;
+    private final java.util.Map<String, GroupBroadcaster> broadcasters = new java.util.HashMap<>();
+    private final javafx.beans.value.ChangeListener<Boolean> mirrorListener =
+            (obs, old, mirrored) -> updateEmulationPriorities();
     
     public MainWindow(Stage stage) {
         this.stage = stage;
@@ -80,6 +88,15 @@ public class MainWindow {
         setupMenuBar();
         setupKeyBindings();
         
+        if (!app.isConfigurationLoaded()) {
+            updateStatus("Konfiguration wird geladen...");
+            app.configurationLoadedProperty().addListener((obs, wasLoaded, loaded) -> {
+                if (loaded) {
+                    updateStatus("Bereit");
+                }
+            });
+        }
+        
         openWindows.add(this);
     }
     
@@ -131,6 +148,30 @@ public class MainWindow {
             }
         });
         
+        // The selected tab of the focused window gets emulation priority
+        tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> updateEmulationPriorities());
+        tabPane.getTabs().addListener((javafx.collections.ListChangeListener<Tab>) change -> {
+            // Opening or closing a mirror changes the priority of its tab
+            while (change.next()) {
+                for (Tab tab : change.getRemoved()) {
+                    if (tab instanceof TerminalTab terminalTab) {
+                        terminalTab.mirroredProperty().removeListener(mirrorListener);
+                        // A closed tab must not receive broadcast input any more
+                        for (GroupBroadcaster broadcaster : broadcasters.values()) {
+                            broadcaster.removeMember(terminalTab);
+                        }
+                    }
+                }
+                for (Tab tab : change.getAddedSubList()) {
+                    if (tab instanceof TerminalTab terminalTab) {
+                        terminalTab.mirroredProperty().addListener(mirrorListener);
+                    }
+                }
+            }
+            updateEmulationPriorities();
+        });
+        stage.focusedProperty().addListener((obs, old, focused) -> updateEmulationPriorities());
+        
         // Handle double-click on tab for retry
         tabPane.addEventFilter(javafx.scene.input.MouseEvent.MOUSE_CLICKED, event -> {
             if (event.getClickCount() == 2) {
@@ -348,6 +389,8 @@ public class MainWindow {
         quit.setAccelerator(new KeyCodeCombination(KeyCode.Q, KeyCombination.SHORTCUT_DOWN));
         quit.setOnAction(e -> Platform.exit());
         
+        requiresConfiguration(newTab, openProject);
+        
         fileMenu.getItems().addAll(newWindow, newTab, new SeparatorMenuItem(),
                 openProject, saveProject, new SeparatorMenuItem(),
                 closeTab, new SeparatorMenuItem(), quit);
@@ -363,6 +406,10 @@ public class MainWindow {
         paste.setAccelerator(new KeyCodeCombination(KeyCode.V, KeyCombination.SHORTCUT_DOWN));
         paste.setOnAction(e -> pasteToTerminal());
         
+        MenuItem searchAllTabs = new MenuItem("In allen Tabs suchen...");
+        searchAllTabs.setAccelerator(new KeyCodeCombination(KeyCode.F, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN));
+        searchAllTabs.setOnAction(e -> showScrollbackSearch());
+        
         MenuItem settings = new MenuItem("Einstellungen...");
         settings.setAccelerator(new KeyCodeCombination(KeyCode.COMMA, KeyCombination.SHORTCUT_DOWN));
         settings.setOnAction(e -> showSettings());
@@ -371,7 +418,10 @@ public class MainWindow {
         createBackup.setAccelerator(new KeyCodeCombination(KeyCode.B, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN));
         createBackup.setOnAction(e -> createBackup());
         
-        editMenu.getItems().addAll(copy, paste, new SeparatorMenuItem(), settings, createBackup);
+        requiresConfiguration(settings, createBackup);
+        
+        editMenu.getItems().addAll(copy, paste, new SeparatorMenuItem(), searchAllTabs,
+                new SeparatorMenuItem(), settings, createBackup);
         
         // Verbindungen Menu
         Menu connectionsMenu = new Menu("Verbindungen");
@@ -388,6 +438,8 @@ public class MainWindow {
         MenuItem exportConnections = new MenuItem("Exportieren...");
         exportConnections.setOnAction(e -> exportConnections());
         
+        requiresConfiguration(quickConnect, manageConnections, importConnections, exportConnections);
+        
         connectionsMenu.getItems().addAll(quickConnect, manageConnections,
                 new SeparatorMenuItem(), importConnections, exportConnections);
         
@@ -403,6 +455,8 @@ public class MainWindow {
         MenuItem manageSSHKeys = new MenuItem("SSH-Keys verwalten...");
         manageSSHKeys.setOnAction(e -> showSSHKeyManagement());
         
+        requiresConfiguration(manageCredentials, manageGPGKeys, manageSSHKeys);
+        
         managementMenu.getItems().addAll(manageCredentials, manageGPGKeys, manageSSHKeys);
         
         // Tools Menu
@@ -411,7 +465,28 @@ public class MainWindow {
         MenuItem openSFTPManager = new MenuItem("SFTP Manager öffnen...");
         openSFTPManager.setOnAction(e -> showSFTPManager());
         
-        sftpMenu.getItems().add(openSFTPManager);
+        MenuItem toggleRecording = new MenuItem("Aufnahme starten");
+        toggleRecording.setOnAction(e -> toggleRecording());
+        
+        MenuItem playRecording = new MenuItem("Aufnahme abspielen...");
+        playRecording.setOnAction(e -> playRecording());
+        
+        MenuItem exportScrollback = new MenuItem("Scrollback exportieren...");
+        exportScrollback.setOnAction(e -> exportScrollback());
+        
+        MenuItem searchLogs = new MenuItem("In Logs suchen...");
+        searchLogs.setOnAction(e -> showLogSearch());
+        requiresConfiguration(searchLogs);
+        
+        sftpMenu.setOnShowing(e -> {
+            Tab currentTab = tabPane.getSelectionModel().getSelectedItem();
+            boolean recording = currentTab instanceof TerminalTab terminalTab
+                    && terminalTab.getTerminalView().isRecording();
+            toggleRecording.setText(recording ? "Aufnahme beenden" : "Aufnahme starten");
+        });
+        
+        sftpMenu.getItems().addAll(openSFTPManager, new SeparatorMenuItem(), toggleRecording, playRecording,
+                new SeparatorMenuItem(), exportScrollback, searchLogs);
         
         // Ansicht Menu
         Menu viewMenu = new Menu("Ansicht");
@@ -541,6 +616,9 @@ public class MainWindow {
             updateDashboard();
             updateAllTabContextMenus();
             
+            // History is rendered locally right before the live session starts
+            terminalTab.getTerminalView().setHistoryToRestore(historyToRestore);
+            
             // Connect in background
             new Thread(() -> {
                 try {
@@ -562,22 +640,6 @@ public class MainWindow {
                             updateDashboard(); // Update dashboard when connection succeeds
                         });
                     });
-                    
-                    // Restore history after connection is established
-                    if (historyToRestore != null && !historyToRestore.isEmpty()) {
-                        // Wait a bit for terminal to be fully initialized
-                        new Thread(() -> {
-                            try {
-                                Thread.sleep(500); // Give terminal time to settle
-                                Platform.runLater(() -> {
-                                    terminalTab.getTerminalView().restoreHistory(historyToRestore);
-                                    logger.info("Terminal history restored for {}", connection.getDisplayName());
-                                });
-                            } catch (InterruptedException e) {
-                                logger.error("History restore interrupted", e);
-                            }
-                        }).start();
-                    }
                 } catch (Exception ex) {
                     logger.error("Connection failed", ex);
                     Platform.runLater(() -> {
@@ -603,6 +665,10 @@ public class MainWindow {
         if (quickConnectDialogOpen) {
             return;
         }
+        if (!app.isConfigurationLoaded()) {
+            updateStatus("Konfiguration wird noch geladen...");
+            return;
+        }
         
         quickConnectDialogOpen = true;
         
@@ -718,7 +784,7 @@ public class MainWindow {
     private void closeAllTabs() {
         List<Tab> tabsToClose = new ArrayList<>(tabPane.getTabs());
         for (Tab tab : tabsToClose) {
-            if (tab instanceof TerminalTab) {
+            if (tab instanceof TerminalTab || tab instanceof HistoryTab) {
                 tabPane.getTabs().remove(tab);
             }
         }
@@ -787,6 +853,68 @@ public class MainWindow {
         }
     }
     
+    /**
+     * Shows the search dialog over the scrollback of all tabs in all windows.
+     */
+    private void showScrollbackSearch() {
+        if (scrollbackSearchDialog == null) {
+            scrollbackSearchDialog = new ScrollbackSearchDialog(stage, () -> {
+                List<TerminalTab> tabs = new ArrayList<>();
+                for (MainWindow window : openWindows) {
+                    tabs.addAll(window.getTerminalTabs());
+                }
+                return tabs;
+            }, this::jumpToSearchMatch);
+        }
+        if (scrollbackSearchDialog.isShowing()) {
+            ((Stage) scrollbackSearchDialog.getDialogPane().getScene().getWindow()).toFront();
+        } else {
+            scrollbackSearchDialog.show();
+        }
+    }
+    
+    /**
+     * Shows the search over the terminal logs of the configured connections.
+     */
+    private void showLogSearch() {
+        if (logSearchDialog != null && logSearchDialog.isShowing()) {
+            ((Stage) logSearchDialog.getDialogPane().getScene().getWindow()).toFront();
+            return;
+        }
+        // Created anew so that changed log settings are picked up
+        logSearchDialog = new LogSearchDialog(stage, app.getConfigManager().getConnections());
+        logSearchDialog.show();
+    }
+    
+    /**
+     * Brings the window owning the tab to front, selects the tab and scrolls to the line.
+     */
+    private void jumpToSearchMatch(TerminalTab terminalTab, de.kortty.core.ScrollbackIndex.Match match) {
+        for (MainWindow window : openWindows) {
+            if (window.tabPane.getTabs().contains(terminalTab)) {
+                window.stage.toFront();
+                window.tabPane.getSelectionModel().select(terminalTab);
+                terminalTab.getTerminalView().scrollToIndexedLine(match.lineNumber());
+                window.updateStatus("Treffer in Zeile " + (match.lineNumber() + 1) + ": " + match.line().strip());
+                return;
+            }
+        }
+        updateStatus("Tab ist nicht mehr geöffnet");
+    }
+    
+    /**
+     * Gets all terminal tabs of this window.
+     */
+    public List<TerminalTab> getTerminalTabs() {
+        List<TerminalTab> terminalTabs = new ArrayList<>();
+        for (Tab tab : tabPane.getTabs()) {
+            if (tab instanceof TerminalTab terminalTab) {
+                terminalTabs.add(terminalTab);
+            }
+        }
+        return terminalTabs;
+    }
+    
     private void toggleDashboard(boolean show) {
         if (show && !dashboardVisible) {
             if (dashboardView == null) {
@@ -855,6 +983,176 @@ public class MainWindow {
         }
     }
     
+    /**
+     * Starts or stops recording the current tab to ~/.kortty/recordings.
+     */
+    private void toggleRecording() {
+        Tab currentTab = tabPane.getSelectionModel().getSelectedItem();
+        if (!(currentTab instanceof TerminalTab terminalTab)) {
+            return;
+        }
+        TerminalView view = terminalTab.getTerminalView();
+        if (view.isRecording()) {
+            view.stopRecording();
+            updateStatus("Aufnahme beendet: " + terminalTab.getConnection().getDisplayName());
+            return;
+        }
+        
+        String name = terminalTab.getConnection().getDisplayName().replaceAll("[^a-zA-Z0-9._-]", "_");
+        String timestamp = java.time.LocalDateTime.now()
+                .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        java.nio.file.Path file = KorTTYApplication.getConfigDirectory()
+                .resolve("recordings").resolve(name + "_" + timestamp + ".cast");
+        try {
+            view.startRecording(file);
+            updateStatus("Aufnahme läuft: " + file);
+        } catch (IOException e) {
+            logger.error("Failed to start recording", e);
+            showError("Fehler", "Aufnahme konnte nicht gestartet werden: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Opens a recording in the built-in player. Raw captures are converted to a temporary
+     * asciicast recording first.
+     */
+    private void playRecording() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Aufnahme abspielen");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Asciicast-Aufnahmen", "*.cast"),
+                new FileChooser.ExtensionFilter("Rohdaten-Mitschnitte", "*.raw", "*.gz"));
+        File recordingsDir = KorTTYApplication.getConfigDirectory().resolve("recordings").toFile();
+        if (recordingsDir.isDirectory()) {
+            fileChooser.setInitialDirectory(recordingsDir);
+        }
+        
+        File file = fileChooser.showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+        if (file.getName().endsWith(".cast")) {
+            openRecording(file.toPath());
+            return;
+        }
+        
+        javafx.concurrent.Task<java.nio.file.Path> convertTask = new javafx.concurrent.Task<>() {
+            @Override
+            protected java.nio.file.Path call() throws Exception {
+                java.nio.file.Path cast = java.nio.file.Files.createTempFile("kortty-raw-", ".cast");
+                cast.toFile().deleteOnExit();
+                de.kortty.core.RawCapture.toAsciicast(file.toPath(), cast);
+                return cast;
+            }
+        };
+        convertTask.setOnSucceeded(e -> {
+            updateStatus("Rohdaten-Mitschnitt geladen: " + file.getName());
+            openRecording(convertTask.getValue());
+        });
+        convertTask.setOnFailed(e -> {
+            logger.error("Failed to convert raw capture", convertTask.getException());
+            showError("Fehler", "Mitschnitt konnte nicht gelesen werden: " + convertTask.getException().getMessage());
+        });
+        
+        updateStatus("Lese Rohdaten-Mitschnitt...");
+        Thread thread = new Thread(convertTask, "RawCapture-Convert");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void openRecording(java.nio.file.Path castFile) {
+        try {
+            new RecordingPlayerDialog(stage, de.kortty.core.AsciicastRecording.open(castFile)).show();
+        } catch (IOException e) {
+            logger.error("Failed to open recording", e);
+            showError("Fehler", "Aufnahme konnte nicht geöffnet werden: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Gives the selected tab priority for emulation: unlimited while this window has the
+     * focus, otherwise a large budget. Other tabs shown in a split view or mirror window
+     * keep the large budget; all remaining tabs are background tabs.
+     */
+    private void updateEmulationPriorities() {
+        Tab selected = tabPane.getSelectionModel().getSelectedItem();
+        for (Tab tab : tabPane.getTabs()) {
+            if (tab instanceof TerminalTab terminalTab) {
+                EmulationScheduler.Priority priority;
+                if (tab == selected) {
+                    priority = stage.isFocused() ? EmulationScheduler.Priority.FOCUSED : EmulationScheduler.Priority.VISIBLE;
+                } else {
+                    priority = terminalTab.isMirrored() ? EmulationScheduler.Priority.VISIBLE : EmulationScheduler.Priority.BACKGROUND;
+                }
+                terminalTab.getTerminalView().getEmulationSlot().setPriority(priority);
+            }
+        }
+    }
+    
+    /**
+     * Exports the scrollback of the current tab to a text, ANSI or HTML file in the background.
+     */
+    private void exportScrollback() {
+        Tab currentTab = tabPane.getSelectionModel().getSelectedItem();
+        if (!(currentTab instanceof TerminalTab terminalTab)) {
+            return;
+        }
+        
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Scrollback exportieren");
+        for (ScrollbackExporter.Format format : ScrollbackExporter.Format.values()) {
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                    format.getDisplayName(), "*" + format.getExtension()));
+        }
+        String name = terminalTab.getConnection().getDisplayName().replaceAll("[^a-zA-Z0-9._-]", "_");
+        String timestamp = java.time.LocalDateTime.now()
+                .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        fileChooser.setInitialFileName(name + "_" + timestamp);
+        
+        File file = fileChooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        ScrollbackExporter.Format format = ScrollbackExporter.Format.TEXT;
+        int filterIndex = fileChooser.getExtensionFilters().indexOf(fileChooser.getSelectedExtensionFilter());
+        if (filterIndex >= 0) {
+            format = ScrollbackExporter.Format.values()[filterIndex];
+        }
+        java.nio.file.Path target = file.getName().contains(".")
+                ? file.toPath()
+                : file.toPath().resolveSibling(file.getName() + format.getExtension());
+        
+        ScrollbackExporter.Format exportFormat = format;
+        TerminalView view = terminalTab.getTerminalView();
+        javafx.concurrent.Task<ScrollbackExporter.Result> exportTask = new javafx.concurrent.Task<>() {
+            @Override
+            protected ScrollbackExporter.Result call() throws Exception {
+                return view.exportScrollback(target, exportFormat, (done, total) -> {
+                    updateProgress(done, total);
+                    updateMessage(String.format("Exportiere Scrollback... %d von %d Zeilen", done, total));
+                });
+            }
+        };
+        exportTask.messageProperty().addListener((obs, old, message) -> updateStatus(message));
+        exportTask.setOnSucceeded(e -> {
+            ScrollbackExporter.Result result = exportTask.getValue();
+            String status = "Scrollback exportiert: " + result.exportedLines() + " Zeilen nach " + target.getFileName();
+            if (result.skippedLines() > 0) {
+                status += " (" + result.skippedLines() + " Zeilen während des Exports aus dem Verlauf verdrängt)";
+            }
+            updateStatus(status);
+        });
+        exportTask.setOnFailed(e -> {
+            logger.error("Scrollback export failed", exportTask.getException());
+            showError("Fehler", "Scrollback konnte nicht exportiert werden: " + exportTask.getException().getMessage());
+        });
+        
+        updateStatus("Exportiere Scrollback...");
+        Thread thread = new Thread(exportTask, "Scrollback-Export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
     private void openProject() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Projekt öffnen");
@@ -890,24 +1188,46 @@ public class MainWindow {
                 file = new File(path);
             }
             
-            try {
-                Project project = createProjectFromCurrentState();
-                
-                // Show project settings dialog
-                ProjectSettingsDialog dialog = new ProjectSettingsDialog(stage, project);
-                Optional<Project> result = dialog.showAndWait();
-                
-                if (result.isPresent()) {
-                    projectManager.saveProject(result.get(), file.toPath());
-                    updateStatus("Projekt gespeichert: " + file.getName());
-                }
-            } catch (Exception e) {
-                logger.error("Failed to save project", e);
-                showError("Fehler", "Projekt konnte nicht gespeichert werden: " + e.getMessage());
+            Project project = createProjectFromCurrentState();
+            
+            // Show project settings dialog
+            ProjectSettingsDialog dialog = new ProjectSettingsDialog(stage, project);
+            Optional<Project> result = dialog.showAndWait();
+            
+            if (result.isPresent()) {
+                saveProjectInBackground(result.get(), file);
             }
         }
     }
     
+    /**
+     * Finalizes the tab journals and writes the project file off the FX thread.
+     */
+    private void saveProjectInBackground(Project project, File file) {
+        javafx.concurrent.Task<Void> saveTask = new javafx.concurrent.Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                projectManager.saveProject(project, file.toPath());
+                return null;
+            }
+        };
+        
+        long startTime = System.currentTimeMillis();
+        saveTask.setOnSucceeded(e -> {
+            logger.info("Project saved in {} ms", System.currentTimeMillis() - startTime);
+            updateStatus("Projekt gespeichert: " + file.getName());
+        });
+        saveTask.setOnFailed(e -> {
+            logger.error("Failed to save project", saveTask.getException());
+            showError("Fehler", "Projekt konnte nicht gespeichert werden: " + saveTask.getException().getMessage());
+        });
+        
+        updateStatus("Speichere Projekt...");
+        Thread thread = new Thread(saveTask, "Project-Save");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
     private Project createProjectFromCurrentState() {
         Project project = new Project("Neues Projekt");
         
@@ -925,9 +1245,12 @@ public class MainWindow {
                         connection.getId()
                 );
                 sessionState.setSettings(connection.getSettings());
-                sessionState.setTerminalHistory(terminalTab.getTerminalView().getTerminalHistory());
+                sessionState.setHistoryJournal(terminalTab.getTerminalView().getHistoryJournal());
                 sessionState.setGroup(terminalTab.getGroup()); // Save tab group (not connection group)
                 windowState.addTab(sessionState);
+            } else if (tab instanceof HistoryTab historyTab) {
+                // Not reconnected yet - keep the saved session and its history file as they are
+                windowState.addTab(historyTab.getSessionState());
             }
         }
         
@@ -960,7 +1283,12 @@ public class MainWindow {
                         // Get password and reconnect with history restore
                         String password = getConnectionPassword(connection);
                         if (password != null) {
-                            String history = sessionState.getTerminalHistory();
+                            String history = null;
+                            try {
+                                history = projectManager.loadHistory(sessionState);
+                            } catch (IOException e) {
+                                logger.warn("Could not load history for {}", connection.getDisplayName(), e);
+                            }
                             TerminalTab restoredTab = openConnectionAndReturnTab(connection, password, history);
                             // Restore tab group (not connection group)
                             if (sessionState.getGroup() != null && !sessionState.getGroup().trim().isEmpty()) {
@@ -972,8 +1300,11 @@ public class MainWindow {
                                     history != null ? history.length() : 0);
                         }
                     } else {
-                        // TODO: Create read-only tab with history display only (no connection)
-                        logger.info("Auto-reconnect disabled, skipping connection for {}", 
+                        // Read-only tab; the history is only read once the tab is viewed
+                        HistoryTab historyTab = new HistoryTab(connection, sessionState,
+                                projectManager.getHistoryStorage(), this::connectHistoryTab);
+                        tabPane.getTabs().add(tabPane.getTabs().size() - 1, historyTab);
+                        logger.info("Auto-reconnect disabled, opened history tab for {}", 
                                 connection.getDisplayName());
                     }
                 }
@@ -984,6 +1315,27 @@ public class MainWindow {
         toggleDashboard(true);
     }
     
+    /**
+     * Replaces a read-only history tab with a live session that shows the same history.
+     */
+    private void connectHistoryTab(HistoryTab historyTab) {
+        ServerConnection connection = historyTab.getConnection();
+        String password = getConnectionPassword(connection);
+        if (password == null) {
+            return;
+        }
+        
+        String history = historyTab.getHistoryText();
+        String group = historyTab.getSessionState().getGroup();
+        tabPane.getTabs().remove(historyTab);
+        
+        TerminalTab terminalTab = openConnectionAndReturnTab(connection, password, history);
+        if (terminalTab != null && group != null && !group.trim().isEmpty()) {
+            terminalTab.setGroup(group);
+            organizeTabsByGroup();
+        }
+    }
+    
     private void importConnections() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Verbindungen importieren");
@@ -1204,6 +1556,15 @@ public class MainWindow {
         statusLabel.setText(message);
     }
     
+    /**
+     * Disables menu items until connections, keys and credentials are loaded at startup.
+     */
+    private void requiresConfiguration(MenuItem... items) {
+        for (MenuItem item : items) {
+            item.disableProperty().bind(app.configurationLoadedProperty().not());
+        }
+    }
+    
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -1531,6 +1892,14 @@ public class MainWindow {
     private void setupTabContextMenu(TerminalTab terminalTab) {
         ContextMenu contextMenu = new ContextMenu();
         
+        // Further views of the same session, without a second connection
+        CheckMenuItem splitViewItem = new CheckMenuItem("Geteilte Ansicht");
+        splitViewItem.setSelected(terminalTab.isSplitView());
+        splitViewItem.setOnAction(e -> terminalTab.setSplitView(splitViewItem.isSelected()));
+        MenuItem mirrorWindowItem = new MenuItem("In neuem Fenster spiegeln");
+        mirrorWindowItem.setOnAction(e -> terminalTab.openMirrorWindow(stage));
+        contextMenu.getItems().addAll(splitViewItem, mirrorWindowItem, new SeparatorMenuItem());
+        
         // Get all available groups
         List<String> groups = getAllGroups();
         String currentGroup = terminalTab.getGroup();
@@ -1593,6 +1962,13 @@ public class MainWindow {
         // Menu item to rename current group (if tab has a group)
         if (currentGroup != null && !currentGroup.trim().isEmpty()) {
             contextMenu.getItems().add(new SeparatorMenuItem());
+            
+            // Broadcast keystrokes and pastes to all tabs of the group
+            CheckMenuItem broadcastItem = new CheckMenuItem("Eingaben an Gruppe senden (Broadcast)");
+            broadcastItem.setSelected(broadcasters.containsKey(currentGroup));
+            broadcastItem.setOnAction(e -> setGroupBroadcast(currentGroup, broadcastItem.isSelected()));
+            contextMenu.getItems().add(broadcastItem);
+            
             MenuItem renameGroupItem = new MenuItem("Gruppe umbenennen...");
             renameGroupItem.setOnAction(e -> {
                 TextInputDialog dialog = new TextInputDialog(currentGroup);
@@ -1640,6 +2016,7 @@ public class MainWindow {
      * Renames a group for all tabs that have this group.
      */
     private void renameGroupForAllTabs(String oldGroupName, String newGroupName) {
+        setGroupBroadcast(oldGroupName, false);
         for (Tab tab : tabPane.getTabs()) {
             if (tab instanceof TerminalTab terminalTab) {
                 String group = terminalTab.getGroup();
@@ -1713,10 +2090,13 @@ public class MainWindow {
     private void organizeTabsByGroup() {
         // Get all terminal tabs (excluding "+" tab)
         List<TerminalTab> terminalTabs = new ArrayList<>();
+        List<HistoryTab> historyTabs = new ArrayList<>();
         Tab plusTab = null;
         for (Tab tab : tabPane.getTabs()) {
             if (tab instanceof TerminalTab terminalTab) {
                 terminalTabs.add(terminalTab);
+            } else if (tab instanceof HistoryTab historyTab) {
+                historyTabs.add(historyTab);
             } else if ("+".equals(tab.getText())) {
                 plusTab = tab;
             }
@@ -1756,6 +2136,7 @@ public class MainWindow {
             tabPane.getTabs().add(tab);
             setupTabContextMenu(tab); // Re-setup context menu
         }
+        tabPane.getTabs().addAll(historyTabs);
         
         // Re-add "+" tab at the end
         if (plusTab != null) {
@@ -1766,6 +2147,48 @@ public class MainWindow {
         if (selectedTab != null) {
             tabPane.getSelectionModel().select(selectedTab);
         }
+        
+        updateBroadcastMembers();
+    }
+    
+    /**
+     * Turns broadcast input on or off for a tab group.
+     */
+    private void setGroupBroadcast(String group, boolean enabled) {
+        if (enabled) {
+            if (!broadcasters.containsKey(group)) {
+                broadcasters.put(group, new GroupBroadcaster(group));
+                updateBroadcastMembers();
+                updateStatus("Broadcast für Gruppe " + group + " aktiv");
+            }
+        } else {
+            GroupBroadcaster broadcaster = broadcasters.remove(group);
+            if (broadcaster != null) {
+                broadcaster.stop();
+                updateStatus("Broadcast für Gruppe " + group + " beendet");
+            }
+        }
+        updateAllTabContextMenus();
+    }
+    
+    /**
+     * Hands the current members of each broadcasting group to its broadcaster.
+     * Groups without members stop broadcasting.
+     */
+    private void updateBroadcastMembers() {
+        for (String group : new ArrayList<>(broadcasters.keySet())) {
+            List<TerminalTab> members = new ArrayList<>();
+            for (Tab tab : tabPane.getTabs()) {
+                if (tab instanceof TerminalTab terminalTab && group.equals(terminalTab.getGroup())) {
+                    members.add(terminalTab);
+                }
+            }
+            if (members.isEmpty()) {
+                broadcasters.remove(group).stop();
+            } else {
+                broadcasters.get(group).setMembers(members);
+            }
+        }
     }
 
 }
\ No newline at end of file
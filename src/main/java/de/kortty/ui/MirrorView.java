@@ -0,0 +1,182 @@
+package de.kortty.ui;
+
+import com.techsenger.jeditermfx.core.TerminalColor;
+import com.techsenger.jeditermfx.core.TextStyle;
+import com.techsenger.jeditermfx.core.model.TerminalLine;
+import de.kortty.core.SshTtyConnector;
+import de.kortty.core.TerminalPalette;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.util.Duration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A second view of a live terminal session.
+ *
+ * The mirror does not open a connection or run an emulator of its own: it paints the screen
+ * of the source terminal's buffer whenever output arrives, at most every 33 ms. Keys typed
+ * into the mirror are encoded by the source terminal's emulator, so cursor key mode and
+ * modifiers match, and sent to the source session.
+ */
+class MirrorView extends BorderPane {
+    
+    private static final Duration FRAME_INTERVAL = Duration.millis(33);
+    
+    private final TerminalView source;
+    private final Canvas canvas = new Canvas();
+    private final Timeline renderer;
+    private final SshTtyConnector.DataListener outputListener;
+    private final TerminalKeyEncoder keyEncoder;
+    private final Color defaultForeground;
+    private final Color defaultBackground;
+    
+    // Frames still to paint; output is parsed after the listener fires, so one extra frame follows
+    private final AtomicInteger pendingFrames = new AtomicInteger(1);
+    
+    MirrorView(TerminalView source) {
+        this.source = source;
+        this.keyEncoder = new TerminalKeyEncoder(source::getTerminal);
+        this.defaultForeground = Color.web(source.getSettings().getForegroundColor());
+        this.defaultBackground = Color.web(source.getSettings().getBackgroundColor());
+        
+        ScrollPane scrollPane = new ScrollPane(canvas);
+        scrollPane.setStyle("-fx-background: " + source.getSettings().getBackgroundColor() + ";");
+        setCenter(scrollPane);
+        
+        canvas.setFocusTraversable(true);
+        canvas.setOnMouseClicked(e -> canvas.requestFocus());
+        canvas.addEventHandler(KeyEvent.KEY_PRESSED, this::onKeyPressed);
+        canvas.addEventHandler(KeyEvent.KEY_TYPED, this::onKeyTyped);
+        
+        outputListener = data -> pendingFrames.set(2);
+        source.addOutputListener(outputListener);
+        
+        renderer = new Timeline(new KeyFrame(FRAME_INTERVAL, e -> {
+            if (pendingFrames.get() > 0) {
+                pendingFrames.decrementAndGet();
+                paint();
+            }
+        }));
+        renderer.setCycleCount(Animation.INDEFINITE);
+        renderer.play();
+    }
+    
+    /**
+     * Repaints on the next frame, e.g. after the source was zoomed.
+     */
+    void refresh() {
+        pendingFrames.set(1);
+    }
+    
+    /**
+     * Stops rendering and detaches from the source terminal.
+     */
+    void detach() {
+        renderer.stop();
+        source.removeOutputListener(outputListener);
+    }
+    
+    private void paint() {
+        var widget = source.getTerminalWidget();
+        if (widget == null || widget.getTerminal() == null) {
+            return;
+        }
+        Font font = source.getTerminalFont();
+        GlyphMetrics.CellMetrics cell = GlyphMetrics.of(font);
+        var buffer = widget.getTerminalTextBuffer();
+        var terminal = widget.getTerminal();
+        
+        buffer.lock();
+        try {
+            int columns = buffer.getWidth();
+            int rows = buffer.getHeight();
+            double width = Math.ceil(columns * cell.width());
+            double height = Math.ceil(rows * cell.height());
+            if (canvas.getWidth() != width || canvas.getHeight() != height) {
+                canvas.setWidth(width);
+                canvas.setHeight(height);
+            }
+            
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            gc.setFill(defaultBackground);
+            gc.fillRect(0, 0, width, height);
+            gc.setFont(font);
+            gc.setTextBaseline(VPos.TOP);
+            
+            for (int row = 0; row < rows; row++) {
+                double y = row * cell.height();
+                int column = 0;
+                for (TerminalLine.TextEntry entry : buffer.getLine(row).getEntries()) {
+                    int length = entry.getLength();
+                    if (!entry.isNul()) {
+                        paintEntry(gc, entry.getStyle(), entry.getText().toString(),
+                                column * cell.width(), y, length * cell.width(), cell.height());
+                    }
+                    column += length;
+                }
+            }
+            
+            // Cursor as outlined cell
+            gc.setStroke(defaultForeground);
+            gc.strokeRect((terminal.getCursorX() - 1) * cell.width() + 0.5,
+                    (terminal.getCursorY() - 1) * cell.height() + 0.5,
+                    cell.width() - 1, cell.height() - 1);
+        } finally {
+            buffer.unlock();
+        }
+    }
+    
+    private void paintEntry(GraphicsContext gc, TextStyle style, String text,
+                            double x, double y, double width, double height) {
+        Color foreground = style.getForeground() != null ? toColor(style.getForeground()) : defaultForeground;
+        Color background = style.getBackground() != null ? toColor(style.getBackground()) : null;
+        if (style.hasOption(TextStyle.Option.INVERSE)) {
+            Color swap = foreground;
+            foreground = background != null ? background : defaultBackground;
+            background = swap;
+        }
+        if (background != null) {
+            gc.setFill(background);
+            gc.fillRect(x, y, width, height);
+        }
+        if (style.hasOption(TextStyle.Option.HIDDEN)) {
+            return;
+        }
+        gc.setFill(style.hasOption(TextStyle.Option.DIM) ? foreground.deriveColor(0, 1, 1, 0.6) : foreground);
+        gc.fillText(text, x, y);
+        if (style.hasOption(TextStyle.Option.UNDERLINED)) {
+            gc.fillRect(x, y + height - 1, width, 1);
+        }
+    }
+    
+    private static Color toColor(TerminalColor color) {
+        int rgb = TerminalPalette.rgb(color);
+        return Color.rgb((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+    }
+    
+    private void onKeyPressed(KeyEvent event) {
+        byte[] bytes = keyEncoder.encodePressed(event);
+        if (bytes != null) {
+            source.sendTypedInput(bytes);
+            event.consume();
+        }
+    }
+    
+    private void onKeyTyped(KeyEvent event) {
+        byte[] bytes = keyEncoder.encodeTyped(event);
+        if (bytes != null) {
+            source.sendTypedInput(bytes);
+            event.consume();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package de.kortty.ui;
+
+import javafx.geometry.VPos;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Transparent layer above the terminal that draws predicted (not yet echoed) input.
+ * Predictions are underlined, like in mosh, so they can be told apart from confirmed text.
+ */
+class PredictionOverlay extends Pane {
+    
+    private final Text text;
+    
+    PredictionOverlay(Color color) {
+        setMouseTransparent(true);
+        setPickOnBounds(false);
+        
+        text = new Text();
+        text.setUnderline(true);
+        text.setFill(color);
+        text.setTextOrigin(VPos.TOP);
+        text.setVisible(false);
+        getChildren().add(text);
+        
+        // Never draw outside the terminal area
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+    }
+    
+    /**
+     * Shows the predicted text starting at the given position.
+     */
+    void show(String predicted, Font font, double x, double y) {
+        text.setFont(font);
+        text.setText(predicted);
+        text.relocate(x, y);
+        text.setVisible(true);
+    }
+    
+    void clear() {
+        text.setVisible(false);
+        text.setText("");
+    }
+}
@@ -0,0 +1,463 @@
+package de.kortty.ui;
+
+import com.techsenger.jeditermfx.core.TtyConnector;
+import com.techsenger.jeditermfx.core.util.TermSize;
+import com.techsenger.jeditermfx.ui.JediTermFxWidget;
+import com.techsenger.jeditermfx.ui.settings.DefaultSettingsProvider;
+import de.kortty.core.AsciicastRecording;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Plays back an asciicast recording in a local terminal.
+ *
+ * Seeking resets the terminal, draws the nearest keyframe from the index and then feeds only
+ * the events between the keyframe and the target at full speed, so jumping around in a
+ * recording of several hours costs at most one keyframe interval of output.
+ *
+ * The terminal has the size of the recording: the header gives the initial grid and every
+ * keyframe the grid from its time on, so output wraps and positions as it did when recorded.
+ */
+public class RecordingPlayerDialog extends Dialog<Void> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RecordingPlayerDialog.class);
+    private static final long MAX_SLEEP_MILLIS = 50;
+    private static final int FEED_CHUNK_CHARS = 64 * 1024;
+    private static final long RESIZE_TIMEOUT_MILLIS = 1000;
+    private static final int MAX_SIZE_CORRECTIONS = 3;
+    
+    private final AsciicastRecording recording;
+    private final DefaultSettingsProvider settingsProvider = new DefaultSettingsProvider();
+    private final JediTermFxWidget terminalWidget;
+    private final PlaybackConnector connector = new PlaybackConnector(this::onTerminalResized);
+    private final Slider timeline;
+    private final Label timeLabel;
+    private final Label statusLabel;
+    private final Button playButton;
+    private final Timeline uiUpdater;
+    private final Thread playerThread;
+    
+    private final Object lock = new Object();
+    private volatile double position = 0;
+    private volatile double speed = 1.0;
+    private volatile boolean playing = true;
+    private volatile boolean closed = false;
+    private double seekTarget = -1; // guarded by lock
+    
+    // Grid the pane is sized for, FX thread only
+    private int gridColumns;
+    private int gridRows;
+    private int sizeCorrections;
+    
+    public RecordingPlayerDialog(Stage owner, AsciicastRecording recording) {
+        this.recording = recording;
+        
+        setTitle("Aufnahme abspielen - " + recording.getTitle());
+        setHeaderText(null);
+        initOwner(owner);
+        initModality(Modality.NONE);
+        setResizable(true);
+        
+        terminalWidget = new JediTermFxWidget(settingsProvider);
+        terminalWidget.setTtyConnector(connector);
+        applyGrid(recording.getWidth(), recording.getHeight());
+        
+        playButton = new Button("Pause");
+        playButton.setOnAction(e -> togglePlaying());
+        
+        ComboBox<String> speedBox = new ComboBox<>();
+        speedBox.getItems().addAll("0.5x", "1x", "2x", "4x", "8x", "16x");
+        speedBox.setValue("1x");
+        speedBox.setOnAction(e -> speed = Double.parseDouble(speedBox.getValue().replace("x", "")));
+        
+        timeline = new Slider(0, Math.max(recording.getDuration(), 0.001), 0);
+        timeline.setOnMouseReleased(e -> requestSeek(timeline.getValue()));
+        HBox.setHgrow(timeline, Priority.ALWAYS);
+        
+        timeLabel = new Label(formatTime(0) + " / " + formatTime(recording.getDuration()));
+        
+        HBox controls = new HBox(10, playButton, speedBox, timeline, timeLabel);
+        controls.setAlignment(Pos.CENTER_LEFT);
+        controls.setPadding(new Insets(5, 0, 0, 0));
+        
+        statusLabel = new Label(recording.getKeyframeCount() + " Keyframes im Index");
+        statusLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: gray;");
+        
+        // Wide recordings can be larger than the screen
+        ScrollPane terminalScroll = new ScrollPane(terminalWidget.getPane());
+        
+        BorderPane content = new BorderPane();
+        content.setCenter(terminalScroll);
+        content.setBottom(new BorderPane(controls, null, null, statusLabel, null));
+        
+        getDialogPane().setContent(content);
+        getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        
+        // The slider follows playback unless the user is dragging it
+        uiUpdater = new Timeline(new KeyFrame(Duration.millis(200), e -> {
+            if (!timeline.isValueChanging() && !timeline.isPressed()) {
+                timeline.setValue(position);
+            }
+            timeLabel.setText(formatTime(position) + " / " + formatTime(recording.getDuration()));
+            playButton.setText(playing ? "Pause" : "Abspielen");
+        }));
+        uiUpdater.setCycleCount(Timeline.INDEFINITE);
+        
+        playerThread = new Thread(this::playLoop, "Recording-Player");
+        playerThread.setDaemon(true);
+        
+        setOnShown(e -> {
+            terminalWidget.start();
+            uiUpdater.play();
+            playerThread.start();
+        });
+        setOnHidden(e -> stopPlayback());
+    }
+    
+    private void togglePlaying() {
+        synchronized (lock) {
+            if (!playing && position >= recording.getDuration()) {
+                seekTarget = 0; // start over at the end
+            }
+            playing = !playing;
+            lock.notifyAll();
+        }
+    }
+    
+    private void requestSeek(double target) {
+        synchronized (lock) {
+            seekTarget = Math.max(0, Math.min(target, recording.getDuration()));
+            lock.notifyAll();
+        }
+    }
+    
+    private void stopPlayback() {
+        closed = true;
+        uiUpdater.stop();
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        connector.close();
+        try {
+            terminalWidget.stop();
+            terminalWidget.close();
+        } catch (Exception e) {
+            logger.debug("Ignoring JediTermFX cleanup exception (known bug): {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Sizes the terminal pane to hold the grid in cells of the terminal font.
+     * Must be called on the FX thread.
+     */
+    private void applyGrid(int columns, int rows) {
+        gridColumns = columns;
+        gridRows = rows;
+        sizeCorrections = 0;
+        GlyphMetrics.CellMetrics cell = GlyphMetrics.of(settingsProvider.getTerminalFont());
+        setPaneSize(Math.ceil(columns * cell.width()), Math.ceil(rows * cell.height()));
+    }
+    
+    /**
+     * Called with the grid the emulator laid out. The pane also holds the scroll bar, so the
+     * first layout usually comes out short; the missing cells are added to the pane.
+     */
+    private void onTerminalResized(TermSize actual) {
+        Platform.runLater(() -> {
+            int missingColumns = gridColumns - actual.getColumns();
+            int missingRows = gridRows - actual.getRows();
+            if ((missingColumns == 0 && missingRows == 0) || sizeCorrections++ >= MAX_SIZE_CORRECTIONS) {
+                return;
+            }
+            Region pane = terminalWidget.getPane();
+            GlyphMetrics.CellMetrics cell = GlyphMetrics.of(settingsProvider.getTerminalFont());
+            setPaneSize(pane.getPrefWidth() + missingColumns * cell.width(),
+                    pane.getPrefHeight() + missingRows * cell.height());
+        });
+    }
+    
+    private void setPaneSize(double width, double height) {
+        Region pane = terminalWidget.getPane();
+        pane.setMinSize(width, height);
+        pane.setPrefSize(width, height);
+        pane.setMaxSize(width, height);
+    }
+    
+    /**
+     * Resizes the terminal to the grid and waits until the emulator has laid it out,
+     * so the following output is not wrapped at the old size.
+     */
+    private void resizeTo(int columns, int rows) throws InterruptedException {
+        if (connector.hasSize(columns, rows)) {
+            return;
+        }
+        Platform.runLater(() -> applyGrid(columns, rows));
+        if (!connector.awaitSize(columns, rows, RESIZE_TIMEOUT_MILLIS)) {
+            logger.debug("Terminal did not reach the recorded size {}x{}", columns, rows);
+        }
+    }
+    
+    /**
+     * Feeds events to the terminal in real time (scaled by the speed) and handles seeks.
+     */
+    private void playLoop() {
+        AsciicastRecording.EventReader reader = null;
+        AsciicastRecording.Event next = null;
+        try {
+            AsciicastRecording.Keyframe first = recording.keyframeAt(0);
+            resizeTo(first.width(), first.height());
+            reader = recording.openEvents(first.offset());
+            while (!closed) {
+                double target;
+                synchronized (lock) {
+                    target = seekTarget;
+                    seekTarget = -1;
+                    if (target < 0 && !playing) {
+                        lock.wait(500);
+                        continue;
+                    }
+                }
+                
+                if (target >= 0) {
+                    reader.close();
+                    connector.discard();
+                    long start = System.nanoTime();
+                    AsciicastRecording.Keyframe keyframe = recording.keyframeAt(target);
+                    resizeTo(keyframe.width(), keyframe.height());
+                    reader = recording.openEvents(keyframe.offset());
+                    next = fastForward(reader, keyframe, target);
+                    position = target;
+                    long millis = (System.nanoTime() - start) / 1_000_000;
+                    String info = "Sprung zu " + formatTime(target) + " in " + millis + " ms (ab Keyframe "
+                            + formatTime(keyframe.time()) + ")";
+                    Platform.runLater(() -> statusLabel.setText(info));
+                    continue;
+                }
+                
+                if (next == null) {
+                    next = reader.next();
+                    if (next == null) {
+                        playing = false;
+                        position = recording.getDuration();
+                        continue;
+                    }
+                }
+                if (waitUntil(next.time())) {
+                    AsciicastRecording.Keyframe keyframe = recording.keyframeAt(next.time());
+                    resizeTo(keyframe.width(), keyframe.height());
+                    connector.feed(next.data());
+                    position = next.time();
+                    next = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Playback of {} failed", recording.getCastFile(), e);
+            Platform.runLater(() -> statusLabel.setText("Fehler beim Lesen: " + e.getMessage()));
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                    // nothing to do
+                }
+            }
+        }
+    }
+    
+    /**
+     * Resets the terminal to the keyframe and replays the events up to the target at once.
+     *
+     * @return the first event after the target, or null at the end
+     */
+    private AsciicastRecording.Event fastForward(AsciicastRecording.EventReader reader,
+                                                 AsciicastRecording.Keyframe keyframe, double target)
+            throws IOException {
+        StringBuilder pending = new StringBuilder("\u001bc").append(keyframe.screen());
+        AsciicastRecording.Event event;
+        while ((event = reader.next()) != null && event.time() <= target) {
+            pending.append(event.data());
+            if (pending.length() >= FEED_CHUNK_CHARS) {
+                connector.feed(pending.toString());
+                pending.setLength(0);
+            }
+        }
+        connector.feed(pending.toString());
+        return event;
+    }
+    
+    /**
+     * Advances the position in small steps until the given recording time is reached.
+     *
+     * @return false if playback was paused, seeked or closed in between
+     */
+    private boolean waitUntil(double time) throws InterruptedException {
+        long last = System.nanoTime();
+        while (position < time) {
+            synchronized (lock) {
+                if (closed || !playing || seekTarget >= 0) {
+                    return false;
+                }
+                long millis = (long) Math.ceil((time - position) * 1000 / speed);
+                lock.wait(Math.max(1, Math.min(millis, MAX_SLEEP_MILLIS)));
+            }
+            long now = System.nanoTime();
+            position = Math.min(time, position + (now - last) / 1e9 * speed);
+            last = now;
+        }
+        return true;
+    }
+    
+    private static String formatTime(double seconds) {
+        long total = (long) seconds;
+        return String.format("%02d:%02d:%02d", total / 3600, (total / 60) % 60, total % 60);
+    }
+    
+    /**
+     * Hands recorded output to the emulator; input from the user is ignored.
+     * The grid the emulator lays out is reported back to the dialog.
+     */
+    private static class PlaybackConnector implements TtyConnector {
+        
+        private final Consumer<TermSize> resizeListener;
+        // All fields guarded by this
+        private final Deque<String> chunks = new ArrayDeque<>();
+        private boolean open = true;
+        private String current = "";
+        private int currentPos = 0;
+        private TermSize size;
+        
+        PlaybackConnector(Consumer<TermSize> resizeListener) {
+            this.resizeListener = resizeListener;
+        }
+        
+        /**
+         * Drops all output not yet read by the emulator, including the rest of the current chunk.
+         */
+        synchronized void discard() {
+            chunks.clear();
+            current = "";
+            currentPos = 0;
+        }
+        
+        synchronized void feed(String data) {
+            if (!data.isEmpty()) {
+                chunks.add(data);
+                notifyAll();
+            }
+        }
+        
+        synchronized boolean hasSize(int columns, int rows) {
+            return size != null && size.getColumns() == columns && size.getRows() == rows;
+        }
+        
+        /**
+         * Waits until the emulator reports the grid.
+         *
+         * @return false if it did not within the timeout
+         */
+        synchronized boolean awaitSize(int columns, int rows, long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (!hasSize(columns, rows)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !open) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        }
+        
+        @Override
+        public synchronized int read(char[] buf, int offset, int length) throws IOException {
+            try {
+                while (currentPos >= current.length()) {
+                    if (!open) {
+                        return -1;
+                    }
+                    String chunk = chunks.poll();
+                    if (chunk != null) {
+                        current = chunk;
+                        currentPos = 0;
+                    } else {
+                        wait(200);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+            int count = Math.min(length, current.length() - currentPos);
+            current.getChars(currentPos, currentPos + count, buf, offset);
+            currentPos += count;
+            return count;
+        }
+        
+        @Override
+        public void write(byte[] bytes) {
+            // Playback is read-only
+        }
+        
+        @Override
+        public void write(String string) {
+            // Playback is read-only
+        }
+        
+        @Override
+        public synchronized boolean isConnected() {
+            return open;
+        }
+        
+        @Override
+        public synchronized int waitFor() throws InterruptedException {
+            while (open) {
+                wait(100);
+            }
+            return 0;
+        }
+        
+        @Override
+        public synchronized boolean ready() {
+            return currentPos < current.length() || !chunks.isEmpty();
+        }
+        
+        @Override
+        public String getName() {
+            return "Wiedergabe";
+        }
+        
+        @Override
+        public void resize(TermSize termSize) {
+            synchronized (this) {
+                size = termSize;
+                notifyAll();
+            }
+            resizeListener.accept(termSize);
+        }
+        
+        @Override
+        public synchronized void close() {
+            open = false;
+            notifyAll();
+        }
+    }
+}
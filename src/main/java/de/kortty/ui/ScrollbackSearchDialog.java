@@ -0,0 +1,167 @@
+package de.kortty.ui;
+
+import de.kortty.core.ScrollbackIndex;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Global search over the scrollback of all open terminal tabs.
+ * Results are grouped by tab; double-clicking a hit jumps to its line.
+ */
+public class ScrollbackSearchDialog extends Dialog<Void> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ScrollbackSearchDialog.class);
+    private static final int MAX_HITS_PER_TAB = 500;
+    
+    private final Supplier<List<TerminalTab>> tabSupplier;
+    private final BiConsumer<TerminalTab, ScrollbackIndex.Match> jumpHandler;
+    
+    private final SearchQueryFields queryFields;
+    private final TreeView<SearchItem> resultTree;
+    private final Label statusLabel;
+    private Task<List<TabResult>> currentSearch;
+    
+    public ScrollbackSearchDialog(Stage owner, Supplier<List<TerminalTab>> tabSupplier,
+                                  BiConsumer<TerminalTab, ScrollbackIndex.Match> jumpHandler) {
+        this.tabSupplier = tabSupplier;
+        this.jumpHandler = jumpHandler;
+        
+        setTitle("In allen Tabs suchen");
+        setHeaderText("Durchsucht die Ausgabe aller geöffneten Terminals");
+        initOwner(owner);
+        initModality(Modality.NONE);
+        setResizable(true);
+        
+        queryFields = new SearchQueryFields(this::startSearch);
+        
+        resultTree = new TreeView<>();
+        resultTree.setShowRoot(false);
+        resultTree.setCellFactory(tv -> {
+            TreeCell<SearchItem> cell = new TreeCell<>() {
+                @Override
+                protected void updateItem(SearchItem item, boolean empty) {
+                    super.updateItem(item, empty);
+                    setText(empty || item == null ? null : item.label());
+                }
+            };
+            cell.setOnMouseClicked(e -> {
+                SearchItem item = cell.getItem();
+                if (e.getClickCount() == 2 && item != null && item.tab() != null) {
+                    jumpHandler.accept(item.tab(), item.match());
+                }
+            });
+            return cell;
+        });
+        VBox.setVgrow(resultTree, Priority.ALWAYS);
+        
+        statusLabel = new Label("Bereit");
+        statusLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: gray;");
+        
+        HBox statusBox = new HBox(statusLabel);
+        statusBox.setAlignment(Pos.CENTER_LEFT);
+        
+        VBox content = new VBox(10, queryFields.getGrid(), resultTree, statusBox);
+        content.setPadding(new Insets(10));
+        
+        getDialogPane().setContent(content);
+        getDialogPane().setPrefSize(800, 500);
+        getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        
+        setOnShown(e -> queryFields.requestFocus());
+    }
+    
+    /**
+     * Runs the search on a background thread and shows the results grouped by tab.
+     */
+    private void startSearch() {
+        SearchQueryFields.Query query = queryFields.read(statusLabel);
+        if (query == null) {
+            return;
+        }
+        
+        if (currentSearch != null && currentSearch.isRunning()) {
+            currentSearch.cancel();
+        }
+        
+        // Snapshot the tabs on the FX thread; the indexes themselves are thread-safe
+        List<TerminalTab> tabs = new ArrayList<>(tabSupplier.get());
+        
+        Task<List<TabResult>> task = new Task<>() {
+            @Override
+            protected List<TabResult> call() {
+                return tabs.parallelStream()
+                        .map(tab -> {
+                            ScrollbackIndex index = tab.getTerminalView().getScrollbackIndex();
+                            return new TabResult(tab, index.search(query.literal(), query.refinement(),
+                                    MAX_HITS_PER_TAB), index.isIncomplete());
+                        })
+                        .filter(result -> !result.matches().isEmpty())
+                        .toList();
+            }
+        };
+        
+        long startNanos = System.nanoTime();
+        task.setOnSucceeded(e -> showResults(task.getValue(), tabs.size(), (System.nanoTime() - startNanos) / 1_000_000));
+        task.setOnFailed(e -> {
+            logger.error("Scrollback search failed", task.getException());
+            statusLabel.setText("Suche fehlgeschlagen: " + task.getException().getMessage());
+        });
+        
+        currentSearch = task;
+        statusLabel.setText("Suche läuft...");
+        
+        Thread thread = new Thread(task, "Scrollback-Search");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void showResults(List<TabResult> results, int tabCount, long millis) {
+        TreeItem<SearchItem> root = new TreeItem<>(new SearchItem("Ergebnisse", null, null));
+        int totalHits = 0;
+        
+        for (TabResult result : results) {
+            String tabName = result.tab().getText();
+            int hits = result.matches().size();
+            totalHits += hits;
+            
+            String suffix = hits >= MAX_HITS_PER_TAB ? "+ Treffer)" : " Treffer)";
+            if (result.incomplete()) {
+                suffix += " - Index unvollständig, Ausgabe kam schneller als sie indiziert werden konnte";
+            }
+            TreeItem<SearchItem> tabItem = new TreeItem<>(
+                    new SearchItem(tabName + " (" + hits + suffix, null, null));
+            tabItem.setExpanded(true);
+            
+            for (ScrollbackIndex.Match match : result.matches()) {
+                String label = "Zeile " + (match.lineNumber() + 1) + ": " + match.line().strip();
+                tabItem.getChildren().add(new TreeItem<>(new SearchItem(label, result.tab(), match)));
+            }
+            root.getChildren().add(tabItem);
+        }
+        
+        root.setExpanded(true);
+        resultTree.setRoot(root);
+        statusLabel.setText(totalHits + " Treffer in " + results.size() + " von " + tabCount
+                + " Tabs (" + millis + " ms)");
+    }
+    
+    private record TabResult(TerminalTab tab, List<ScrollbackIndex.Match> matches, boolean incomplete) {
+    }
+    
+    private record SearchItem(String label, TerminalTab tab, ScrollbackIndex.Match match) {
+    }
+}
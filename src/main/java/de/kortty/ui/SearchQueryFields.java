@@ -0,0 +1,86 @@
+package de.kortty.ui;
+
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Search term and regex fields of the search dialogs, laid out in a grid with the search button.
+ * Dialogs can add further rows to the grid below the two rows used here.
+ */
+final class SearchQueryFields {
+    
+    /**
+     * A validated query: a literal, a refining pattern, or both.
+     */
+    record Query(String literal, Pattern refinement) {
+    }
+    
+    private final TextField queryField;
+    private final TextField regexField;
+    private final GridPane grid;
+    
+    SearchQueryFields(Runnable onSearch) {
+        queryField = new TextField();
+        queryField.setPromptText("z.B. Connection refused");
+        queryField.setOnAction(e -> onSearch.run());
+        
+        regexField = new TextField();
+        regexField.setPromptText("Optional: regulärer Ausdruck zur Verfeinerung");
+        regexField.setOnAction(e -> onSearch.run());
+        
+        Button searchButton = new Button("Suchen");
+        searchButton.setDefaultButton(true);
+        searchButton.setOnAction(e -> onSearch.run());
+        
+        grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(8);
+        grid.add(new Label("Suchbegriff:"), 0, 0);
+        grid.add(queryField, 1, 0);
+        grid.add(searchButton, 2, 0);
+        grid.add(new Label("Regex:"), 0, 1);
+        grid.add(regexField, 1, 1);
+        GridPane.setHgrow(queryField, Priority.ALWAYS);
+        GridPane.setHgrow(regexField, Priority.ALWAYS);
+    }
+    
+    GridPane getGrid() {
+        return grid;
+    }
+    
+    void requestFocus() {
+        queryField.requestFocus();
+    }
+    
+    /**
+     * Reads and validates the fields.
+     *
+     * @return the query, or null after the problem has been shown in the status label
+     */
+    Query read(Label statusLabel) {
+        String literal = queryField.getText() != null ? queryField.getText() : "";
+        String regex = regexField.getText() != null ? regexField.getText().trim() : "";
+        
+        Pattern refinement = null;
+        if (!regex.isEmpty()) {
+            try {
+                refinement = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                statusLabel.setText("Ungültiger regulärer Ausdruck: " + e.getDescription());
+                return null;
+            }
+        }
+        
+        if (literal.isEmpty() && refinement == null) {
+            statusLabel.setText("Bitte einen Suchbegriff eingeben");
+            return null;
+        }
+        return new Query(literal, refinement);
+    }
+}
@@ -66,6 +66,9 @@ public class SettingsDialog extends Dialog<ConnectionSettings> {
     private final CheckBox rememberWindowGeometryCheck;
     private final CheckBox rememberDashboardStateCheck;
     
+    // Output triggers
+    private final TriggerListPane triggerListPane;
+    
     public SettingsDialog(Stage owner, KorTTYApplication app, ConfigurationManager configManager, 
                           GlobalSettings globalSettings, CredentialManager credentialManager, 
                           GPGKeyManager gpgKeyManager) {
@@ -417,7 +420,14 @@ public class SettingsDialog extends Dialog<ConnectionSettings> {
         
         securityTab.setContent(securityGrid);
         
-        tabPane.getTabs().addAll(fontTab, colorsTab, terminalTab, backupTab, windowTab, securityTab);
+        // Triggers tab
+        Tab triggersTab = new Tab("Trigger");
+        triggerListPane = new TriggerListPane("Globale Trigger (gelten für alle Verbindungen):",
+                globalSettings != null ? globalSettings.getOutputTriggers() : java.util.List.of());
+        triggerListPane.setPadding(new Insets(20));
+        triggersTab.setContent(triggerListPane);
+        
+        tabPane.getTabs().addAll(fontTab, colorsTab, terminalTab, backupTab, windowTab, securityTab, triggersTab);
         
         VBox content = new VBox(tabPane);
         content.setPrefSize(500, 400);
@@ -476,6 +486,9 @@ public class SettingsDialog extends Dialog<ConnectionSettings> {
             // Save window settings
             globalSettings.setRememberWindowGeometry(rememberWindowGeometryCheck.isSelected());
             globalSettings.setRememberDashboardState(rememberDashboardStateCheck.isSelected());
+            
+            // Save global output triggers (used by new connections)
+            globalSettings.setOutputTriggers(triggerListPane.getTriggers());
         }
     }
     
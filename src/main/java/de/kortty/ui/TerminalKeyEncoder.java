@@ -0,0 +1,84 @@
+package de.kortty.ui;
+
+import com.techsenger.jeditermfx.core.Terminal;
+import javafx.scene.input.KeyEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Turns key events into the bytes a terminal sends for them.
+ *
+ * Special keys are encoded by the terminal's own key encoder, so cursor key mode (DECCKM),
+ * keypad mode, modifiers and function keys come out exactly as the terminal would send them.
+ * Typed characters are sent as UTF-8; Ctrl turns letters into control characters and Alt
+ * prefixes ESC, as JediTerm does.
+ */
+final class TerminalKeyEncoder {
+    
+    // Modifier masks of java.awt.event.InputEvent, which the terminal's key encoder expects
+    private static final int SHIFT_MASK = 1;
+    private static final int CTRL_MASK = 2;
+    private static final int META_MASK = 4;
+    private static final int ALT_MASK = 8;
+    
+    private final Supplier<Terminal> terminal;
+    private boolean pressEncoded = false;
+    
+    TerminalKeyEncoder(Supplier<Terminal> terminal) {
+        this.terminal = terminal;
+    }
+    
+    /**
+     * Encodes a KEY_PRESSED event.
+     *
+     * @return the bytes, or null if the key is sent as a typed character instead
+     */
+    byte[] encodePressed(KeyEvent event) {
+        Terminal target = terminal.get();
+        byte[] code = target != null ? target.getCodeForKey(event.getCode().getCode(), modifiers(event)) : null;
+        pressEncoded = code != null;
+        return code;
+    }
+    
+    /**
+     * Encodes a KEY_TYPED event.
+     *
+     * @return the bytes, or null if nothing is sent, e.g. because the key press was already encoded
+     */
+    byte[] encodeTyped(KeyEvent event) {
+        if (pressEncoded) {
+            pressEncoded = false;
+            return null;
+        }
+        String character = event.getCharacter();
+        if (character.isEmpty() || character.equals(KeyEvent.CHAR_UNDEFINED)) {
+            return null;
+        }
+        char c = character.charAt(0);
+        if (event.isControlDown() && !event.isAltDown() && c >= '@' && c <= '~') {
+            // Ctrl+A is 0x01 ... Ctrl+_ is 0x1F, upper and lower case alike
+            return new byte[] {(byte) (c & 0x1F)};
+        }
+        if (c < 0x20 && !event.isControlDown()) {
+            return null; // Enter, Tab, Backspace and Escape are encoded on key press
+        }
+        byte[] bytes = character.getBytes(StandardCharsets.UTF_8);
+        if (event.isAltDown() && !event.isControlDown()) {
+            byte[] escaped = new byte[bytes.length + 1];
+            escaped[0] = 0x1B;
+            System.arraycopy(bytes, 0, escaped, 1, bytes.length);
+            return escaped;
+        }
+        return bytes;
+    }
+    
+    private static int modifiers(KeyEvent event) {
+        int modifiers = 0;
+        if (event.isShiftDown()) modifiers |= SHIFT_MASK;
+        if (event.isControlDown()) modifiers |= CTRL_MASK;
+        if (event.isMetaDown()) modifiers |= META_MASK;
+        if (event.isAltDown()) modifiers |= ALT_MASK;
+        return modifiers;
+    }
+}
@@ -1,19 +1,28 @@
 package de.kortty.ui;
 
 import de.kortty.model.ConnectionSettings;
+import de.kortty.model.OutputTrigger;
 import de.kortty.model.ServerConnection;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Tab;
+import javafx.scene.control.Tooltip;
 import javafx.scene.paint.Color;
+import javafx.util.Duration;
 
 /**
  * A tab containing a terminal view for an SSH session.
  */
 public class TerminalTab extends Tab {
     
+    private static final String TRIGGER_STYLE = "-fx-background-color: #FF8C00; -fx-text-fill: black;";
+    
     private final ServerConnection connection;
     private final TerminalView terminalView;
     private final ConnectionSettings settings;
@@ -22,6 +31,26 @@ public class TerminalTab extends Tab {
     // Tab group (independent from connection group)
     private String tabGroup = null;
     
+    // Broadcast input state within the tab group
+    private BroadcastState broadcastState = BroadcastState.OFF;
+    private String titleSuffix = "";
+    private String broadcastDetail;
+    
+    // Set while an output trigger has marked the tab and it has not been looked at
+    private boolean triggerHighlighted = false;
+    private Timeline bounceAnimation;
+    
+    // Additional views of this session: one split pane and any number of windows
+    private MirrorView splitMirror;
+    private final java.util.List<javafx.stage.Stage> mirrorWindows = new java.util.ArrayList<>();
+    private final ReadOnlyBooleanWrapper mirrored = new ReadOnlyBooleanWrapper(false);
+    
+    public enum BroadcastState {
+        OFF,
+        ACTIVE,
+        LAGGING
+    }
+    
     public TerminalTab(ServerConnection connection, String password) {
         this.connection = connection;
         this.settings = connection.getSettings();
@@ -31,6 +60,14 @@ public class TerminalTab extends Tab {
         setContent(terminalView);
         setClosable(true);
         
+        // Output triggers mark the tab until it is selected
+        terminalView.setTriggerListener(this::onTrigger);
+        selectedProperty().addListener((obs, old, selected) -> {
+            if (selected) {
+                clearTriggerHighlight();
+            }
+        });
+        
         // Handle tab close
         setOnCloseRequest(event -> {
             if (terminalView.isConnected() && !settings.isCloseWithoutConfirmation()) {
@@ -45,10 +82,87 @@ public class TerminalTab extends Tab {
                     return;
                 }
             }
+            closeMirrors();
             terminalView.cleanup();
         });
     }
     
+    /**
+     * Shows or hides a mirror of the session beside the terminal.
+     */
+    public void setSplitView(boolean split) {
+        if (split == isSplitView()) {
+            return;
+        }
+        if (split) {
+            splitMirror = new MirrorView(terminalView);
+            javafx.scene.control.SplitPane splitPane = new javafx.scene.control.SplitPane(terminalView, splitMirror);
+            setContent(splitPane);
+        } else {
+            splitMirror.detach();
+            splitMirror = null;
+            setContent(terminalView);
+        }
+        updateMirrored();
+        terminalView.focusTerminal();
+    }
+    
+    public boolean isSplitView() {
+        return splitMirror != null;
+    }
+    
+    /**
+     * Opens a window that mirrors the session, e.g. for a second monitor.
+     */
+    public void openMirrorWindow(javafx.stage.Window owner) {
+        MirrorView mirror = new MirrorView(terminalView);
+        javafx.stage.Stage window = new javafx.stage.Stage();
+        window.initOwner(owner);
+        window.setTitle("Spiegel: " + connection.getDisplayName());
+        window.setScene(new javafx.scene.Scene(mirror, 900, 600));
+        window.setOnHidden(e -> {
+            mirror.detach();
+            mirrorWindows.remove(window);
+            updateMirrored();
+        });
+        mirrorWindows.add(window);
+        updateMirrored();
+        window.show();
+    }
+    
+    /**
+     * True while a split view or a mirror window shows this session.
+     */
+    public ReadOnlyBooleanProperty mirroredProperty() {
+        return mirrored.getReadOnlyProperty();
+    }
+    
+    public boolean isMirrored() {
+        return mirrored.get();
+    }
+    
+    private void updateMirrored() {
+        mirrored.set(splitMirror != null || !mirrorWindows.isEmpty());
+    }
+    
+    private void closeMirrors() {
+        setSplitView(false);
+        for (javafx.stage.Stage window : new java.util.ArrayList<>(mirrorWindows)) {
+            window.close();
+        }
+    }
+    
+    private void refreshMirrors() {
+        if (splitMirror != null) {
+            splitMirror.refresh();
+        }
+        for (javafx.stage.Stage window : mirrorWindows) {
+            if (window.getScene().getRoot() instanceof MirrorView mirror) {
+                mirror.refresh();
+            }
+        }
+    }
+    
     /**
      * Sets the tab color to yellow to indicate connection attempt in progress.
      */
@@ -78,6 +192,55 @@ public class TerminalTab extends Tab {
         });
     }
     
+    /**
+     * Marks the tab when a highlight or bounce trigger matches while the tab is in the background.
+     */
+    private void onTrigger(OutputTrigger trigger, String line) {
+        Platform.runLater(() -> {
+            if (isSelected() || isConnectionFailed) {
+                return;
+            }
+            triggerHighlighted = true;
+            setTooltip(new Tooltip("Trigger \"" + trigger.getDisplayName() + "\": " + line.strip()));
+            if (trigger.getAction() == OutputTrigger.Action.BOUNCE) {
+                bounce();
+            } else {
+                setStyle(TRIGGER_STYLE);
+            }
+        });
+    }
+    
+    /**
+     * Flashes the tab a few times and leaves it highlighted.
+     */
+    private void bounce() {
+        if (bounceAnimation != null) {
+            bounceAnimation.stop();
+        }
+        bounceAnimation = new Timeline();
+        for (int i = 0; i < 6; i++) {
+            String style = i % 2 == 0 ? TRIGGER_STYLE : "";
+            bounceAnimation.getKeyFrames().add(new KeyFrame(Duration.millis(i * 250), e -> setStyle(style)));
+        }
+        bounceAnimation.getKeyFrames().add(new KeyFrame(Duration.millis(1500), e -> setStyle(TRIGGER_STYLE)));
+        bounceAnimation.play();
+    }
+    
+    private void clearTriggerHighlight() {
+        if (!triggerHighlighted) {
+            return;
+        }
+        triggerHighlighted = false;
+        if (bounceAnimation != null) {
+            bounceAnimation.stop();
+            bounceAnimation = null;
+        }
+        if (!isConnectionFailed) {
+            setStyle("");
+        }
+        setTooltip(broadcastState == BroadcastState.OFF || broadcastDetail == null ? null : new Tooltip(broadcastDetail));
+    }
+    
     /**
      * Retries the connection.
      */
@@ -167,6 +330,7 @@ public class TerminalTab extends Tab {
      */
     public void zoom(int delta) {
         terminalView.zoom(delta);
+        refreshMirrors();
     }
     
     /**
@@ -174,6 +338,7 @@ public class TerminalTab extends Tab {
      */
     public void resetZoom() {
         terminalView.resetZoom();
+        refreshMirrors();
     }
     
     public ServerConnection getConnection() {
@@ -200,21 +365,43 @@ public class TerminalTab extends Tab {
      * @param suffix Additional suffix to append (e.g., " (DISCONNECT)")
      */
     private void updateTabTitle(String suffix) {
+        titleSuffix = suffix;
         Platform.runLater(() -> {
             String displayName = connection.getDisplayName();
             if (displayName == null || displayName.trim().isEmpty()) {
                 displayName = connection.getUsername() + "@" + connection.getHost();
             }
             
+            String prefix = switch (broadcastState) {
+                case ACTIVE -> "⇶ ";
+                case LAGGING -> "⇶⚠ ";
+                default -> "";
+            };
+            
             String group = tabGroup; // Use tab group, not connection group
             if (group != null && !group.trim().isEmpty()) {
-                setText("[" + group + "] " + displayName + suffix);
+                setText(prefix + "[" + group + "] " + displayName + suffix);
             } else {
-                setText(displayName + suffix);
+                setText(prefix + displayName + suffix);
             }
         });
     }
     
+    /**
+     * Shows whether this tab receives broadcast input and whether delivery lags behind.
+     * Must be called on the FX thread.
+     */
+    public void setBroadcastState(BroadcastState state, String detail) {
+        this.broadcastState = state;
+        this.broadcastDetail = detail;
+        setTooltip(state == BroadcastState.OFF || detail == null ? null : new Tooltip(detail));
+        updateTabTitle(titleSuffix);
+    }
+    
+    public BroadcastState getBroadcastState() {
+        return broadcastState;
+    }
+    
     /**
      * Gets the group name for this tab (independent from connection).
      */
@@ -2,26 +2,59 @@ package de.kortty.ui;
 
 import com.techsenger.jeditermfx.core.TerminalColor;
 import com.techsenger.jeditermfx.core.TextStyle;
+import com.techsenger.jeditermfx.core.util.TermSize;
 import com.techsenger.jeditermfx.ui.JediTermFxWidget;
 import com.techsenger.jeditermfx.ui.settings.DefaultSettingsProvider;
+import de.kortty.core.AsciicastRecorder;
+import de.kortty.core.AsciicastRecording;
+import de.kortty.core.ExpectRunner;
+import de.kortty.core.ExpectScript;
+import de.kortty.core.EmulationScheduler;
+import de.kortty.core.KeystrokeLatencyTracker;
+import de.kortty.core.OutputFlowControl;
+import de.kortty.core.PredictiveEcho;
+import de.kortty.core.ScrollbackExporter;
+import de.kortty.core.ScrollbackIndex;
 import de.kortty.core.SshTtyConnector;
+import de.kortty.core.TriggerEngine;
 import de.kortty.core.DisconnectListener;
 import de.kortty.model.ConnectionSettings;
 import de.kortty.model.ServerConnection;
+import de.kortty.persistence.HistoryJournal;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
+import javafx.util.Duration;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
 /**
  * Terminal view component using JediTermFX for professional terminal emulation.
  */
 public class TerminalView extends BorderPane {
     
     private static final Logger logger = LoggerFactory.getLogger(TerminalView.class);
+    private static final Pattern PASSWORD_PROMPT = Pattern.compile(
+            "(?i)(password|passwort|passphrase|kennwort)[^:]*:\\s*$");
+    
+    // Set once JediTermFX turned out not to support changing the font at runtime
+    private static volatile boolean fontChangeUnsupported = false;
+    private static volatile java.lang.reflect.Method reinitFontMethod;
     
     private final ServerConnection connection;
     private final ConnectionSettings settings;
@@ -36,6 +69,27 @@ public class TerminalView extends BorderPane {
     private DisconnectListener externalDisconnectListener;
     private Runnable onConnectedCallback;
     private de.kortty.core.TerminalLogger terminalLogger;
+    private de.kortty.core.RawCapture rawCapture;
+    private SshTtyConnector.RawDataListener rawCaptureListener;
+    private SshTtyConnector.ResizeListener rawCaptureResizeListener;
+    private final ScrollbackIndex scrollbackIndex;
+    private final HistoryJournal historyJournal;
+    private volatile String historyToRestore;
+    private final KeystrokeLatencyTracker latencyTracker;
+    private final OutputFlowControl flowControl;
+    private final EmulationScheduler.Slot emulationSlot;
+    private final PredictiveEcho predictiveEcho;
+    private PredictionOverlay predictionOverlay;
+    private final PauseTransition predictionExpiry = new PauseTransition();
+    private volatile AsciicastRecorder recorder;
+    private TriggerEngine triggerEngine;
+    private TriggerEngine.TriggerListener triggerListener;
+    private ExpectRunner autoCommandRunner;
+    private final java.util.List<SshTtyConnector.InputListener> typedInputListeners =
+            new java.util.concurrent.CopyOnWriteArrayList<>();
+    private TerminalKeyEncoder keyEncoder;
+    private final java.util.List<SshTtyConnector.DataListener> outputListeners =
+            new java.util.concurrent.CopyOnWriteArrayList<>();
     
     public TerminalView(ServerConnection connection, String password) {
         this.connection = connection;
@@ -43,6 +97,13 @@ public class TerminalView extends BorderPane {
         this.password = password;
         this.defaultFontSize = settings.getFontSize();
         this.currentFontSize = defaultFontSize;
+        this.scrollbackIndex = new ScrollbackIndex(connection.getDisplayName(), settings.getScrollbackLines());
+        this.historyJournal = de.kortty.KorTTYApplication.getInstance().getHistoryStorage()
+                .openJournal(java.util.UUID.randomUUID().toString());
+        this.latencyTracker = new KeystrokeLatencyTracker(connection.getDisplayName(), Platform::runLater);
+        this.flowControl = new OutputFlowControl(connection.getDisplayName(), Platform::runLater);
+        this.emulationSlot = EmulationScheduler.register(connection.getDisplayName());
+        this.predictiveEcho = new PredictiveEcho(latencyTracker, settings.isPredictiveEcho());
         
         initializeTerminal();
     }
@@ -54,8 +115,31 @@ public class TerminalView extends BorderPane {
         // Create terminal widget
         terminalWidget = new JediTermFxWidget(settingsProvider);
         
+        // Predicted input is drawn on a layer above the terminal pane
+        predictionOverlay = new PredictionOverlay(Color.web(settings.getForegroundColor()));
+        predictionExpiry.setOnFinished(e -> {
+            // Predictions that are never echoed may see no more output to expire them
+            if (predictiveEcho.expire()) {
+                updatePredictionOverlay();
+            } else {
+                schedulePredictionExpiry();
+            }
+        });
+        
         // Set the terminal pane as center content
-        setCenter(terminalWidget.getPane());
+        setCenter(new StackPane(terminalWidget.getPane(), predictionOverlay));
+        
+        // Keys typed by the user, encoded like the terminal does, for listeners such as the group broadcast
+        keyEncoder = new TerminalKeyEncoder(this::getTerminal);
+        terminalWidget.getPane().addEventFilter(KeyEvent.KEY_PRESSED,
+                event -> notifyTypedInput(keyEncoder.encodePressed(event)));
+        terminalWidget.getPane().addEventFilter(KeyEvent.KEY_TYPED,
+                event -> notifyTypedInput(keyEncoder.encodeTyped(event)));
+        terminalWidget.getPane().addEventFilter(MouseEvent.MOUSE_PRESSED, event -> {
+            if (event.getButton() == MouseButton.MIDDLE && settingsProvider.pasteOnMiddleMouseClick()) {
+                notifyTypedPaste();
+            }
+        });
         
         // Request focus on the terminal
         Platform.runLater(() -> {
@@ -139,6 +223,9 @@ public class TerminalView extends BorderPane {
                     
                     // Create TtyConnector
                     ttyConnector = new SshTtyConnector(connection, password);
+                    ttyConnector.setLatencyTracker(latencyTracker);
+                    ttyConnector.setFlowControl(flowControl);
+                    ttyConnector.setEmulationSlot(emulationSlot);
                     
                     // Set SSHKeyManager if available
                     if (connection.getAuthMethod() == de.kortty.model.AuthMethod.PUBLIC_KEY) {
@@ -167,11 +254,47 @@ public class TerminalView extends BorderPane {
                     connected = ttyConnector.connect();
                     
                     if (connected) {
+                        // Index all output for the cross-tab scrollback search
+                        ttyConnector.addDataListener(scrollbackIndex::append);
+                        
+                        // Journal the full output so saving a project does not have to serialize it
+                        ttyConnector.addDataListener(historyJournal::append);
+                        
+                        // Predictive local echo (only active if enabled for this connection)
+                        ttyConnector.addInputListener(this::onUserInput);
+                        for (SshTtyConnector.DataListener listener : outputListeners) {
+                            ttyConnector.addDataListener(listener);
+                        }
+                        ttyConnector.addDataListener(data -> {
+                            if (predictiveEcho.onOutput(data)) {
+                                updatePredictionOverlay();
+                            }
+                        });
+                        
+                        // Output triggers of the connection and the global ones
+                        startTriggerEngine();
+                        
+                        // Session recording, if started for this tab
+                        ttyConnector.addDataListener(data -> {
+                            AsciicastRecorder activeRecorder = recorder;
+                            if (activeRecorder != null) {
+                                activeRecorder.onOutput(data);
+                            }
+                        });
+                        
                         // Start terminal logger if enabled
                         startLogger();
                         
+                        // Auto command of the jump server, driven by the output
+                        startAutoCommand();
+                        
                         // Set the connector and start the terminal on JavaFX thread
                         Platform.runLater(() -> {
+                            // Show saved history above the live session before any output arrives
+                            String history = historyToRestore;
+                            historyToRestore = null;
+                            renderHistory(history);
+                            
                             terminalWidget.setTtyConnector(ttyConnector);
                             terminalWidget.start();
                             
@@ -258,7 +381,7 @@ public class TerminalView extends BorderPane {
             
             // Register data listener to capture terminal output
             if (ttyConnector != null) {
-                ttyConnector.setDataListener(data -> {
+                ttyConnector.addDataListener(data -> {
                     if (terminalLogger != null) {
                         terminalLogger.log(data);
                     }
@@ -270,6 +393,100 @@ public class TerminalView extends BorderPane {
             logger.error("Failed to start terminal logger: {}", e.getMessage(), e);
             showError("Logging konnte nicht gestartet werden: " + e.getMessage());
         }
+        
+        if (logConfig.isRawCapture() && ttyConnector != null && rawCapture == null) {
+            try {
+                TermSize size = ttyConnector.getTermSize();
+                rawCapture = new de.kortty.core.RawCapture(
+                        java.nio.file.Paths.get(logConfig.getLogFilePath() + de.kortty.core.RawCapture.EXTENSION),
+                        logConfig,
+                        size != null ? size.getColumns() : connection.getSettings().getTerminalColumns(),
+                        size != null ? size.getRows() : connection.getSettings().getTerminalRows());
+                de.kortty.core.RawCapture capture = rawCapture;
+                rawCaptureListener = capture::write;
+                rawCaptureResizeListener = capture::resize;
+                ttyConnector.addRawDataListener(rawCaptureListener);
+                ttyConnector.addResizeListener(rawCaptureResizeListener);
+            } catch (Exception e) {
+                logger.error("Failed to start raw capture: {}", e.getMessage(), e);
+                showError("Rohdaten-Mitschnitt konnte nicht gestartet werden: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Compiles the output triggers and feeds them from the connector.
+     */
+    private void startTriggerEngine() {
+        if (triggerEngine != null) {
+            triggerEngine.close(); // Reconnect
+        }
+        java.util.List<de.kortty.model.OutputTrigger> triggers = new ArrayList<>(connection.getOutputTriggers());
+        triggers.addAll(de.kortty.KorTTYApplication.getInstance().getGlobalSettingsManager()
+                .getSettings().getOutputTriggers());
+        TriggerEngine engine = new TriggerEngine(connection.getDisplayName(), triggers, (trigger, line) -> {
+            TriggerEngine.TriggerListener listener = triggerListener;
+            if (listener != null) {
+                listener.onTrigger(trigger, line);
+            }
+        });
+        if (!engine.hasTriggers()) {
+            engine.close();
+            triggerEngine = null;
+            return;
+        }
+        triggerEngine = engine;
+        ttyConnector.addDataListener(engine::onData);
+    }
+    
+    /**
+     * Runs the auto command of the jump server as expect script. Each command is sent as soon
+     * as its prompt appears in the output; must be called before the emulator starts reading.
+     */
+    private void startAutoCommand() {
+        if (autoCommandRunner != null) {
+            autoCommandRunner.cancel(); // Reconnect
+            autoCommandRunner = null;
+        }
+        de.kortty.model.JumpServer jumpServer = connection.getJumpServer();
+        if (jumpServer == null || !jumpServer.isEnabled()
+                || jumpServer.getAutoCommand() == null || jumpServer.getAutoCommand().isBlank()) {
+            return;
+        }
+        ExpectScript script;
+        try {
+            script = ExpectScript.parse(jumpServer.getAutoCommand());
+        } catch (IllegalArgumentException e) {
+            showError("Auto-Befehl fehlerhaft: " + e.getMessage());
+            return;
+        }
+        if (script.isEmpty()) {
+            return;
+        }
+        SshTtyConnector connector = ttyConnector;
+        ExpectRunner runner = new ExpectRunner(connection.getDisplayName(), script, connector::writeDirect,
+                (success, message) -> {
+                    if (!success) {
+                        showError("Auto-Befehl abgebrochen: " + message);
+                    }
+                });
+        autoCommandRunner = runner;
+        connector.addDataListener(runner);
+        runner.start();
+    }
+    
+    /**
+     * Sets the handler for matches of highlight and bounce triggers (called on a worker thread).
+     */
+    public void setTriggerListener(TriggerEngine.TriggerListener listener) {
+        this.triggerListener = listener;
+    }
+    
+    /**
+     * Gets the trigger engine of the current connection, or null without triggers.
+     */
+    public TriggerEngine getTriggerEngine() {
+        return triggerEngine;
     }
     
     /**
@@ -281,6 +498,16 @@ public class TerminalView extends BorderPane {
             terminalLogger = null;
             logger.info("Terminal logging stopped for {}", connection.getDisplayName());
         }
+        if (rawCapture != null) {
+            if (ttyConnector != null) {
+                ttyConnector.removeRawDataListener(rawCaptureListener);
+                ttyConnector.removeResizeListener(rawCaptureResizeListener);
+            }
+            rawCaptureListener = null;
+            rawCaptureResizeListener = null;
+            rawCapture.close();
+            rawCapture = null;
+        }
     }
     
     /**
@@ -324,6 +551,19 @@ public class TerminalView extends BorderPane {
     public void cleanup() {
         // Stop logger first
         stopLogger();
+        stopRecording();
+        if (triggerEngine != null) {
+            triggerEngine.close();
+            triggerEngine = null;
+        }
+        if (autoCommandRunner != null) {
+            autoCommandRunner.cancel();
+            autoCommandRunner = null;
+        }
+        historyJournal.close();
+        latencyTracker.close();
+        flowControl.close();
+        emulationSlot.close();
         
         // Close connection
         if (ttyConnector != null) {
@@ -378,6 +618,115 @@ public class TerminalView extends BorderPane {
         }
     }
     
+    /**
+     * Sends keys typed into a view of this terminal other than its own pane, e.g. a mirror.
+     * They reach the typed input listeners like keys typed into the terminal itself.
+     */
+    void sendTypedInput(byte[] bytes) {
+        if (ttyConnector != null && ttyConnector.isConnected()) {
+            try {
+                ttyConnector.write(bytes);
+            } catch (java.io.IOException e) {
+                logger.error("Failed to send input to terminal", e);
+                return;
+            }
+            notifyTypedInput(bytes);
+        }
+    }
+    
+    /**
+     * Gets the emulator of this terminal, e.g. to encode keys the way it does.
+     */
+    com.techsenger.jeditermfx.core.Terminal getTerminal() {
+        return terminalWidget != null ? terminalWidget.getTerminal() : null;
+    }
+    
+    /**
+     * Writes raw input to the connection, failing if it is not connected.
+     * Blocks while the channel cannot take more data, so do not call it on the FX thread.
+     */
+    public void writeInput(byte[] bytes) throws java.io.IOException {
+        SshTtyConnector connector = ttyConnector;
+        if (connector == null || !connector.isConnected()) {
+            throw new java.io.IOException("Nicht verbunden");
+        }
+        connector.write(bytes);
+    }
+    
+    /**
+     * Registers a listener for the keys and pastes the user types into this terminal, called
+     * on the FX thread. Replies of the emulator to the server, such as cursor position and
+     * mouse reports, are not passed on.
+     */
+    public void addTypedInputListener(SshTtyConnector.InputListener listener) {
+        typedInputListeners.add(listener);
+    }
+    
+    public void removeTypedInputListener(SshTtyConnector.InputListener listener) {
+        typedInputListeners.remove(listener);
+    }
+    
+    private void notifyTypedInput(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        for (SshTtyConnector.InputListener listener : typedInputListeners) {
+            listener.onInput(bytes);
+        }
+    }
+    
+    /**
+     * Passes the clipboard text to the typed input listeners, with line breaks sent as CR
+     * like the terminal pastes them.
+     */
+    private void notifyTypedPaste() {
+        if (typedInputListeners.isEmpty()) {
+            return;
+        }
+        String text = Clipboard.getSystemClipboard().getString();
+        if (text != null && !text.isEmpty()) {
+            notifyTypedInput(text.replace("\r\n", "\r").replace('\n', '\r').getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * Registers a listener for everything this terminal's connection prints.
+     * The listener stays registered across reconnects.
+     */
+    public void addOutputListener(SshTtyConnector.DataListener listener) {
+        outputListeners.add(listener);
+        SshTtyConnector connector = ttyConnector;
+        if (connector != null && connector.isConnected()) {
+            connector.addDataListener(listener);
+        }
+    }
+    
+    public void removeOutputListener(SshTtyConnector.DataListener listener) {
+        outputListeners.remove(listener);
+        SshTtyConnector connector = ttyConnector;
+        if (connector != null) {
+            connector.removeDataListener(listener);
+        }
+    }
+    
+    /**
+     * Gets the terminal widget whose buffer mirrors render from.
+     */
+    JediTermFxWidget getTerminalWidget() {
+        return terminalWidget;
+    }
+    
+    /**
+     * Gets the current (zoomed) terminal font.
+     */
+    Font getTerminalFont() {
+        return settingsProvider.getTerminalFont();
+    }
+    
+    ConnectionSettings getSettings() {
+        return settings;
+    }
+    
     /**
      * Copies selected text to clipboard.
      */
@@ -393,6 +742,7 @@ public class TerminalView extends BorderPane {
      */
     public void pasteFromClipboard() {
         if (terminalWidget != null && terminalWidget.getTerminalPanel() != null) {
+            notifyTypedPaste();
             terminalWidget.getTerminalPanel().handlePaste();
         }
     }
@@ -401,6 +751,9 @@ public class TerminalView extends BorderPane {
      * Zooms the terminal font.
      */
     public void zoom(int delta) {
+        if (fontChangeUnsupported) {
+            return;
+        }
         int newSize = Math.max(8, Math.min(72, currentFontSize + delta));
         if (newSize != currentFontSize) {
             currentFontSize = newSize;
@@ -421,93 +774,117 @@ public class TerminalView extends BorderPane {
     }
     
     /**
-     * Applies the zoom by scaling the terminal pane.
-     * Uses Scale transform with pivot at top-left corner (0,0) to keep text aligned.
-     * 
-     * Note: We use scaling instead of recreating the terminal because recreating
-     * would close the SSH connection. This is a limitation of JediTermFX - font
-     * size can only be set during initialization.
+     * Applies the zoom by changing the font of the terminal panel. The settings provider
+     * already returns the current size, so JediTermFX measures its cells, lays out its own
+     * grid and resizes the PTY; the buffer is kept. There is no scaling fallback: if the
+     * font cannot be changed, zoom is disabled.
      */
     private void applyZoom() {
-        if (terminalWidget != null && terminalWidget.getPane() != null) {
-            Platform.runLater(() -> {
+        if (terminalWidget == null || terminalWidget.getTerminalPanel() == null) {
+            return;
+        }
+        Platform.runLater(() -> {
+            try {
+                if (reinitTerminalFont()) {
+                    logger.debug("Zoom applied: font size {}", currentFontSize);
+                    return;
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                logger.error("Failed to apply zoom: {}", e.getMessage(), e);
+            }
+            fontChangeUnsupported = true;
+            currentFontSize = defaultFontSize;
+        });
+    }
+    
+    /**
+     * Re-initializes the font of the terminal panel. JediTermFX has no public way to change
+     * the font of a running terminal, so its internal method is looked up once by name.
+     */
+    private boolean reinitTerminalFont() throws ReflectiveOperationException {
+        Object panel = terminalWidget.getTerminalPanel();
+        java.lang.reflect.Method reinit = reinitFontMethod;
+        if (reinit == null) {
+            for (Class<?> type = panel.getClass(); type != null && reinit == null; type = type.getSuperclass()) {
                 try {
-                    // Calculate scale factor based on font size ratio
-                    double scale = (double) currentFontSize / defaultFontSize;
-                    
-                    // Clear existing transforms and add scale with pivot at top-left (0,0)
-                    javafx.scene.transform.Scale scaleTransform = new javafx.scene.transform.Scale(scale, scale, 0, 0);
-                    terminalWidget.getPane().getTransforms().clear();
-                    terminalWidget.getPane().getTransforms().add(scaleTransform);
-                    
-                    logger.debug("Zoom applied: scale factor {} (font size {}/{})", scale, currentFontSize, defaultFontSize);
-                } catch (Exception e) {
-                    logger.error("Failed to apply zoom: {}", e.getMessage(), e);
+                    reinit = type.getDeclaredMethod("reinitFontAndResize");
+                    reinit.setAccessible(true);
+                } catch (NoSuchMethodException e) {
+                    // Look in the superclass
                 }
-            });
+            }
+            if (reinit == null) {
+                logger.warn("JediTermFX cannot change the font at runtime, zoom is not available");
+                return false;
+            }
+            reinitFontMethod = reinit;
         }
+        reinit.invoke(panel);
+        return true;
     }
     
     /**
-     * Gets the terminal history/buffer.
+     * Sets history to show above the live session once the connection is established.
+     * The history is rendered into the local terminal buffer; nothing is sent to the server.
      */
-    public String getTerminalHistory() {
-        if (terminalWidget != null && terminalWidget.getTerminalTextBuffer() != null) {
-            return terminalWidget.getTerminalTextBuffer().getScreenLines();
-        }
-        return "";
+    public void setHistoryToRestore(String history) {
+        this.historyToRestore = history;
     }
     
     /**
-     * Restores terminal history by writing to temp file first, then displaying it.
-     * This approach shows only one short command line instead of multi-line here-doc.
+     * Writes saved history into the local terminal buffer, followed by a separator line.
+     * Only the last lines that fit into the scrollback are rendered. Must run on the FX thread.
      */
-    public void restoreHistory(String history) {
-        if (history == null || history.isEmpty()) {
+    public void renderHistory(String history) {
+        if (history == null || history.isEmpty() || terminalWidget == null || terminalWidget.getTerminal() == null) {
             return;
         }
         
-        Platform.runLater(() -> {
-            if (ttyConnector != null && ttyConnector.isConnected()) {
-                try {
-                    // Clean up the history - remove excessive empty lines
-                    String cleanHistory = history
-                        .replaceAll("\\n{3,}", "\n\n") // Max 2 consecutive newlines
-                        .trim();
-                    
-                    // Escape for shell (for writing to file via here-doc)
-                    String escapedForFile = cleanHistory;
-                    
-                    // Use a temp file approach - much cleaner!
-                    // 1. Write history to temp file (using very short here-doc 'H')
-                    // 2. Clear screen and cat the file  
-                    // 3. Delete the temp file
-                    // This way only "clear;cat ..." is visible, not the multi-line content
-                    
-                    StringBuilder command = new StringBuilder();
-                    String tmpFile = "/tmp/.kortty_hist_$$"; // $$ = current shell PID (unique)
-                    
-                    // Write to temp file (this command is short)
-                    command.append("cat>").append(tmpFile).append("<<H\n");
-                    command.append(escapedForFile);
-                    if (!escapedForFile.endsWith("\n")) {
-                        command.append("\n");
-                    }
-                    command.append("H\n");
-                    
-                    // Clear screen, show file content, delete file (all in one short line)
-                    command.append("clear;cat ").append(tmpFile).append(";rm ").append(tmpFile).append("\n");
-                    
-                    ttyConnector.write(command.toString());
-                    
-                    logger.info("Restored history ({} bytes)", cleanHistory.length());
-                } catch (Exception e) {
-                    logger.error("Failed to restore terminal history", e);
-                }
-            } else {
-                logger.warn("Cannot restore history: terminal not connected");
+        String tail = lastLines(history, settings.getScrollbackLines());
+        var terminal = terminalWidget.getTerminal();
+        int lineCount = 0;
+        int lineStart = 0;
+        while (lineStart < tail.length()) {
+            int lineEnd = tail.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = tail.length();
             }
-        });
+            if (lineEnd > lineStart) {
+                terminal.writeCharacters(tail.substring(lineStart, lineEnd));
+            }
+            terminal.carriageReturn();
+            terminal.newLine();
+            lineCount++;
+            lineStart = lineEnd + 1;
+        }
+        terminal.writeCharacters("──── Wiederhergestellter Verlauf (" + lineCount + " Zeilen) ────");
+        terminal.carriageReturn();
+        terminal.newLine();
+        
+        // Restored lines belong to this tab's history again
+        scrollbackIndex.append(tail);
+        historyJournal.appendText(tail);
+        
+        logger.info("Restored history locally ({} lines)", lineCount);
+    }
+    
+    /**
+     * Returns the last lines of the text without copying more than needed.
+     */
+    private static String lastLines(String text, int maxLines) {
+        int end = text.length();
+        while (end > 0 && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        int start = end;
+        int lines = 0;
+        while (start > 0) {
+            if (text.charAt(start - 1) == '\n' && ++lines >= maxLines) {
+                break;
+            }
+            start--;
+        }
+        return text.substring(start, end);
     }
     
     public ServerConnection getConnection() {
@@ -518,6 +895,195 @@ public class TerminalView extends BorderPane {
         return ttyConnector;
     }
     
+    /**
+     * Gets the full-text index over this terminal's output.
+     */
+    public ScrollbackIndex getScrollbackIndex() {
+        return scrollbackIndex;
+    }
+    
+    /**
+     * Scrolls the terminal so that a line of the scrollback index is in view.
+     * Lines are counted back from the cursor, so lines wrapped by the terminal or
+     * redrawn by full-screen programs may shift the position by a few rows.
+     */
+    public void scrollToIndexedLine(long lineNumber) {
+        if (terminalWidget == null || terminalWidget.getTerminal() == null
+                || terminalWidget.getTerminalPanel() == null) {
+            return;
+        }
+        int cursorRow = terminalWidget.getTerminal().getCursorY() - 1;
+        long row = cursorRow - (scrollbackIndex.getNextLineNumber() - lineNumber);
+        int historyLines = terminalWidget.getTerminalTextBuffer().getHistoryLinesCount();
+        int rows = terminalWidget.getTerminal().getTerminalHeight();
+        // Negative values scroll into the history; the line ends up in the middle of the view
+        int top = (int) Math.max(-historyLines, Math.min(0, row - rows / 2));
+        terminalWidget.getTerminalPanel().getBoundedRangeModel().setValue(top);
+    }
+    
+    /**
+     * Feeds user input into the predictive echo. Called on the thread that writes to the channel.
+     */
+    private void onUserInput(byte[] bytes) {
+        if (!predictiveEcho.isEnabled()) {
+            return;
+        }
+        boolean printable = bytes.length == 1 && bytes[0] >= 0x20 && bytes[0] <= 0x7E;
+        boolean contextAllowsIt = !printable || isPredictionContext();
+        if (predictiveEcho.onInput(bytes, contextAllowsIt)) {
+            updatePredictionOverlay();
+        }
+    }
+    
+    /**
+     * Predictions are only made on a normal command line: not in full-screen applications
+     * (alternate screen buffer) and not at password prompts.
+     */
+    private boolean isPredictionContext() {
+        if (terminalWidget == null || terminalWidget.getTerminal() == null) {
+            return false;
+        }
+        var buffer = terminalWidget.getTerminalTextBuffer();
+        buffer.lock();
+        try {
+            if (buffer.isUsingAlternateBuffer()) {
+                return false;
+            }
+            int cursorLine = terminalWidget.getTerminal().getCursorY() - 1;
+            String line = buffer.getLine(cursorLine).getText();
+            return !PASSWORD_PROMPT.matcher(line).find();
+        } finally {
+            buffer.unlock();
+        }
+    }
+    
+    /**
+     * Redraws the predicted characters at the current cursor position.
+     */
+    private void updatePredictionOverlay() {
+        Platform.runLater(() -> {
+            schedulePredictionExpiry();
+            String pending = predictiveEcho.getPendingText();
+            if (pending.isEmpty() || terminalWidget == null || terminalWidget.getTerminal() == null) {
+                predictionOverlay.clear();
+                return;
+            }
+            
+            Font font = settingsProvider.getTerminalFont();
+            GlyphMetrics.CellMetrics cell = GlyphMetrics.of(font);
+            
+            var terminal = terminalWidget.getTerminal();
+            predictionOverlay.show(pending, font,
+                    (terminal.getCursorX() - 1) * cell.width(),
+                    (terminal.getCursorY() - 1) * cell.height());
+        });
+    }
+    
+    /**
+     * Lets the timer check the oldest prediction when it is due. Called on the FX thread.
+     */
+    private void schedulePredictionExpiry() {
+        long nanos = predictiveEcho.getNanosUntilExpiry();
+        predictionExpiry.stop();
+        if (nanos >= 0) {
+            predictionExpiry.setDuration(Duration.millis(nanos / 1_000_000.0 + 1));
+            predictionExpiry.playFromStart();
+        }
+    }
+    
+    /**
+     * Gets the predictive local echo of this terminal.
+     */
+    public PredictiveEcho getPredictiveEcho() {
+        return predictiveEcho;
+    }
+    
+    /**
+     * Gets the keystroke latency measurements of this terminal.
+     */
+    public KeystrokeLatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+    
+    /**
+     * Gets the scheduling slot of this terminal's emulation.
+     */
+    public EmulationScheduler.Slot getEmulationSlot() {
+        return emulationSlot;
+    }
+    
+    /**
+     * Gets the journal of everything this terminal has printed.
+     */
+    public HistoryJournal getHistoryJournal() {
+        return historyJournal;
+    }
+    
+    /**
+     * Exports the scrollback and screen of this terminal to a file, page by page.
+     * Call from a background thread; the terminal keeps running during the export.
+     */
+    public ScrollbackExporter.Result exportScrollback(Path file, ScrollbackExporter.Format format,
+                                 ScrollbackExporter.ProgressListener progress) throws IOException {
+        if (terminalWidget == null || terminalWidget.getTerminalTextBuffer() == null) {
+            throw new IOException("Kein Terminalinhalt vorhanden");
+        }
+        ScrollbackExporter exporter = new ScrollbackExporter(terminalWidget.getTerminalTextBuffer(), format,
+                settings.getForegroundColor(), settings.getBackgroundColor());
+        return exporter.export(file, connection.getDisplayName(), progress);
+    }
+    
+    /**
+     * Starts recording the output of this terminal as asciicast v2 with a keyframe index.
+     */
+    public void startRecording(Path file) throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Nicht verbunden");
+        }
+        stopRecording();
+        recorder = new AsciicastRecorder(file, connection.getDisplayName(), this::captureScreen);
+    }
+    
+    /**
+     * Stops a running recording; does nothing if none is running.
+     */
+    public void stopRecording() {
+        AsciicastRecorder activeRecorder = recorder;
+        recorder = null;
+        if (activeRecorder != null) {
+            activeRecorder.stop();
+        }
+    }
+    
+    public boolean isRecording() {
+        return recorder != null;
+    }
+    
+    /**
+     * Captures the visible screen and cursor for a recording keyframe.
+     * Called on the emulator thread, between two output chunks.
+     */
+    private AsciicastRecording.Screen captureScreen() {
+        if (terminalWidget == null || terminalWidget.getTerminal() == null) {
+            return new AsciicastRecording.Screen(80, 24, List.of(), 0, 0);
+        }
+        var buffer = terminalWidget.getTerminalTextBuffer();
+        var terminal = terminalWidget.getTerminal();
+        buffer.lock();
+        try {
+            int width = buffer.getWidth();
+            int height = buffer.getHeight();
+            List<String> lines = new ArrayList<>(height);
+            for (int i = 0; i < height; i++) {
+                lines.add(buffer.getLine(i).getText());
+            }
+            return new AsciicastRecording.Screen(width, height, lines,
+                    terminal.getCursorY() - 1, terminal.getCursorX() - 1);
+        } finally {
+            buffer.unlock();
+        }
+    }
+    
     /**
      * Custom settings provider for KorTTY.
      */
@@ -0,0 +1,121 @@
+package de.kortty.ui;
+
+import de.kortty.model.OutputTrigger;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Modality;
+import javafx.stage.Window;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Dialog for editing an output trigger.
+ */
+public class TriggerEditDialog extends Dialog<OutputTrigger> {
+    
+    private final OutputTrigger trigger;
+    
+    private final CheckBox enabledCheck;
+    private final TextField nameField;
+    private final TextField textField;
+    private final TextField regexField;
+    private final CheckBox caseSensitiveCheck;
+    private final ComboBox<OutputTrigger.Action> actionCombo;
+    
+    public TriggerEditDialog(Window owner, OutputTrigger trigger) {
+        boolean isNew = trigger == null;
+        this.trigger = isNew ? new OutputTrigger() : trigger;
+        
+        setTitle(isNew ? "Trigger hinzufügen" : "Trigger bearbeiten");
+        setHeaderText("Reaktion auf bestimmte Terminalausgaben");
+        initOwner(owner);
+        initModality(Modality.WINDOW_MODAL);
+        setResizable(false);
+        
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20));
+        
+        int row = 0;
+        
+        enabledCheck = new CheckBox("Trigger aktivieren");
+        enabledCheck.setSelected(this.trigger.isEnabled());
+        grid.add(enabledCheck, 0, row++, 2, 1);
+        
+        nameField = new TextField(this.trigger.getName());
+        nameField.setPromptText("Optional, z.B. Fehler");
+        nameField.setPrefWidth(280);
+        grid.add(new Label("Name:"), 0, row);
+        grid.add(nameField, 1, row++);
+        
+        textField = new TextField(this.trigger.getText());
+        textField.setPromptText("z.B. ERROR, OOMKilled, Connection refused");
+        grid.add(new Label("Suchtext:"), 0, row);
+        grid.add(textField, 1, row++);
+        
+        regexField = new TextField(this.trigger.getRegex());
+        regexField.setPromptText("Optional: regulärer Ausdruck zur Verfeinerung");
+        grid.add(new Label("Regex:"), 0, row);
+        grid.add(regexField, 1, row++);
+        
+        caseSensitiveCheck = new CheckBox("Groß-/Kleinschreibung beachten");
+        caseSensitiveCheck.setSelected(this.trigger.isCaseSensitive());
+        grid.add(caseSensitiveCheck, 1, row++);
+        
+        actionCombo = new ComboBox<>();
+        actionCombo.getItems().addAll(OutputTrigger.Action.values());
+        actionCombo.setValue(this.trigger.getAction() != null ? this.trigger.getAction() : OutputTrigger.Action.HIGHLIGHT);
+        grid.add(new Label("Aktion:"), 0, row);
+        grid.add(actionCombo, 1, row++);
+        
+        Label infoLabel = new Label("Der Suchtext wird für alle Trigger gleichzeitig gesucht. Der reguläre Ausdruck\n" +
+                "wird nur auf Zeilen angewendet, die den Suchtext enthalten. Ohne Suchtext läuft er\n" +
+                "auf jeder Zeile und kostet entsprechend mehr Rechenzeit.");
+        infoLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: gray;");
+        grid.add(infoLabel, 0, row++, 2, 1);
+        
+        getDialogPane().setContent(grid);
+        
+        ButtonType saveButtonType = new ButtonType("Speichern", ButtonBar.ButtonData.OK_DONE);
+        getDialogPane().getButtonTypes().addAll(saveButtonType, ButtonType.CANCEL);
+        
+        // Validation: search text or regex required, regex must compile
+        Button saveButton = (Button) getDialogPane().lookupButton(saveButtonType);
+        Runnable validate = () -> saveButton.setDisable(!isValid());
+        textField.textProperty().addListener((obs, old, val) -> validate.run());
+        regexField.textProperty().addListener((obs, old, val) -> validate.run());
+        validate.run();
+        
+        setResultConverter(dialogButton -> {
+            if (dialogButton == saveButtonType) {
+                this.trigger.setEnabled(enabledCheck.isSelected());
+                this.trigger.setName(nameField.getText() != null ? nameField.getText().trim() : null);
+                this.trigger.setText(textField.getText() != null ? textField.getText() : "");
+                this.trigger.setRegex(regexField.getText() != null ? regexField.getText().trim() : "");
+                this.trigger.setCaseSensitive(caseSensitiveCheck.isSelected());
+                this.trigger.setAction(actionCombo.getValue());
+                return this.trigger;
+            }
+            return null;
+        });
+    }
+    
+    private boolean isValid() {
+        String text = textField.getText() != null ? textField.getText() : "";
+        String regex = regexField.getText() != null ? regexField.getText().trim() : "";
+        if (text.isEmpty() && regex.isEmpty()) {
+            return false;
+        }
+        if (!regex.isEmpty()) {
+            try {
+                Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
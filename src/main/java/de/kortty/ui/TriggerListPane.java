@@ -0,0 +1,98 @@
+package de.kortty.ui;
+
+import de.kortty.model.OutputTrigger;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List of output triggers with add/edit/remove buttons.
+ * Works on copies; {@link #getTriggers()} returns the edited list.
+ */
+class TriggerListPane extends VBox {
+    
+    private final ListView<OutputTrigger> triggerList = new ListView<>();
+    
+    TriggerListPane(String title, List<OutputTrigger> triggers) {
+        super(10);
+        
+        triggerList.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(OutputTrigger trigger, boolean empty) {
+                super.updateItem(trigger, empty);
+                if (empty || trigger == null) {
+                    setText(null);
+                } else {
+                    String status = trigger.isEnabled() ? "✓" : "○";
+                    String regex = trigger.getRegex() != null && !trigger.getRegex().isEmpty()
+                            ? " /" + trigger.getRegex() + "/"
+                            : "";
+                    String text = trigger.getText() != null && !trigger.getText().isEmpty()
+                            ? "\"" + trigger.getText() + "\""
+                            : "";
+                    setText(String.format("%s %s: %s%s -> %s", status, trigger.getDisplayName(), text, regex,
+                            trigger.getAction().getDisplayName()));
+                }
+            }
+        });
+        for (OutputTrigger trigger : triggers) {
+            triggerList.getItems().add(new OutputTrigger(trigger));
+        }
+        
+        Button addButton = new Button("Hinzufügen");
+        Button editButton = new Button("Bearbeiten");
+        Button removeButton = new Button("Entfernen");
+        editButton.setDisable(true);
+        removeButton.setDisable(true);
+        
+        triggerList.getSelectionModel().selectedItemProperty().addListener((obs, old, newVal) -> {
+            editButton.setDisable(newVal == null);
+            removeButton.setDisable(newVal == null);
+        });
+        
+        addButton.setOnAction(e -> new TriggerEditDialog(getScene().getWindow(), null)
+                .showAndWait()
+                .ifPresent(trigger -> triggerList.getItems().add(trigger)));
+        
+        editButton.setOnAction(e -> {
+            int index = triggerList.getSelectionModel().getSelectedIndex();
+            if (index >= 0) {
+                OutputTrigger copy = new OutputTrigger(triggerList.getItems().get(index));
+                new TriggerEditDialog(getScene().getWindow(), copy)
+                        .showAndWait()
+                        .ifPresent(edited -> triggerList.getItems().set(index, edited));
+            }
+        });
+        
+        removeButton.setOnAction(e -> {
+            int index = triggerList.getSelectionModel().getSelectedIndex();
+            if (index >= 0) {
+                triggerList.getItems().remove(index);
+            }
+        });
+        
+        HBox buttonBox = new HBox(10, addButton, editButton, removeButton);
+        
+        Label infoLabel = new Label("Trigger reagieren auf Ausgaben im Terminal: Tab hervorheben, Tab blinken lassen\n" +
+                "oder die Zeile in ~/.kortty/triggers.log schreiben. Die Rechenzeit pro Trigger\n" +
+                "zeigt das Dashboard im Tooltip des Tabs.");
+        infoLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: gray;");
+        
+        getChildren().addAll(new Label(title), triggerList, buttonBox, infoLabel);
+        VBox.setVgrow(triggerList, Priority.ALWAYS);
+    }
+    
+    /**
+     * Gets the edited triggers.
+     */
+    List<OutputTrigger> getTriggers() {
+        return new ArrayList<>(triggerList.getItems());
+    }
+}
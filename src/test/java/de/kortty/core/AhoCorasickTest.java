@@ -0,0 +1,56 @@
+package de.kortty.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AhoCorasickTest {
+    
+    @Test
+    void findsOverlappingPatternsInOnePass() {
+        AhoCorasick automaton = new AhoCorasick(List.of("he", "she", "his", "hers"));
+        
+        assertEquals(BitSet.valueOf(new long[] {0b1011}), find(automaton, "ushers"));
+        assertEquals(BitSet.valueOf(new long[] {0b0100}), find(automaton, "this"));
+    }
+    
+    @Test
+    void ignoresCaseAlsoOutsideAscii() {
+        AhoCorasick automaton = new AhoCorasick(List.of("Connection refused", "größe", "ÄÖÜ"));
+        
+        assertEquals(BitSet.valueOf(new long[] {0b001}), find(automaton, "ssh: CONNECTION REFUSED"));
+        assertEquals(BitSet.valueOf(new long[] {0b010}), find(automaton, "Dateigröße: 4 KB"));
+        assertEquals(BitSet.valueOf(new long[] {0b100}), find(automaton, "xäöüx"));
+    }
+    
+    @Test
+    void followsFailureLinksBetweenNonAsciiStates() {
+        AhoCorasick automaton = new AhoCorasick(List.of("äöx", "öü"));
+        
+        // "äö" leads into the first pattern; on "ü" the failure link has to continue at "ö"
+        assertEquals(BitSet.valueOf(new long[] {0b10}), find(automaton, "äöü"));
+    }
+    
+    @Test
+    void emptyPatternsNeverMatch() {
+        AhoCorasick automaton = new AhoCorasick(List.of("", "error"));
+        BitSet found = new BitSet();
+        
+        assertFalse(automaton.findAll("no problem here", found));
+        assertTrue(found.isEmpty());
+        assertTrue(automaton.findAll("an ERROR", found));
+        assertEquals(BitSet.valueOf(new long[] {0b10}), found);
+        assertEquals(2, automaton.getPatternCount());
+    }
+    
+    private static BitSet find(AhoCorasick automaton, String text) {
+        BitSet found = new BitSet();
+        automaton.findAll(text, found);
+        return found;
+    }
+}
@@ -0,0 +1,60 @@
+package de.kortty.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnsiStripperTest {
+    
+    @Test
+    void stripsSequencesSplitAcrossChunks() {
+        List<String> lines = new ArrayList<>();
+        AnsiStripper stripper = new AnsiStripper(line -> lines.add(line.toString()), 4096);
+        
+        // CSI, OSC with BEL, OSC with ST and a charset designation, each cut in the middle
+        stripper.feed("\u001b[0");
+        stripper.feed("1;3");
+        stripper.feed("1mred\u001b");
+        stripper.feed("[0m text\r");
+        stripper.feed("\n\u001b]0;ti");
+        stripper.feed("tle\u0007after\u001b]2;x\u001b");
+        stripper.feed("\\ st\u001b(");
+        stripper.feed("B end\r\n");
+        
+        assertEquals(List.of("red text", "after st end"), lines);
+    }
+    
+    @Test
+    void keepsPartialLineUntilFlush() {
+        List<String> lines = new ArrayList<>();
+        AnsiStripper stripper = new AnsiStripper(line -> lines.add(line.toString()), 4096);
+        
+        stripper.feed("user@host:~$ \u001b[");
+        stripper.feed("K");
+        assertEquals("user@host:~$ ", stripper.getPartialLine().toString());
+        assertEquals(List.of(), lines);
+        
+        stripper.flush();
+        assertEquals(List.of("user@host:~$ "), lines);
+    }
+    
+    @Test
+    void splitsLongLinesWithoutBreakingSurrogatePairs() {
+        List<String> lines = new ArrayList<>();
+        List<Boolean> split = new ArrayList<>();
+        AnsiStripper[] stripper = new AnsiStripper[1];
+        stripper[0] = new AnsiStripper(line -> {
+            lines.add(line.toString());
+            split.add(stripper[0].isSplitLine());
+        }, 4);
+        
+        stripper[0].feed("abc\uD83D");
+        stripper[0].feed("\uDE00defg\n");
+        
+        assertEquals(List.of("abc\uD83D\uDE00", "defg"), lines);
+        assertEquals(List.of(true, true), split);
+    }
+}
@@ -0,0 +1,62 @@
+package de.kortty.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    
+    @Test
+    void percentilesStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros);
+        }
+        
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMaxMicros());
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+            long exact = (long) Math.ceil(100_000 * percentile / 100);
+            long reported = histogram.getPercentile(percentile);
+            // The upper bound of the bucket: never below the exact value, at most 12.5% above
+            assertTrue(reported >= exact && reported <= exact * 1.125,
+                    "p" + percentile + " is " + reported + ", exact " + exact);
+        }
+        assertEquals(100_000, histogram.getPercentile(100));
+    }
+    
+    @Test
+    void smallValuesAreExactAndMaximumCapsTheBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(1_000);
+        
+        assertEquals(0, histogram.getPercentile(10));
+        assertEquals(3, histogram.getPercentile(50));
+        // 1000 lies in the bucket [960, 1023]; the maximum is reported instead of the bound
+        assertEquals(1_000, histogram.getPercentile(99));
+    }
+    
+    @Test
+    void emptyAndResetHistogramsReportZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+    
+    @Test
+    void hugeValuesLandInTheLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        
+        assertEquals(Long.MAX_VALUE, histogram.getMaxMicros());
+        assertTrue(histogram.getPercentile(50) > 1L << 32);
+    }
+}
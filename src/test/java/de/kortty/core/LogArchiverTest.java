@@ -0,0 +1,72 @@
+package de.kortty.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogArchiverTest {
+    
+    @Test
+    void listsGenerationsOldestFirst(@TempDir Path dir) throws IOException {
+        Path logFile = dir.resolve("session.log");
+        write(logFile, 10);
+        write(dir.resolve("session.log.20260102-080000.gz"), 10);
+        write(dir.resolve("session.log.20260101-120000-2"), 10);
+        write(dir.resolve("session.log.20260101-120000.gz"), 10);
+        write(dir.resolve("session.log.20260101-120000.gz.tmp"), 10);
+        write(dir.resolve("session.log.spill"), 10);
+        write(dir.resolve("other.log.20260101-120000"), 10);
+        
+        assertEquals(List.of(
+                dir.resolve("session.log.20260101-120000.gz"),
+                dir.resolve("session.log.20260101-120000-2"),
+                dir.resolve("session.log.20260102-080000.gz")), LogArchiver.listRotated(logFile));
+    }
+    
+    @Test
+    void retentionKeepsNewestGenerationsWithinCount(@TempDir Path dir) throws IOException {
+        Path logFile = dir.resolve("session.ndjson");
+        write(logFile, 10);
+        for (int day = 1; day <= 5; day++) {
+            Path generation = dir.resolve("session.ndjson.2026010" + day + "-120000.gz");
+            write(generation, 10);
+            write(LogTimeIndex.indexPath(generation), 1);
+        }
+        
+        LogArchiver.applyRetention(logFile, 2, Long.MAX_VALUE);
+        
+        assertEquals(List.of(
+                dir.resolve("session.ndjson.20260104-120000.gz"),
+                dir.resolve("session.ndjson.20260105-120000.gz")), LogArchiver.listRotated(logFile));
+        assertFalse(Files.exists(dir.resolve("session.ndjson.20260103-120000.idx")), "index of deleted generation");
+        assertTrue(Files.exists(dir.resolve("session.ndjson.20260104-120000.idx")), "index of kept generation");
+        assertTrue(Files.exists(logFile), "current log is never deleted");
+    }
+    
+    @Test
+    void retentionKeepsNewestGenerationsWithinTotalSize(@TempDir Path dir) throws IOException {
+        Path logFile = dir.resolve("session.log");
+        write(dir.resolve("session.log.20260101-120000"), 400);
+        write(dir.resolve("session.log.20260102-120000"), 100);
+        write(dir.resolve("session.log.20260103-120000"), 300);
+        write(dir.resolve("session.log.20260104-120000"), 200);
+        
+        LogArchiver.applyRetention(logFile, 10, 550);
+        
+        assertEquals(List.of(
+                dir.resolve("session.log.20260103-120000"),
+                dir.resolve("session.log.20260104-120000")), LogArchiver.listRotated(logFile));
+    }
+    
+    private static void write(Path file, int bytes) throws IOException {
+        Files.write(file, new byte[bytes]);
+    }
+}
@@ -0,0 +1,104 @@
+package de.kortty.core;
+
+import de.kortty.model.TerminalLogConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSearchTest {
+    
+    @Test
+    void findsSpecialCharactersInXmlLog(@TempDir Path dir) throws IOException {
+        Path logFile = writeLog(dir, TerminalLogConfig.LogFormat.XML,
+                "if [ a < b && \"c\" ]; then", "plain line");
+        
+        List<LogSearch.Hit> hits = search(logFile, TerminalLogConfig.LogFormat.XML, "a < b && \"c\"", null);
+        assertEquals(1, hits.size());
+        assertTrue(hits.get(0).line().contains("<![CDATA[if [ a < b && \"c\" ]; then]]>"), hits.get(0).line());
+    }
+    
+    @Test
+    void refinesJsonLogOnDecodedLine(@TempDir Path dir) throws IOException {
+        Path logFile = writeLog(dir, TerminalLogConfig.LogFormat.NDJSON,
+                "path C:\\temp\t\"quoted\"", "path elsewhere");
+        
+        List<LogSearch.Hit> hits = search(logFile, TerminalLogConfig.LogFormat.NDJSON, "path",
+                Pattern.compile("^path C:\\\\temp\\t\"quoted\"$"));
+        assertEquals(1, hits.size());
+        
+        // The key of the record is not part of the line
+        assertEquals(0, search(logFile, TerminalLogConfig.LogFormat.NDJSON, "path",
+                Pattern.compile("connection")).size());
+    }
+    
+    @Test
+    void findsLiteralInEveryFormatIgnoringCase(@TempDir Path dir) throws IOException {
+        for (TerminalLogConfig.LogFormat format : TerminalLogConfig.LogFormat.values()) {
+            Path formatDir = Files.createDirectory(dir.resolve(format.name()));
+            Path logFile = writeLog(formatDir, format,
+                    "ssh: connect to host example port 22: Connection refused", "Connection closed");
+            
+            List<LogSearch.Hit> hits = search(logFile, format, "CONNECTION REFUSED", null);
+            assertEquals(1, hits.size(), format.name());
+            assertTrue(hits.get(0).line().contains("port 22: Connection refused"), format + ": " + hits.get(0).line());
+            assertEquals(0, search(logFile, format, "timed out", null).size(), format.name());
+        }
+    }
+    
+    @Test
+    void findsLinesAcrossGzipChunkBorders(@TempDir Path dir) throws IOException {
+        // Lines of 100 bytes; line 10486 spans the end of the first 1 MB chunk
+        int lines = 25_000;
+        Path generation = dir.resolve("session.txt.20260101-120000.gz");
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(generation)),
+                StandardCharsets.UTF_8)) {
+            for (int i = 1; i <= lines; i++) {
+                String text = i == 10_486 || i == lines ? "Kernel panic in line " + i : "filler " + i;
+                out.write(text + ".".repeat(99 - text.length()) + "\n");
+            }
+        }
+        
+        List<LogSearch.Hit> hits = search(generation, TerminalLogConfig.LogFormat.PLAIN_TEXT, "kernel panic", null);
+        assertEquals(2, hits.size());
+        assertEquals(10_486, hits.get(0).lineNumber());
+        assertTrue(hits.get(0).line().startsWith("Kernel panic in line 10486."), hits.get(0).line());
+        assertEquals(lines, hits.get(1).lineNumber());
+        assertTrue(hits.get(1).line().startsWith("Kernel panic in line " + lines + "."), hits.get(1).line());
+    }
+    
+    static Path writeLog(Path dir, TerminalLogConfig.LogFormat format, String... lines) throws IOException {
+        Path logFile = dir.resolve("session." + format.getExtension());
+        TerminalLogConfig config = new TerminalLogConfig();
+        config.setLogFilePath(logFile.toString());
+        config.setFormat(format);
+        config.setMaxFileSizeMB(100);
+        
+        TerminalLogger terminalLogger = new TerminalLogger(config, "search-test");
+        terminalLogger.start();
+        for (String line : lines) {
+            terminalLogger.log(line + "\r\n");
+        }
+        terminalLogger.stop();
+        return logFile;
+    }
+    
+    static List<LogSearch.Hit> search(Path file, TerminalLogConfig.LogFormat format, String literal, Pattern refinement) {
+        List<LogSearch.Hit> hits = new CopyOnWriteArrayList<>();
+        new LogSearch(literal, refinement, 100).run(
+                List.of(new LogSearch.Source("test", file, format)), hits::add);
+        return hits;
+    }
+}
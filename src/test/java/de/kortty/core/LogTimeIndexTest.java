@@ -0,0 +1,96 @@
+package de.kortty.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogTimeIndexTest {
+    
+    // One record per second from 1000 ms on, an index entry every 10 records
+    private static final int RECORDS = 100;
+    
+    @Test
+    void findOffsetReturnsLastEntryAtOrBeforeTime(@TempDir Path dir) throws IOException {
+        Path index = dir.resolve("session.ndjson.idx");
+        Files.writeString(index, "1000 0\n2000 150\n3000 300\n4000");
+        
+        assertEquals(0, LogTimeIndex.findOffset(index, 500));
+        assertEquals(0, LogTimeIndex.findOffset(index, 1999));
+        assertEquals(150, LogTimeIndex.findOffset(index, 2000));
+        assertEquals(300, LogTimeIndex.findOffset(index, 3500));
+        // The torn last entry after a crash is ignored
+        assertEquals(300, LogTimeIndex.findOffset(index, 9000));
+        assertEquals(0, LogTimeIndex.findOffset(dir.resolve("missing.idx"), 9000));
+    }
+    
+    @Test
+    void readRangeSeeksToIndexedRecord(@TempDir Path dir) throws IOException {
+        Path logFile = dir.resolve("session.ndjson");
+        // A record in the range, but before the indexed offset: only found without seeking
+        writeLog(logFile, "{\"ts\":47000,\"line\":\"record 0\"}\n");
+        
+        assertEquals(List.of(46, 47, 48), readRange(logFile, 45_500, 48_000));
+    }
+    
+    @Test
+    void readRangeSkipsIntoGzippedGeneration(@TempDir Path dir) throws IOException {
+        Path plain = dir.resolve("session.ndjson.20260101-120000");
+        byte[] log = writeLog(plain, "");
+        Path generation = dir.resolve("session.ndjson.20260101-120000.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(generation))) {
+            out.write(log);
+        }
+        Files.delete(plain);
+        
+        assertEquals(List.of(1, 2), readRange(generation, 0, 2_000));
+        assertEquals(List.of(99, 100), readRange(generation, 98_001, 200_000));
+    }
+    
+    @Test
+    void readRangeIgnoresIncompleteLastRecord(@TempDir Path dir) throws IOException {
+        Path logFile = dir.resolve("session.ndjson");
+        writeLog(logFile, "");
+        Files.writeString(logFile, "{\"ts\":101000,\"line\":\"torn", StandardOpenOption.APPEND);
+        
+        assertEquals(List.of(100), readRange(logFile, 100_000, 200_000));
+    }
+    
+    /**
+     * Writes the records after the prefix, and their index; returns the log bytes.
+     */
+    private static byte[] writeLog(Path logFile, String prefix) throws IOException {
+        StringBuilder log = new StringBuilder(prefix);
+        StringBuilder index = new StringBuilder();
+        for (int i = 1; i <= RECORDS; i++) {
+            long millis = i * 1000L;
+            if (i % 10 == 1) {
+                index.append(millis).append(' ').append(log.length()).append('\n');
+            }
+            log.append("{\"ts\":").append(millis).append(",\"line\":\"record ").append(i).append("\"}\n");
+        }
+        byte[] bytes = log.toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(logFile, bytes);
+        Files.writeString(LogTimeIndex.indexPath(logFile), index);
+        return bytes;
+    }
+    
+    private static List<Integer> readRange(Path logFile, long fromMillis, long toMillis) throws IOException {
+        List<Integer> records = new ArrayList<>();
+        LogTimeIndex.readRange(logFile, fromMillis, toMillis, record -> {
+            int start = record.indexOf("record ") + "record ".length();
+            records.add(Integer.parseInt(record.substring(start, record.indexOf('"', start))));
+        });
+        return records;
+    }
+}
@@ -0,0 +1,106 @@
+package de.kortty.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+    
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(2, new MpscRingBuffer<String>(1).capacity());
+        assertEquals(2, new MpscRingBuffer<String>(2).capacity());
+        assertEquals(4, new MpscRingBuffer<String>(3).capacity());
+        assertEquals(16, new MpscRingBuffer<String>(10).capacity());
+        assertEquals(16, new MpscRingBuffer<String>(16).capacity());
+        assertEquals(32, new MpscRingBuffer<String>(17).capacity());
+    }
+    
+    @Test
+    void offerFailsWhenFullAndSucceedsAfterPoll() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertEquals(8, ring.size());
+        assertFalse(ring.offer(8));
+        
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(8));
+        assertFalse(ring.offer(9));
+    }
+    
+    @Test
+    void pollReturnsElementsInOrderAcrossWrapAround() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(ring.offer(round * 3 + i));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(next++, ring.poll());
+            }
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+    
+    @Test
+    void multipleProducersKeepTheirOwnOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<Long> ring = new MpscRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    // A full ring is expected here; retry until the consumer made room
+                    while (!ring.offer(producer << 32 | i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        
+        long[] expected = new long[producers];
+        long received = 0;
+        start.countDown();
+        while (received < (long) producers * perProducer) {
+            Long element = ring.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) (element >>> 32);
+            assertEquals(expected[producer], element & 0xFFFF_FFFFL, "order of producer " + producer);
+            expected[producer]++;
+            received++;
+        }
+        
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, expected[p]);
+        }
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,81 @@
+package de.kortty.core;
+
+import de.kortty.model.TerminalLogConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TerminalLoggerSpillTest {
+    
+    // More than fit into the ring of a writer worker
+    private static final int LINES = 40_000;
+    
+    /**
+     * Holds the writer worker in its first line, so the ring fills up and the following
+     * lines have to go through the spill file.
+     */
+    private static class StalledLogger extends TerminalLogger {
+        
+        final CountDownLatch release = new CountDownLatch(1);
+        
+        StalledLogger(TerminalLogConfig config) {
+            super(config, "spill-test");
+        }
+        
+        @Override
+        void writeEntry(String line) throws IOException {
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.writeEntry(line);
+        }
+    }
+    
+    @Test
+    void fullRingSpillsAndDrainsInOrder(@TempDir Path dir) throws IOException {
+        Path logFile = dir.resolve("session.log");
+        TerminalLogConfig config = new TerminalLogConfig();
+        config.setLogFilePath(logFile.toString());
+        config.setFormat(TerminalLogConfig.LogFormat.PLAIN_TEXT);
+        config.setOverflowPolicy(TerminalLogConfig.OverflowPolicy.SPILL);
+        config.setMaxFileSizeMB(100);
+        
+        StalledLogger terminalLogger = new StalledLogger(config);
+        terminalLogger.start();
+        for (int i = 0; i < LINES; i++) {
+            terminalLogger.log("line " + i + "\r\n");
+        }
+        long spilled = spilledLines(terminalLogger.getSummary());
+        assertTrue(spilled > 0, "lines should have been spilled: " + terminalLogger.getSummary());
+        
+        terminalLogger.release.countDown();
+        terminalLogger.stop();
+        
+        List<String> written = Files.readAllLines(logFile);
+        assertEquals(LINES, written.size(), terminalLogger.getSummary());
+        for (int i = 0; i < LINES; i++) {
+            assertTrue(written.get(i).endsWith("] line " + i), "line " + i + " is " + written.get(i));
+        }
+        assertFalse(Files.exists(dir.resolve("session.log.spill")), "spill file should be removed");
+    }
+    
+    private static long spilledLines(String summary) {
+        Matcher matcher = Pattern.compile("(\\d+) spilled").matcher(summary);
+        assertTrue(matcher.find(), summary);
+        return Long.parseLong(matcher.group(1));
+    }
+}